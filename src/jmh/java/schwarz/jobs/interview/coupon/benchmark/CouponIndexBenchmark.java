@@ -0,0 +1,109 @@
+package schwarz.jobs.interview.coupon.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import schwarz.jobs.interview.coupon.configuration.CouponCacheProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponIndexProperties;
+import schwarz.jobs.interview.coupon.core.cache.CouponCache;
+import schwarz.jobs.interview.coupon.core.cache.OffHeapCouponIndex;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+import schwarz.jobs.interview.coupon.core.models.Money;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup latency of the off-heap index against the heap cache of {@link Coupon} entities, each holding every
+ * coupon. The retained heap of the cache and the direct memory of the index are logged once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class CouponIndexBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(CouponIndexBenchmark.class);
+
+    @Param({"100000", "1000000", "10000000"})
+    public int coupons;
+
+    @Param({"index", "entities"})
+    public String store;
+
+    private OffHeapCouponIndex index;
+
+    private CouponCache cache;
+
+    private String[] codes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        codes = new String[coupons];
+        for (int i = 0; i < coupons; i++) {
+            // spread over the whole code space, as real codes are
+            codes[i] = CouponCodes.unpack(i * 2_147_483_647L % 218_340_105_584_896L);
+        }
+
+        long heapBefore = usedHeap();
+        if ("index".equals(store)) {
+            CouponIndexProperties properties = new CouponIndexProperties();
+            properties.setExpectedEntries(coupons);
+            index = new OffHeapCouponIndex(StubCouponStore.of(Map.of()), properties, new SimpleMeterRegistry());
+            for (int i = 0; i < coupons; i++) {
+                index.put(coupon(i));
+            }
+        } else {
+            CouponCacheProperties properties = new CouponCacheProperties();
+            properties.setMaximumSize(coupons);
+            cache = new CouponCache(properties);
+            for (int i = 0; i < coupons; i++) {
+                cache.put(coupon(i));
+            }
+        }
+        long heapAfter = usedHeap();
+
+        log.info("{} with {} coupons: {} bytes retained on heap, {} bytes off-heap",
+                store, coupons, heapAfter - heapBefore, index != null ? index.memoryBytes() : 0);
+    }
+
+    @Benchmark
+    public Coupon lookup() {
+        String code = codes[ThreadLocalRandom.current().nextInt(coupons)];
+        return index != null ? index.get(code) : cache.get(code);
+    }
+
+    private Coupon coupon(final int i) {
+        return Coupon.builder()
+                .id(i + 1L)
+                .code(new String(codes[i]))
+                .discount(Money.toBigDecimal(500 + i % 1000))
+                .minBasketValue(Money.toBigDecimal(5_000 + i % 10_000))
+                .build();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+}
@@ -0,0 +1,91 @@
+package schwarz.jobs.interview.coupon.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import schwarz.jobs.interview.coupon.configuration.CouponRecommendationProperties;
+import schwarz.jobs.interview.coupon.core.cache.CouponEligibilityIndex;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+import schwarz.jobs.interview.coupon.core.models.Money;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Top-5 coupons for a random basket from the eligibility index, against a scan over every coupon in memory, the
+ * best any query over the coupons table could do without an index on both bounds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CouponRecommendationBenchmark {
+
+    private static final int LIMIT = 5;
+
+    private static final Comparator<Coupon> BY_DISCOUNT = Comparator.comparingLong(Coupon::getDiscountCents).reversed()
+            .thenComparing(Coupon::getCode);
+
+    @Param({"10000", "100000", "1000000"})
+    public int coupons;
+
+    @Param({"index", "scan"})
+    public String strategy;
+
+    private CouponEligibilityIndex index;
+
+    private Coupon[] all;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CouponRecommendationProperties properties = new CouponRecommendationProperties();
+        index = new CouponEligibilityIndex(StubCouponStore.of(Map.of()), properties, new SimpleMeterRegistry());
+        all = new Coupon[coupons];
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < coupons; i++) {
+            // larger discounts need larger baskets, as they do in practice
+            long minBasket = random.nextLong(50_000);
+            all[i] = Coupon.builder()
+                    .code(CouponCodes.unpack(i * 2_147_483_647L % 218_340_105_584_896L))
+                    .discount(Money.toBigDecimal(100 + random.nextLong(100 + minBasket / 5)))
+                    .minBasketValue(Money.toBigDecimal(minBasket))
+                    .build();
+            index.add(all[i]);
+        }
+    }
+
+    @Benchmark
+    public List<Coupon> best() {
+        long basketValue = ThreadLocalRandom.current().nextLong(60_000);
+        if ("index".equals(strategy)) {
+            return index.best(basketValue, basketValue, LIMIT, coupon -> true);
+        }
+
+        return Arrays.stream(all)
+                .filter(coupon -> coupon.getMinBasketValueCents() <= basketValue
+                        && coupon.getDiscountCents() <= basketValue)
+                .sorted(BY_DISCOUNT)
+                .limit(LIMIT)
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,102 @@
+package schwarz.jobs.interview.coupon.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import schwarz.jobs.interview.coupon.configuration.CouponBatchingProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponCacheProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponCodeFilterProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponFilterProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponIndexProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponLedgerProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponRecommendationProperties;
+import schwarz.jobs.interview.coupon.core.cache.CouponCache;
+import schwarz.jobs.interview.coupon.core.cache.CouponEligibilityIndex;
+import schwarz.jobs.interview.coupon.core.cache.CouponCodeFilter;
+import schwarz.jobs.interview.coupon.core.cache.OffHeapCouponIndex;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.mapper.impl.BasketMapperImpl;
+import schwarz.jobs.interview.coupon.core.mapper.impl.CouponMapperImpl;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+import schwarz.jobs.interview.coupon.core.services.CouponBatchLoader;
+import schwarz.jobs.interview.coupon.core.services.CouponLookupCoalescer;
+import schwarz.jobs.interview.coupon.core.services.CouponRedemptionLedger;
+import schwarz.jobs.interview.coupon.core.services.CouponRedemptionLimiter;
+import schwarz.jobs.interview.coupon.core.services.CouponService;
+import schwarz.jobs.interview.coupon.web.dto.ApplicationRequestDTO;
+import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CouponServiceBenchmark {
+
+    @Param({"true", "false"})
+    public boolean cached;
+
+    private CouponService couponService;
+
+    private ApplicationRequestDTO request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Coupon coupon = Coupon.builder()
+                .id(1L)
+                .code("SUMMER24")
+                .discount(new BigDecimal("10.00"))
+                .minBasketValue(new BigDecimal("50.00"))
+                .build();
+        CouponStore couponStore = StubCouponStore.of(Map.of(coupon.getCode(), coupon));
+
+        CouponCacheProperties cacheProperties = new CouponCacheProperties();
+        cacheProperties.setMaximumSize(cached ? 10_000 : 0);
+
+        CouponBatchingProperties batchingProperties = new CouponBatchingProperties();
+        batchingProperties.setEnabled(false);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        CouponIndexProperties indexProperties = new CouponIndexProperties();
+        indexProperties.setEnabled(false);
+
+        couponService = new CouponService(couponStore, new CouponMapperImpl(), new BasketMapperImpl(),
+                new OffHeapCouponIndex(couponStore, indexProperties, meterRegistry),
+                new CouponCache(cacheProperties), new CouponLookupCoalescer(),
+                new CouponBatchLoader(couponStore, batchingProperties, meterRegistry),
+                new CouponCodeFilter(couponStore, new CouponCodeFilterProperties(), meterRegistry),
+                new CouponFilterProperties(), new CouponRedemptionLimiter(),
+                new CouponRedemptionLedger(new CouponLedgerProperties()),
+                new CouponEligibilityIndex(couponStore, new CouponRecommendationProperties(), meterRegistry));
+
+        request = ApplicationRequestDTO.builder()
+                .code("SUMMER24")
+                .basket(BasketDTO.builder()
+                        .value(new BigDecimal("120.50"))
+                        .appliedDiscount(BigDecimal.ZERO)
+                        .build())
+                .build();
+    }
+
+    @Benchmark
+    public BasketDTO applyCoupon() {
+        return couponService.applyCoupon(request).block();
+    }
+
+}
@@ -0,0 +1,95 @@
+package schwarz.jobs.interview.coupon.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import schwarz.jobs.interview.coupon.configuration.CouponStackingProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.Money;
+import schwarz.jobs.interview.coupon.core.services.CouponStackingSolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Best stack of candidate coupons worth up to 50.00 each for a random basket of up to 1000.00, solved by the branch
+ * and bound against the dynamic program over cents it falls back to, forced here with a search budget of zero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CouponStackingBenchmark {
+
+    private static final int SETS = 64;
+
+    @Param({"10", "25", "50", "100"})
+    public int candidates;
+
+    @Param({"rounded", "cents"})
+    public String discounts;
+
+    @Param({"search", "dp"})
+    public String strategy;
+
+    private CouponStackingSolver solver;
+
+    private List<List<Coupon>> candidateSets;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CouponStackingProperties properties = new CouponStackingProperties();
+        if ("dp".equals(strategy)) {
+            properties.setSearchBudget(0);
+        }
+        solver = new CouponStackingSolver(properties);
+
+        Random random = new Random(candidates);
+        candidateSets = new ArrayList<>(SETS);
+        for (int set = 0; set < SETS; set++) {
+            List<Coupon> coupons = new ArrayList<>(candidates);
+            for (int i = 0; i < candidates; i++) {
+                coupons.add(Coupon.builder()
+                        .code(String.format("STACK%03d", i))
+                        // campaigns mostly hand out round amounts, which many candidates then share
+                        .discount(Money.toBigDecimal("rounded".equals(discounts)
+                                ? 50L * (1 + random.nextInt(100))
+                                : 1 + random.nextInt(5_000)))
+                        .minBasketValue(Money.toBigDecimal(0))
+                        .build());
+            }
+            candidateSets.add(coupons);
+        }
+    }
+
+    @Benchmark
+    public CouponStackingSolver.Selection solve() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Coupon> coupons = candidateSets.get(random.nextInt(SETS));
+        long capacity = 1 + random.nextLong(100_000);
+
+        // the service only hands over coupons that fit the basket on their own
+        List<Coupon> fitting = new ArrayList<>(coupons.size());
+        for (Coupon coupon : coupons) {
+            if (coupon.getDiscountCents() <= capacity) {
+                fitting.add(coupon);
+            }
+        }
+        return solver.solve(fitting, capacity);
+    }
+
+}
@@ -0,0 +1,79 @@
+package schwarz.jobs.interview.coupon.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+import schwarz.jobs.interview.coupon.configuration.CouponJsonCacheProperties;
+import schwarz.jobs.interview.coupon.web.codec.CouponJsonCache;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * /filter response encoding: Jackson on every request versus concatenating cached per-coupon fragments.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterResponseBenchmark {
+
+    @Param({"1", "20", "100"})
+    public int coupons;
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    private ObjectMapper objectMapper;
+
+    private CouponJsonCache couponJsonCache;
+
+    private List<CouponDTO> response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        couponJsonCache = new CouponJsonCache(objectMapper, new CouponJsonCacheProperties());
+        response = IntStream.range(0, coupons)
+                .mapToObj(index -> CouponDTO.builder()
+                        .code(String.format("CODE%04d", index))
+                        .discount(new BigDecimal("10.00"))
+                        .minBasketValue(new BigDecimal("50.00"))
+                        .build())
+                .collect(Collectors.toList());
+        response.forEach(couponJsonCache::encode);
+    }
+
+    @Benchmark
+    public byte[] objectMapper() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public List<DataBuffer> cachedFragments() {
+        return couponJsonCache.jsonArray(Flux.fromIterable(response), bufferFactory)
+                .collectList()
+                .block();
+    }
+
+}
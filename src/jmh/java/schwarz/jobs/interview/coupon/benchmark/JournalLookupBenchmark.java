@@ -0,0 +1,146 @@
+package schwarz.jobs.interview.coupon.benchmark;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponStorageProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+import schwarz.jobs.interview.coupon.core.repository.journal.JournalCouponStore;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+/**
+ * {@code findByCode} latency of the journal storage engine against the pooled in-memory H2 database the
+ * repository queries by default, both holding the same coupons.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalLookupBenchmark {
+
+    private static final String INSERT_COUPON = "INSERT INTO COUPONS (CODE, DISCOUNT, MIN_BASKET_VALUE) VALUES ($1, $2, $3)";
+
+    @Param({"journal", "h2"})
+    public String engine;
+
+    @Param({"100000"})
+    public int coupons;
+
+    private String[] codes;
+
+    private Path directory;
+
+    private JournalCouponStore journal;
+
+    private ConnectionPool pool;
+
+    private R2dbcEntityTemplate template;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        codes = new String[coupons];
+        for (int i = 0; i < coupons; i++) {
+            codes[i] = CouponCodes.unpack(i * 2_147_483_647L % 218_340_105_584_896L);
+        }
+
+        if ("journal".equals(engine)) {
+            directory = Files.createTempDirectory("coupon-journal-bench");
+            CouponStorageProperties properties = new CouponStorageProperties();
+            properties.getJournal().setPath(directory.resolve("coupons.journal"));
+            properties.getJournal().setRegionSize(DataSize.ofMegabytes(64));
+            properties.getJournal().setFsync(false);
+
+            journal = new JournalCouponStore(properties);
+            Flux.range(0, coupons).concatMap(i -> journal.save(coupon(i))).blockLast();
+        } else {
+            pool = new ConnectionPool(ConnectionPoolConfiguration
+                    .builder(ConnectionFactories.get("r2dbc:h2:mem:///journalbench;DB_CLOSE_DELAY=-1"))
+                    .initialSize(10)
+                    .maxSize(20)
+                    .build());
+            new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(pool).block();
+            Flux.range(0, coupons).buffer(1_000).concatMap(this::insert).blockLast();
+            template = new R2dbcEntityTemplate(pool);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (journal != null) {
+            journal.destroy();
+            FileSystemUtils.deleteRecursively(directory);
+        }
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+
+    @Benchmark
+    public Coupon findByCode() {
+        String code = codes[ThreadLocalRandom.current().nextInt(coupons)];
+        return journal != null
+                ? journal.findByCode(code).block()
+                : template.selectOne(query(where("CODE").is(code)), Coupon.class).block();
+    }
+
+    private Mono<Long> insert(final List<Integer> batch) {
+        return Mono.usingWhen(pool.create(),
+                connection -> {
+                    Statement statement = connection.createStatement(INSERT_COUPON);
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        Coupon coupon = coupon(batch.get(i));
+                        statement.bind("$1", coupon.getCode())
+                                .bind("$2", coupon.getDiscount())
+                                .bind("$3", coupon.getMinBasketValue());
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated).count();
+                },
+                connection -> connection.close());
+    }
+
+    private Coupon coupon(final int i) {
+        return Coupon.builder()
+                .code(codes[i])
+                .discount(BigDecimal.valueOf(500 + i % 1000, 2))
+                .minBasketValue(BigDecimal.valueOf(5_000 + i % 10_000, 2))
+                .build();
+    }
+
+}
@@ -0,0 +1,80 @@
+package schwarz.jobs.interview.coupon.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private BasketDTO basketDTO;
+
+    private CouponDTO couponDTO;
+
+    private byte[] basketJson;
+
+    private byte[] couponJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        basketDTO = BasketDTO.builder()
+                .value(new BigDecimal("120.50"))
+                .appliedDiscount(new BigDecimal("10.00"))
+                .applicationSuccessful(true)
+                .build();
+        couponDTO = CouponDTO.builder()
+                .code("SUMMER24")
+                .discount(new BigDecimal("10.00"))
+                .minBasketValue(new BigDecimal("50.00"))
+                .build();
+
+        basketJson = objectMapper.writeValueAsBytes(basketDTO);
+        couponJson = objectMapper.writeValueAsBytes(couponDTO);
+    }
+
+    @Benchmark
+    public byte[] serializeBasket() throws IOException {
+        return objectMapper.writeValueAsBytes(basketDTO);
+    }
+
+    @Benchmark
+    public BasketDTO deserializeBasket() throws IOException {
+        return objectMapper.readValue(basketJson, BasketDTO.class);
+    }
+
+    @Benchmark
+    public byte[] serializeCoupon() throws IOException {
+        return objectMapper.writeValueAsBytes(couponDTO);
+    }
+
+    @Benchmark
+    public CouponDTO deserializeCoupon() throws IOException {
+        return objectMapper.readValue(couponJson, CouponDTO.class);
+    }
+
+}
@@ -0,0 +1,63 @@
+package schwarz.jobs.interview.coupon.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.mapper.impl.BasketMapperImpl;
+import schwarz.jobs.interview.coupon.core.mapper.impl.CouponMapperImpl;
+import schwarz.jobs.interview.coupon.core.models.Basket;
+import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private final BasketMapperImpl basketMapper = new BasketMapperImpl();
+
+    private final CouponMapperImpl couponMapper = new CouponMapperImpl();
+
+    private final BasketDTO basketDTO = BasketDTO.builder()
+            .value(new BigDecimal("120.50"))
+            .appliedDiscount(new BigDecimal("10.00"))
+            .build();
+
+    private final Basket basket = basketMapper.toBasket(basketDTO);
+
+    private final Coupon coupon = Coupon.builder()
+            .id(1L)
+            .code("SUMMER24")
+            .discount(new BigDecimal("10.00"))
+            .minBasketValue(new BigDecimal("50.00"))
+            .build();
+
+    @Benchmark
+    public Basket basketToModel() {
+        return basketMapper.toBasket(basketDTO);
+    }
+
+    @Benchmark
+    public BasketDTO basketToDto() {
+        return basketMapper.toDto(basket);
+    }
+
+    @Benchmark
+    public CouponDTO couponToDto() {
+        return couponMapper.toDto(coupon);
+    }
+
+}
@@ -0,0 +1,95 @@
+package schwarz.jobs.interview.coupon.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponRateLimitProperties;
+import schwarz.jobs.interview.coupon.core.metrics.CouponOutcomeMetrics;
+import schwarz.jobs.interview.coupon.web.ClientResolver;
+import schwarz.jobs.interview.coupon.web.ratelimit.CouponRateLimiter;
+import schwarz.jobs.interview.coupon.web.ratelimit.RateLimitWebFilter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link RateLimitWebFilter} per request against a pass-through chain: {@code disabled} is the baseline,
+ * {@code limited} resolves the client and takes a token. Buckets are large enough never to reject.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private static final WebFilterChain PASS_THROUGH = exchange -> Mono.empty();
+
+    @Param({"1", "10000"})
+    public int clients;
+
+    private RateLimitWebFilter limitedFilter;
+
+    private RateLimitWebFilter disabledFilter;
+
+    private MockServerWebExchange[] exchanges;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        limitedFilter = filter(true);
+        disabledFilter = filter(false);
+
+        exchanges = new MockServerWebExchange[clients];
+        for (int i = 0; i < clients; i++) {
+            exchanges[i] = MockServerWebExchange.from(MockServerHttpRequest.put("/api/coupons/apply")
+                    .header("X-Client-Id", "client-" + i));
+        }
+    }
+
+    @Benchmark
+    public Void disabled() {
+        return disabledFilter.filter(nextExchange(), PASS_THROUGH).block();
+    }
+
+    @Benchmark
+    public Void limited() {
+        return limitedFilter.filter(nextExchange(), PASS_THROUGH).block();
+    }
+
+    private MockServerWebExchange nextExchange() {
+        return exchanges[ThreadLocalRandom.current().nextInt(clients)];
+    }
+
+    private static RateLimitWebFilter filter(final boolean enabled) throws Exception {
+        CouponRateLimitProperties.Limit limit = new CouponRateLimitProperties.Limit();
+        limit.setCapacity(Integer.MAX_VALUE / 1_000);
+        limit.setRefillPerSecond(1_000_000_000);
+
+        CouponRateLimitProperties properties = new CouponRateLimitProperties();
+        properties.setEnabled(enabled);
+        properties.setClientHeader("X-Client-Id");
+        properties.getRoutes().put("/apply", limit);
+
+        return new RateLimitWebFilter(new CouponRateLimiter(properties), new ClientResolver(properties), properties,
+                new CouponOutcomeMetrics(new SimpleMeterRegistry()), new ObjectMapper());
+    }
+
+}
@@ -0,0 +1,125 @@
+package schwarz.jobs.interview.coupon.benchmark;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.r2dbc.connection.init.DatabasePopulator;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.util.FileSystemUtils;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+import schwarz.jobs.interview.coupon.core.snapshot.CouponSnapshot;
+import schwarz.jobs.interview.coupon.core.snapshot.CouponSnapshotPopulator;
+
+import java.io.BufferedWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Time to fill an empty coupons table at startup, from a binary snapshot or by replaying a {@code data.sql} with
+ * one INSERT per coupon, as the initializer did before snapshots existed. Each invocation loads a fresh in-memory
+ * database whose schema is already in place.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class SnapshotStartupBenchmark {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int coupons;
+
+    @Param({"snapshot", "sql"})
+    public String source;
+
+    private Path directory;
+
+    private DatabasePopulator populator;
+
+    private ConnectionFactory connectionFactory;
+
+    private Connection keepAlive;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("coupon-snapshot-bench");
+
+        if ("snapshot".equals(source)) {
+            Path snapshot = directory.resolve("coupons.snapshot");
+            try (CouponSnapshot.Writer writer = CouponSnapshot.create(snapshot)) {
+                for (int i = 0; i < coupons; i++) {
+                    writer.append(coupon(i));
+                }
+                writer.commit();
+            }
+            populator = new CouponSnapshotPopulator(snapshot, 1000);
+        } else {
+            Path script = directory.resolve("data.sql");
+            try (BufferedWriter writer = Files.newBufferedWriter(script)) {
+                for (int i = 0; i < coupons; i++) {
+                    Coupon coupon = coupon(i);
+                    writer.write("INSERT INTO coupons (ID, CODE, DISCOUNT, MIN_BASKET_VALUE) VALUES ("
+                            + coupon.getId() + ", '" + coupon.getCode() + "', " + coupon.getDiscount() + ", "
+                            + coupon.getMinBasketValue() + ");\n");
+                }
+            }
+            populator = new ResourceDatabasePopulator(new FileSystemResource(script));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createSchema() {
+        // the database lives as long as one connection to it is open
+        connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///startup" + DATABASES.incrementAndGet());
+        keepAlive = Mono.from(connectionFactory.create()).block();
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+    }
+
+    @TearDown(Level.Invocation)
+    public void dropDatabase() {
+        Mono.from(keepAlive.close()).block();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void load() {
+        populator.populate(connectionFactory).block();
+    }
+
+    private static Coupon coupon(final int i) {
+        return Coupon.builder()
+                .id(i + 1L)
+                .code(CouponCodes.unpack(i * 2_147_483_647L % 218_340_105_584_896L))
+                .discount(BigDecimal.valueOf(500 + i % 1000, 2))
+                .minBasketValue(BigDecimal.valueOf(5_000 + i % 10_000, 2))
+                .build();
+    }
+
+}
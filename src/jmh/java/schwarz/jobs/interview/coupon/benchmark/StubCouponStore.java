@@ -0,0 +1,57 @@
+package schwarz.jobs.interview.coupon.benchmark;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.RedemptionDelta;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory {@link CouponStore} answering lookups without any database; writes are accepted and discarded.
+ */
+final class StubCouponStore implements CouponStore {
+
+    private final Map<String, Coupon> coupons;
+
+    private StubCouponStore(final Map<String, Coupon> coupons) {
+        this.coupons = coupons;
+    }
+
+    static CouponStore of(final Map<String, Coupon> coupons) {
+        return new StubCouponStore(coupons);
+    }
+
+    @Override
+    public Mono<Coupon> findByCode(final String code) {
+        return Mono.justOrEmpty(coupons.get(code));
+    }
+
+    @Override
+    public Flux<Coupon> findByCodeIn(final List<String> codes) {
+        return Flux.fromIterable(codes).mapNotNull(coupons::get);
+    }
+
+    @Override
+    public Flux<Coupon> findAll() {
+        return Flux.fromIterable(coupons.values());
+    }
+
+    @Override
+    public Flux<String> findAllCodes() {
+        return Flux.fromIterable(coupons.keySet());
+    }
+
+    @Override
+    public Mono<Coupon> save(final Coupon coupon) {
+        return Mono.just(coupon);
+    }
+
+    @Override
+    public Mono<Long> addRedemptions(final List<RedemptionDelta> deltas) {
+        return Mono.just((long) deltas.size());
+    }
+
+}
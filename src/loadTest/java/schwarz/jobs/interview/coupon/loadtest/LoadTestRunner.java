@@ -0,0 +1,113 @@
+package schwarz.jobs.interview.coupon.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import schwarz.jobs.interview.coupon.CouponApplication;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.API_PREFIX;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_CREATE_PATH;
+
+/**
+ * Boots the application on in-memory H2, seeds coupons and runs each configured scenario with a warm-up phase
+ * followed by a measured phase. Writes one {@code .hgrm} percentile file per scenario plus {@code summary.json}.
+ */
+public final class LoadTestRunner {
+
+    private static final int SEED_CONCURRENCY = 64;
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CouponApplication.class)
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "coupon.rate-limit.enabled=false",
+                        "logging.level.schwarz.jobs.interview.coupon=WARN")
+                .run(args);
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("loadtest")
+                .maxConnections(settings.getConnections())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        try {
+            int port = ((ReactiveWebServerApplicationContext) context).getWebServer().getPort();
+            WebClient webClient = WebClient.builder()
+                    .baseUrl("http://localhost:" + port)
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                    .build();
+            RequestFactory requestFactory = new RequestFactory(settings);
+
+            seed(webClient, requestFactory, settings.getCoupons());
+
+            OpenModelDriver driver = new OpenModelDriver(webClient, requestFactory, settings);
+            List<ScenarioReport> reports = new ArrayList<>();
+            for (Scenario scenario : settings.getScenarios()) {
+                double rate = settings.rateOf(scenario);
+                driver.run(scenario, rate, settings.getWarmup());
+                ScenarioReport report = driver.run(scenario, rate, settings.getDuration());
+                report.printPercentiles(System.out);
+                reports.add(report);
+            }
+            write(settings, reports);
+        } finally {
+            connectionProvider.dispose();
+            SpringApplication.exit(context);
+        }
+    }
+
+    private static void seed(final WebClient webClient, final RequestFactory requestFactory, final int coupons) {
+        Flux.range(0, coupons)
+                .flatMap(index -> webClient.post()
+                        .uri(API_PREFIX + COUPON_CREATE_PATH)
+                        .bodyValue(requestFactory.seededCoupon(index))
+                        .retrieve()
+                        .toBodilessEntity(), SEED_CONCURRENCY)
+                .blockLast();
+    }
+
+    private static void write(final LoadTestSettings settings, final List<ScenarioReport> reports) throws IOException {
+        Path output = Paths.get(settings.getOutput());
+        Files.createDirectories(output);
+        for (ScenarioReport report : reports) {
+            try (PrintStream out = new PrintStream(
+                    Files.newOutputStream(output.resolve(report.getScenario().key() + ".hgrm")),
+                    false, StandardCharsets.UTF_8.name())) {
+                report.printPercentiles(out);
+            }
+        }
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("timestamp", Instant.now().toString());
+        summary.put("settings", settings);
+        summary.put("scenarios", reports.stream().map(ScenarioReport::summary).collect(Collectors.toList()));
+        new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .writerWithDefaultPrettyPrinter()
+                .writeValue(output.resolve("summary.json").toFile(), summary);
+    }
+
+}
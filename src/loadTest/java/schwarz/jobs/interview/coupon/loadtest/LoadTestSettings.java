@@ -0,0 +1,72 @@
+package schwarz.jobs.interview.coupon.loadtest;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Load test knobs, read from {@code loadtest.*} system properties (the Gradle task forwards {@code -Ploadtest.*}).
+ */
+@Value
+@Builder
+public class LoadTestSettings {
+
+    private static final String PREFIX = "loadtest.";
+
+    List<Scenario> scenarios;
+
+    double rate;
+
+    Duration duration;
+
+    Duration warmup;
+
+    int coupons;
+
+    double zipfExponent;
+
+    double missRatio;
+
+    double invalidRatio;
+
+    int filterSize;
+
+    int maxInFlight;
+
+    int connections;
+
+    String output;
+
+    public double rateOf(final Scenario scenario) {
+        return Double.parseDouble(System.getProperty(PREFIX + "rate." + scenario.key(), String.valueOf(rate)));
+    }
+
+    public static LoadTestSettings fromSystemProperties() {
+        return LoadTestSettings.builder()
+                .scenarios(Arrays.stream(property("scenarios", "apply,create,filter").split(","))
+                        .map(String::trim)
+                        .map(Scenario::fromKey)
+                        .collect(Collectors.toList()))
+                .rate(Double.parseDouble(property("rate", "500")))
+                .duration(Duration.parse("PT" + property("duration", "30s")))
+                .warmup(Duration.parse("PT" + property("warmup", "10s")))
+                .coupons(Integer.parseInt(property("coupons", "10000")))
+                .zipfExponent(Double.parseDouble(property("zipf-exponent", "0.99")))
+                .missRatio(Double.parseDouble(property("miss-ratio", "0.05")))
+                .invalidRatio(Double.parseDouble(property("invalid-ratio", "0.02")))
+                .filterSize(Integer.parseInt(property("filter-size", "10")))
+                .maxInFlight(Integer.parseInt(property("max-in-flight", "1024")))
+                .connections(Integer.parseInt(property("connections", "256")))
+                .output(property("output", "build/reports/loadtest"))
+                .build();
+    }
+
+    private static String property(final String name, final String defaultValue) {
+        return System.getProperty(PREFIX + name, defaultValue);
+    }
+
+}
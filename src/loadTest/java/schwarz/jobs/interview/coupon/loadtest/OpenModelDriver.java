@@ -0,0 +1,90 @@
+package schwarz.jobs.interview.coupon.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.LongStream;
+
+/**
+ * Drives a scenario at a fixed arrival rate, independent of how fast the server answers. Every request has an
+ * intended start time on the schedule and its latency is measured from that point, so queueing caused by a slow
+ * server is reported instead of hidden (no coordinated omission).
+ */
+public class OpenModelDriver {
+
+    private static final Duration TICK = Duration.ofMillis(1);
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final WebClient webClient;
+
+    private final RequestFactory requestFactory;
+
+    private final LoadTestSettings settings;
+
+    public OpenModelDriver(final WebClient webClient,
+                           final RequestFactory requestFactory,
+                           final LoadTestSettings settings) {
+        this.webClient = webClient;
+        this.requestFactory = requestFactory;
+        this.settings = settings;
+    }
+
+    public ScenarioReport run(final Scenario scenario, final double rate, final Duration duration) {
+        long total = (long) (rate * duration.toNanos() / TimeUnit.SECONDS.toNanos(1));
+        if (total <= 0) {
+            // nothing would ever be issued, so the schedule would never reach its last request
+            throw new IllegalArgumentException("A rate of " + rate + "/s over " + duration + " issues no request");
+        }
+
+        Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        long nanosPerRequest = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long[] issued = {0};
+
+        Flux.interval(TICK)
+                .onBackpressureDrop()
+                .concatMapIterable(tick -> {
+                    long due = Math.min(total, (System.nanoTime() - start) / nanosPerRequest + 1);
+                    long from = issued[0];
+                    issued[0] = due;
+                    return () -> LongStream.range(from, due).map(i -> start + i * nanosPerRequest).iterator();
+                })
+                .takeUntil(intended -> intended >= start + (total - 1) * nanosPerRequest)
+                .onBackpressureBuffer()
+                .flatMap(intended -> send(scenario)
+                        .doOnNext(status -> {
+                            recorder.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS,
+                                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended)));
+                            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+                        }), settings.getMaxInFlight())
+                .blockLast();
+
+        long elapsed = System.nanoTime() - start;
+        Histogram histogram = recorder.getIntervalHistogram();
+        Map<Integer, Long> statusCounts = new TreeMap<>();
+        statuses.forEach((status, count) -> statusCounts.put(status, count.sum()));
+        return new ScenarioReport(scenario, rate, duration, Duration.ofNanos(elapsed), histogram, statusCounts);
+    }
+
+    private Mono<Integer> send(final Scenario scenario) {
+        return webClient.method(scenario.method())
+                .uri(scenario.path())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(requestFactory.next(scenario))
+                .exchangeToMono(response -> response.releaseBody().thenReturn(response.rawStatusCode()))
+                .onErrorReturn(ScenarioReport.TRANSPORT_ERROR);
+    }
+
+}
@@ -0,0 +1,115 @@
+package schwarz.jobs.interview.coupon.loadtest;
+
+import schwarz.jobs.interview.coupon.web.dto.ApplicationRequestDTO;
+import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+import schwarz.jobs.interview.coupon.web.dto.CouponRequestDTO;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds request bodies with a realistic key mix: Zipfian hot codes over the seeded coupons, a share of codes that
+ * do not exist (or already exist, for creates) and a share of payloads that fail validation.
+ */
+public class RequestFactory {
+
+    private static final String SEEDED_PREFIX = "LT";
+
+    private static final String CREATED_PREFIX = "CR";
+
+    private static final String MISSING_PREFIX = "MS";
+
+    private final LoadTestSettings settings;
+
+    private final ZipfianDistribution distribution;
+
+    private final AtomicLong createdCodes = new AtomicLong();
+
+    public RequestFactory(final LoadTestSettings settings) {
+        this.settings = settings;
+        this.distribution = new ZipfianDistribution(settings.getCoupons(), settings.getZipfExponent());
+    }
+
+    public CouponDTO seededCoupon(final int index) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return CouponDTO.builder()
+                .code(code(SEEDED_PREFIX, index))
+                .discount(cents(random.nextLong(500, 2_001)))
+                .minBasketValue(cents(random.nextLong(0, 10_001)))
+                .build();
+    }
+
+    public Object next(final Scenario scenario) {
+        switch (scenario) {
+            case APPLY:
+                return applyRequest();
+            case CREATE:
+                return createRequest();
+            case FILTER:
+                return filterRequest();
+            default:
+                throw new IllegalArgumentException("Unknown scenario: " + scenario);
+        }
+    }
+
+    private ApplicationRequestDTO applyRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        BasketDTO basket = BasketDTO.builder()
+                .value(cents(random.nextLong(0, 30_001)))
+                .appliedDiscount(BigDecimal.ZERO.setScale(2))
+                .build();
+        if (random.nextDouble() < settings.getInvalidRatio()) {
+            basket.setValue(basket.getValue().negate().subtract(BigDecimal.ONE));
+        }
+        return ApplicationRequestDTO.builder()
+                .code(lookupCode(random))
+                .basket(basket)
+                .build();
+    }
+
+    private CouponDTO createRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String code = random.nextDouble() < settings.getMissRatio()
+                ? code(SEEDED_PREFIX, distribution.next())
+                : code(CREATED_PREFIX, createdCodes.getAndIncrement());
+        BigDecimal discount = cents(random.nextLong(500, 2_001));
+        if (random.nextDouble() < settings.getInvalidRatio()) {
+            discount = discount.negate();
+        }
+        return CouponDTO.builder()
+                .code(code)
+                .discount(discount)
+                .minBasketValue(cents(random.nextLong(0, 10_001)))
+                .build();
+    }
+
+    private CouponRequestDTO filterRequest() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int size = 1 + random.nextInt(settings.getFilterSize());
+        List<String> codes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            codes.add(lookupCode(random));
+        }
+        return CouponRequestDTO.builder().codes(codes).build();
+    }
+
+    private String lookupCode(final ThreadLocalRandom random) {
+        return random.nextDouble() < settings.getMissRatio()
+                ? code(MISSING_PREFIX, random.nextLong(Long.MAX_VALUE))
+                : code(SEEDED_PREFIX, distribution.next());
+    }
+
+    private static String code(final String prefix, final long index) {
+        String suffix = Long.toString(index % 2_176_782_336L, 36).toUpperCase();
+        return prefix + "000000".substring(suffix.length()) + suffix;
+    }
+
+    private static BigDecimal cents(final long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+}
@@ -0,0 +1,49 @@
+package schwarz.jobs.interview.coupon.loadtest;
+
+import org.springframework.http.HttpMethod;
+
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.API_PREFIX;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_APPLY_PATH;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_CREATE_PATH;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_FILTER_PATH;
+
+public enum Scenario {
+
+    APPLY("apply", HttpMethod.PUT, API_PREFIX + COUPON_APPLY_PATH),
+    CREATE("create", HttpMethod.POST, API_PREFIX + COUPON_CREATE_PATH),
+    FILTER("filter", HttpMethod.POST, API_PREFIX + COUPON_FILTER_PATH);
+
+    private final String key;
+
+    private final HttpMethod method;
+
+    private final String path;
+
+    Scenario(final String key, final HttpMethod method, final String path) {
+        this.key = key;
+        this.method = method;
+        this.path = path;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public HttpMethod method() {
+        return method;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    public static Scenario fromKey(final String key) {
+        for (Scenario scenario : values()) {
+            if (scenario.key.equalsIgnoreCase(key)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario: " + key);
+    }
+
+}
@@ -0,0 +1,82 @@
+package schwarz.jobs.interview.coupon.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ScenarioReport {
+
+    public static final int TRANSPORT_ERROR = -1;
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Scenario scenario;
+
+    private final double targetRate;
+
+    private final Duration duration;
+
+    private final Duration elapsed;
+
+    private final Histogram histogram;
+
+    private final Map<Integer, Long> statuses;
+
+    public ScenarioReport(final Scenario scenario,
+                          final double targetRate,
+                          final Duration duration,
+                          final Duration elapsed,
+                          final Histogram histogram,
+                          final Map<Integer, Long> statuses) {
+        this.scenario = scenario;
+        this.targetRate = targetRate;
+        this.duration = duration;
+        this.elapsed = elapsed;
+        this.histogram = histogram;
+        this.statuses = statuses;
+    }
+
+    public Scenario getScenario() {
+        return scenario;
+    }
+
+    public void printPercentiles(final PrintStream out) {
+        out.printf("%n=== %s: target %.0f req/s, achieved %.1f req/s, statuses %s ===%n",
+                scenario.key(), targetRate, achievedRate(), statuses);
+        histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+    }
+
+    public Map<String, Object> summary() {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", histogram.getMean() / MICROS_PER_MILLI);
+        latency.put("p50", percentile(50.0));
+        latency.put("p90", percentile(90.0));
+        latency.put("p99", percentile(99.0));
+        latency.put("p999", percentile(99.9));
+        latency.put("p9999", percentile(99.99));
+        latency.put("max", histogram.getMaxValue() / MICROS_PER_MILLI);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("scenario", scenario.key());
+        summary.put("targetRate", targetRate);
+        summary.put("achievedRate", achievedRate());
+        summary.put("durationSeconds", duration.toMillis() / MICROS_PER_MILLI);
+        summary.put("elapsedSeconds", elapsed.toMillis() / MICROS_PER_MILLI);
+        summary.put("requests", histogram.getTotalCount());
+        summary.put("statuses", statuses);
+        summary.put("latencyMillis", latency);
+        return summary;
+    }
+
+    private double achievedRate() {
+        return histogram.getTotalCount() / (elapsed.toNanos() / 1e9);
+    }
+
+    private double percentile(final double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+}
@@ -0,0 +1,34 @@
+package schwarz.jobs.interview.coupon.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples ranks in {@code [0, n)} with probability proportional to {@code 1 / (rank + 1)^exponent}, so rank 0 is the
+ * hottest key. Uses a precomputed CDF and binary search.
+ */
+public class ZipfianDistribution {
+
+    private final double[] cdf;
+
+    public ZipfianDistribution(final int n, final double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be positive");
+        }
+        cdf = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= sum;
+        }
+    }
+
+    public int next() {
+        int index = Arrays.binarySearch(cdf, ThreadLocalRandom.current().nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+
+}
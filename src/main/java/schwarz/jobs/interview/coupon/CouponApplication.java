@@ -2,10 +2,12 @@ package schwarz.jobs.interview.coupon;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.web.reactive.config.EnableWebFlux;
 
 @EnableWebFlux
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class CouponApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,25 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.batching")
+public class CouponBatchingProperties {
+
+    private boolean enabled = true;
+
+    private Duration window = Duration.ofMillis(2);
+
+    private int maxBatchSize = 64;
+
+    private int maxConcurrentBatches = 4;
+
+    /**
+     * How long a caller waits for the batch its lookup joined before giving up.
+     */
+    private Duration timeout = Duration.ofSeconds(2);
+
+}
@@ -0,0 +1,12 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.bulk")
+public class CouponBulkProperties {
+
+    private int batchSize = 256;
+
+}
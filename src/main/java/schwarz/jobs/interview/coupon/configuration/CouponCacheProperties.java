@@ -0,0 +1,16 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.cache")
+public class CouponCacheProperties {
+
+    private long maximumSize = 10_000;
+
+    private Duration expireAfterWrite;
+
+}
@@ -0,0 +1,20 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.code-filter")
+public class CouponCodeFilterProperties {
+
+    private boolean enabled = true;
+
+    private long expectedInsertions = 1_000_000;
+
+    private double falsePositiveProbability = 0.01;
+
+    private Duration rebuildInterval;
+
+}
@@ -0,0 +1,26 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.database.pool")
+public class CouponDatabasePoolProperties {
+
+    private int initialSize = 10;
+
+    private int minIdle = 10;
+
+    private int maxSize = 20;
+
+    private Duration maxIdleTime = Duration.ofMinutes(30);
+
+    private Duration maxAcquireTime = Duration.ofSeconds(5);
+
+    private Duration maxCreateConnectionTime = Duration.ofSeconds(5);
+
+    private boolean warmup = true;
+
+}
@@ -0,0 +1,29 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.event-log")
+public class CouponEventLogProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Ring buffer slots, rounded up to a power of two.
+     */
+    private int bufferSize = 8192;
+
+    /**
+     * Fraction of events that are logged, between 0 and 1.
+     */
+    private double sampleRate = 1.0;
+
+    /**
+     * Longest an idle writer sleeps; producers wake it as soon as they publish.
+     */
+    private Duration idleWait = Duration.ofSeconds(30);
+
+}
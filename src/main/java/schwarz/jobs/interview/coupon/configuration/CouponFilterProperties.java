@@ -0,0 +1,16 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.filter")
+public class CouponFilterProperties {
+
+    private int batchSize = 100;
+
+    private int concurrency = 4;
+
+    private boolean ordered = true;
+
+}
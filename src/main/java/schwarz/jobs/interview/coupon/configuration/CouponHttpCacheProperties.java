@@ -0,0 +1,16 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.http-cache")
+public class CouponHttpCacheProperties {
+
+    private Duration maxAge = Duration.ofSeconds(60);
+
+    private Duration sharedMaxAge = Duration.ofMinutes(5);
+
+}
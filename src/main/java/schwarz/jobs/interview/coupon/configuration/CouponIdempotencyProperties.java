@@ -0,0 +1,16 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.idempotency")
+public class CouponIdempotencyProperties {
+
+    private long maximumSize = 100_000;
+
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+}
@@ -0,0 +1,12 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.import")
+public class CouponImportProperties {
+
+    private int chunkSize = 500;
+
+}
@@ -0,0 +1,14 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.index")
+public class CouponIndexProperties {
+
+    private boolean enabled = true;
+
+    private long expectedEntries = 1_000_000;
+
+}
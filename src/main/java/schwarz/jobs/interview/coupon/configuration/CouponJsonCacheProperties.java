@@ -0,0 +1,12 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.json-cache")
+public class CouponJsonCacheProperties {
+
+    private long maximumSize = 10_000;
+
+}
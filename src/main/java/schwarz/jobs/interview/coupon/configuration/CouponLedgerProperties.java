@@ -0,0 +1,35 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.ledger")
+public class CouponLedgerProperties {
+
+    private boolean enabled = true;
+
+    private int capacity = 65_536;
+
+    private int batchSize = 500;
+
+    private Duration flushInterval = Duration.ofMillis(200);
+
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+    public enum OverflowPolicy {
+        /**
+         * Keep what is queued and discard the entry being recorded.
+         */
+        DROP_NEWEST,
+        /**
+         * Discard the oldest queued entry to make room for the one being recorded.
+         */
+        DROP_OLDEST
+    }
+
+}
@@ -0,0 +1,53 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@Validated
+@ConfigurationProperties(prefix = "coupon.rate-limit")
+public class CouponRateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Header identifying the client; only trustworthy behind a gateway that sets it. Without it clients are keyed
+     * by remote address.
+     */
+    private String clientHeader;
+
+    private long maximumClients = 100_000;
+
+    private Duration expireAfterAccess = Duration.ofMinutes(10);
+
+    /**
+     * Limits by route below the API prefix, as declared in {@code ApiConstants} (e.g. {@code /apply}).
+     */
+    @Valid
+    private Map<String, Limit> routes = new LinkedHashMap<>();
+
+    /**
+     * Limit of every other API route; unlimited when not set.
+     */
+    @Valid
+    private Limit defaultLimit;
+
+    @Data
+    public static class Limit {
+
+        @Positive
+        private int capacity;
+
+        @Positive
+        private double refillPerSecond;
+
+    }
+
+}
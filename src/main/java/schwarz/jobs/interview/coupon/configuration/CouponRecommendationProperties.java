@@ -0,0 +1,16 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.recommendation")
+public class CouponRecommendationProperties {
+
+    private boolean enabled = true;
+
+    private int defaultLimit = 3;
+
+    private int maxLimit = 20;
+
+}
@@ -0,0 +1,18 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.redemption")
+public class CouponRedemptionProperties {
+
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    private int flushBatchSize = 100;
+
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+}
@@ -0,0 +1,23 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.snapshot")
+public class CouponSnapshotProperties {
+
+    private boolean enabled = false;
+
+    private Path path = Path.of("data", "coupons.snapshot");
+
+    private int loadBatchSize = 1000;
+
+    private boolean exportOnShutdown = false;
+
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+}
@@ -0,0 +1,21 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.stacking")
+public class CouponStackingProperties {
+
+    /**
+     * Search nodes the branch-and-bound solver may visit before it settles for the best subset found so far.
+     */
+    private int searchBudget = 100_000;
+
+    /**
+     * Largest remaining basket value the solver still resolves exactly by dynamic programming once the search
+     * budget runs out, in cents or in the common divisor of the candidate discounts when they share one.
+     */
+    private int exactCapacityCents = 250_000;
+
+}
@@ -0,0 +1,49 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "coupon.storage")
+public class CouponStorageProperties {
+
+    private Engine engine = Engine.R2DBC;
+
+    private Journal journal = new Journal();
+
+    public boolean isJournal() {
+        return engine == Engine.JOURNAL;
+    }
+
+    public enum Engine {
+        R2DBC,
+        JOURNAL
+    }
+
+    @Data
+    public static class Journal {
+
+        private Path path = Path.of("data", "coupons.journal");
+
+        private DataSize regionSize = DataSize.ofMegabytes(64);
+
+        private boolean fsync = true;
+
+        private Duration commitWindow = Duration.ZERO;
+
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Journal size below which it is never compacted; above it, it is once less than half its records are live.
+         */
+        private DataSize compactionMinSize = DataSize.ofMegabytes(64);
+
+        private boolean compactOnShutdown = true;
+
+    }
+
+}
@@ -1,23 +1,80 @@
 package schwarz.jobs.interview.coupon.configuration;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
 import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.CompositeDatabasePopulator;
 import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
 import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import schwarz.jobs.interview.coupon.core.metrics.TimedConnectionFactory;
+import schwarz.jobs.interview.coupon.core.snapshot.CouponSnapshotPopulator;
+
+import java.nio.file.Files;
 
 @Configuration
+@Slf4j
 public class DatabaseConfiguration {
 
+    private static final String CONNECTION_FACTORY_NAME = "connectionFactory";
+
+    @Bean(destroyMethod = "dispose")
+    ConnectionFactory connectionFactory(R2dbcProperties r2dbcProperties,
+                                        CouponDatabasePoolProperties poolProperties,
+                                        ObjectProvider<MeterRegistry> meterRegistry) {
+
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder.withUrl(r2dbcProperties.getUrl())
+                .username(r2dbcProperties.getUsername())
+                .password(r2dbcProperties.getPassword())
+                .build();
+
+        ConnectionPool pool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name(CONNECTION_FACTORY_NAME)
+                .initialSize(poolProperties.getInitialSize())
+                .minIdle(poolProperties.getMinIdle())
+                .maxSize(poolProperties.getMaxSize())
+                .maxIdleTime(poolProperties.getMaxIdleTime())
+                .maxAcquireTime(poolProperties.getMaxAcquireTime())
+                .maxCreateConnectionTime(poolProperties.getMaxCreateConnectionTime())
+                .build());
+
+        if (poolProperties.isWarmup()) {
+            Integer warmed = pool.warmup().block(poolProperties.getMaxCreateConnectionTime());
+            log.info("Warmed up {} pooled connections", warmed);
+        }
+
+        return new TimedConnectionFactory(pool, CONNECTION_FACTORY_NAME, meterRegistry);
+    }
+
     @Bean
-    ConnectionFactoryInitializer initializer(ConnectionFactory connectionFactory) {
+    ConnectionFactoryInitializer initializer(ConnectionFactory connectionFactory,
+                                             CouponSnapshotProperties snapshotProperties,
+                                             CouponStorageProperties storageProperties) {
+
+        CompositeDatabasePopulator populator = new CompositeDatabasePopulator(
+                new ResourceDatabasePopulator(new ClassPathResource("schema.sql")));
+
+        // the journal engine keeps its own coupons, so there is nothing to load into the table
+        if (snapshotProperties.isEnabled() && !storageProperties.isJournal()
+                && Files.isRegularFile(snapshotProperties.getPath())) {
+            populator.addPopulators(new CouponSnapshotPopulator(snapshotProperties.getPath(),
+                    snapshotProperties.getLoadBatchSize()));
+        } else {
+            populator.addPopulators(new ResourceDatabasePopulator(new ClassPathResource("data.sql")));
+        }
 
         ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
         initializer.setConnectionFactory(connectionFactory);
-        initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource("data.sql")));
+        initializer.setDatabasePopulator(populator);
 
         return initializer;
     }
 
-}
\ No newline at end of file
+}
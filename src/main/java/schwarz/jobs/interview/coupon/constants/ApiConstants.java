@@ -7,7 +7,14 @@ public class ApiConstants {
     }
 
     public static final String API_PREFIX = "/api/coupons";
+    public static final String COUPON_CODE_PATH = "/{code}";
     public static final String COUPON_FILTER_PATH = "/filter";
     public static final String COUPON_CREATE_PATH = "/create";
     public static final String COUPON_APPLY_PATH = "/apply";
+    public static final String COUPON_APPLY_BULK_PATH = "/apply/bulk";
+    public static final String COUPON_APPLY_STACK_PATH = "/apply/stack";
+    public static final String COUPON_BEST_PATH = "/best";
+    public static final String COUPON_IMPORT_PATH = "/import";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 }
@@ -0,0 +1,20 @@
+package schwarz.jobs.interview.coupon.constants;
+
+public class ErrorMessages {
+
+    private ErrorMessages() {
+        throw new IllegalStateException("Constants class");
+    }
+
+    public static final String VALIDATION_ERROR = "Validation error";
+    public static final String MESSAGE_UNAVAILABLE = "Message unavailable";
+    public static final String COUPON_CODE_ALREADY_EXISTS = "Coupon code already exists";
+    public static final String COUPON_CODE_NOT_EXISTS = "Coupon code not exists";
+    public static final String INSUFFICIENT_BASKET_VALUE = "Insufficient basket value to apply coupon";
+    public static final String INVALID_DISCOUNT = "Invalid discount exceeding basket value";
+    public static final String REDEMPTION_LIMIT_REACHED = "Coupon redemption limit reached";
+    public static final String RATE_LIMIT_EXCEEDED = "Too many requests, retry later";
+    public static final String MALFORMED_ROW = "Expected 3 columns: code,discount,minBasketValue";
+    public static final String INVALID_NUMBER = "Invalid number";
+    public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency key already used for a different request";
+}
@@ -0,0 +1,57 @@
+package schwarz.jobs.interview.coupon.core.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import schwarz.jobs.interview.coupon.configuration.CouponCacheProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+
+/**
+ * Bounded in-process cache of coupons by code, sitting in front of the repository lookup path.
+ * Hit, miss and eviction counters are published as {@code cache.*} metrics tagged {@code cache=coupons}.
+ */
+@Component
+public class CouponCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "coupons";
+
+    private final Cache<String, Coupon> cache;
+
+    public CouponCache(final CouponCacheProperties properties) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .recordStats();
+
+        if (properties.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(properties.getExpireAfterWrite());
+        }
+
+        this.cache = builder.build();
+    }
+
+    public Coupon get(final String code) {
+        return cache.getIfPresent(code);
+    }
+
+    public void put(final Coupon coupon) {
+        cache.put(coupon.getCode(), coupon);
+    }
+
+    public void invalidate(final String code) {
+        cache.invalidate(code);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+}
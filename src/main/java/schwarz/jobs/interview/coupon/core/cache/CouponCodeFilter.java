@@ -0,0 +1,152 @@
+package schwarz.jobs.interview.coupon.core.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponCodeFilterProperties;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Negative lookup guard: a Bloom filter over every known coupon code, built from the coupons table at startup
+ * and fed by every coupon created afterwards. Codes it rejects are definitely unknown and never reach the
+ * database. Until the first build completes every code is let through.
+ */
+@Slf4j
+@Component
+public class CouponCodeFilter implements DisposableBean {
+
+    private final CouponStore couponStore;
+
+    private final CouponCodeFilterProperties properties;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder passed = new LongAdder();
+
+    private final Disposable.Swap scheduledRebuild = Disposables.swap();
+
+    private volatile BloomFilter current;
+
+    private volatile BloomFilter next;
+
+    public CouponCodeFilter(final CouponStore couponStore,
+                            final CouponCodeFilterProperties properties,
+                            final MeterRegistry meterRegistry) {
+        this.couponStore = couponStore;
+        this.properties = properties;
+
+        FunctionCounter.builder("coupon.filter.rejected", rejected, LongAdder::doubleValue)
+                .description("Lookups rejected by the code filter without a database call")
+                .register(meterRegistry);
+        FunctionCounter.builder("coupon.filter.passed", passed, LongAdder::doubleValue)
+                .description("Lookups let through by the code filter")
+                .register(meterRegistry);
+        Gauge.builder("coupon.filter.ready", this, filter -> filter.isReady() ? 1 : 0)
+                .description("Whether the code filter has been built")
+                .register(meterRegistry);
+    }
+
+    public boolean mightContain(final String code) {
+        BloomFilter filter = current;
+        if (!properties.isEnabled() || filter == null) {
+            return true;
+        }
+
+        if (filter.mightContain(code)) {
+            passed.increment();
+            return true;
+        }
+
+        rejected.increment();
+        return false;
+    }
+
+    public void put(final String code) {
+        // next is read first: if no rebuild is running yet, any later rebuild scans the already saved code
+        BloomFilter building = next;
+        if (building != null) {
+            building.put(code);
+        }
+
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(code);
+        }
+    }
+
+    /**
+     * Builds a fresh filter from the coupons table and swaps it in once complete. Codes created while the
+     * rebuild is running are added to both the current and the new filter.
+     */
+    public Mono<Long> rebuild() {
+        if (!properties.isEnabled()) {
+            return Mono.empty();
+        }
+
+        return Mono.defer(() -> {
+            if (!rebuilding.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+
+            BloomFilter building = new BloomFilter(properties.getExpectedInsertions(), properties.getFalsePositiveProbability());
+            next = building;
+
+            return couponStore.findAllCodes()
+                    .doOnNext(building::put)
+                    .count()
+                    .doOnSuccess(count -> {
+                        current = building;
+                        log.info("Coupon code filter built with {} codes ({} bits, {} hash functions)",
+                                count, building.bitSize(), building.hashFunctions());
+                    })
+                    .doFinally(signal -> {
+                        next = null;
+                        rebuilding.set(false);
+                    });
+        });
+    }
+
+    public boolean isReady() {
+        return current != null;
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        Flux<Long> rebuilds = properties.getRebuildInterval() == null
+                ? rebuild().flux()
+                : Flux.interval(Duration.ZERO, properties.getRebuildInterval()).concatMap(tick -> rebuild());
+
+        scheduledRebuild.update(rebuilds
+                .onErrorContinue((error, value) -> log.warn("Coupon code filter rebuild failed", error))
+                .subscribe());
+    }
+
+    @Override
+    public void destroy() {
+        scheduledRebuild.dispose();
+    }
+
+}
@@ -0,0 +1,248 @@
+package schwarz.jobs.interview.coupon.core.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponRecommendationProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+import schwarz.jobs.interview.coupon.core.models.Money;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Every coupon ordered by discount, highest first, to answer "the best coupons this basket qualifies for". A basket
+ * qualifies for a coupon when its value reaches the minimum basket value and the discount does not exceed what is
+ * left of the basket, so eligibility is bounded on both axes; each subtree tracks its lowest minimum basket value,
+ * and a query skips the discounts above the cap along one path and every subtree the basket cannot reach. The top
+ * {@code k} coupons cost O((k + 1) log n).
+ * <p>
+ * The tree is a treap with priorities derived from the code, copied along the insertion path and published through
+ * a volatile root, so writes are serialized and reads take no lock. Only coupons with redemption limits keep their
+ * entity, for the availability check; the others are held as three longs.
+ */
+@Slf4j
+@Component
+public class CouponEligibilityIndex implements DisposableBean {
+
+    private final CouponStore couponStore;
+
+    private final CouponRecommendationProperties properties;
+
+    private final Disposable.Swap scheduledLoad = Disposables.swap();
+
+    private volatile Node root;
+
+    private volatile long size;
+
+    public CouponEligibilityIndex(final CouponStore couponStore,
+                                  final CouponRecommendationProperties properties,
+                                  final MeterRegistry meterRegistry) {
+        this.couponStore = couponStore;
+        this.properties = properties;
+
+        Gauge.builder("coupon.eligibility.size", this, CouponEligibilityIndex::size)
+                .description("Coupons held in the eligibility index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Adds the coupon unless it is already held; coupons with malformed codes are ignored.
+     */
+    public synchronized void add(final Coupon coupon) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        long packed = CouponCodes.pack(coupon.getCode());
+        if (packed == CouponCodes.INVALID) {
+            return;
+        }
+
+        Node added = new Node(packed, coupon.getDiscountCents(), coupon.getMinBasketValueCents(),
+                coupon.isRedemptionLimited() ? coupon : null, null, null);
+        Node updated = insert(root, added);
+        if (updated != root) {
+            root = updated;
+            size++;
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} coupons a basket worth {@code basketValue} cents, with {@code maxDiscount} cents
+     * left to discount, qualifies for, highest discount first; ties are broken by code. Coupons rejected by
+     * {@code available} are passed over.
+     */
+    public List<Coupon> best(final long basketValue, final long maxDiscount, final int limit,
+                             final Predicate<Coupon> available) {
+        List<Coupon> best = new ArrayList<>(Math.max(0, limit));
+        if (limit > 0 && maxDiscount > 0) {
+            collect(root, basketValue, maxDiscount, limit, available, best);
+        }
+        return best;
+    }
+
+    /**
+     * Streams the coupons table into the index. Coupons created meanwhile are added by their writers.
+     */
+    public Mono<Long> load() {
+        if (!properties.isEnabled()) {
+            return Mono.empty();
+        }
+
+        return couponStore.findAll()
+                .doOnNext(this::add)
+                .count()
+                .doOnSuccess(count -> log.info("Coupon eligibility index loaded {} coupons", count));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        scheduledLoad.update(load()
+                .doOnError(error -> log.warn("Coupon eligibility index load failed", error))
+                .onErrorResume(error -> Mono.empty())
+                .subscribe());
+    }
+
+    @Override
+    public void destroy() {
+        scheduledLoad.dispose();
+    }
+
+    private static void collect(final Node node, final long basketValue, final long maxDiscount, final int limit,
+                                final Predicate<Coupon> available, final List<Coupon> best) {
+        if (node == null || best.size() >= limit || node.subtreeMinBasket > basketValue) {
+            return;
+        }
+        if (node.discount > maxDiscount) {
+            // the left subtree only holds larger discounts
+            collect(node.right, basketValue, maxDiscount, limit, available, best);
+            return;
+        }
+
+        collect(node.left, basketValue, maxDiscount, limit, available, best);
+        if (best.size() < limit && node.minBasket <= basketValue) {
+            Coupon coupon = node.toCoupon();
+            if (node.limited == null || available.test(coupon)) {
+                best.add(coupon);
+            }
+        }
+        collect(node.right, basketValue, maxDiscount, limit, available, best);
+    }
+
+    private static Node insert(final Node node, final Node added) {
+        if (node == null) {
+            return added;
+        }
+
+        int order = compare(added, node);
+        if (order == 0) {
+            return node;
+        }
+        if (added.priority > node.priority) {
+            // no node below holds the code: its priority would exceed this node's
+            Node[] split = split(node, added);
+            return added.with(split[0], split[1]);
+        }
+        if (order < 0) {
+            Node left = insert(node.left, added);
+            return left != node.left ? node.with(left, node.right) : node;
+        }
+        Node right = insert(node.right, added);
+        return right != node.right ? node.with(node.left, right) : node;
+    }
+
+    /**
+     * Splits the subtree into the nodes ordered before and after {@code pivot}, which it must not contain.
+     */
+    private static Node[] split(final Node node, final Node pivot) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (compare(node, pivot) < 0) {
+            Node[] right = split(node.right, pivot);
+            return new Node[]{node.with(node.left, right[0]), right[1]};
+        }
+        Node[] left = split(node.left, pivot);
+        return new Node[]{left[0], node.with(left[1], node.right)};
+    }
+
+    private static int compare(final Node a, final Node b) {
+        int order = Long.compare(b.discount, a.discount);
+        return order != 0 ? order : Long.compare(a.code, b.code);
+    }
+
+    private static final class Node {
+
+        private final long code;
+
+        private final long discount;
+
+        private final long minBasket;
+
+        private final Coupon limited;
+
+        private final int priority;
+
+        private final Node left;
+
+        private final Node right;
+
+        private final long subtreeMinBasket;
+
+        private Node(final long code, final long discount, final long minBasket, final Coupon limited,
+                     final Node left, final Node right) {
+            this.code = code;
+            this.discount = discount;
+            this.minBasket = minBasket;
+            this.limited = limited;
+            this.priority = Long.hashCode(code * 0x9e3779b97f4a7c15L);
+            this.left = left;
+            this.right = right;
+
+            long min = minBasket;
+            if (left != null) {
+                min = Math.min(min, left.subtreeMinBasket);
+            }
+            if (right != null) {
+                min = Math.min(min, right.subtreeMinBasket);
+            }
+            this.subtreeMinBasket = min;
+        }
+
+        private Node with(final Node left, final Node right) {
+            return new Node(code, discount, minBasket, limited, left, right);
+        }
+
+        private Coupon toCoupon() {
+            if (limited != null) {
+                return limited;
+            }
+            return Coupon.builder()
+                    .code(CouponCodes.unpack(code))
+                    .discount(Money.toBigDecimal(discount))
+                    .minBasketValue(Money.toBigDecimal(minBasket))
+                    .build();
+        }
+
+    }
+
+}
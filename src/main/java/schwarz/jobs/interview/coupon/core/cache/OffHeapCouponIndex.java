@@ -0,0 +1,265 @@
+package schwarz.jobs.interview.coupon.core.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponIndexProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open-addressing hash table of coupons held in direct memory, keyed by the packed code. A slot is four longs:
+ * packed code + 1 (0 marks a free slot), id, discount cents and minimum basket cents, so millions of coupons
+ * cost the garbage collector nothing. Only coupons without redemption limits are held; those carry mutable
+ * state and stay on the entity path. A miss is never authoritative.
+ * <p>
+ * Writes are serialized and publish a slot by a release store of its key; reads are lock-free. Memory is
+ * allocated in segments on first write, and entries are never removed because coupons are never deleted.
+ */
+@Slf4j
+@Component
+public class OffHeapCouponIndex implements DisposableBean {
+
+    static final int SLOT_BYTES = 32;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private static final int KEY = 0;
+
+    private static final int ID = 8;
+
+    private static final int DISCOUNT = 16;
+
+    private static final int MIN_BASKET = 24;
+
+    private static final int SEGMENT_SHIFT = 14;
+
+    private static final int SEGMENT_SLOTS = 1 << SEGMENT_SHIFT;
+
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    private final CouponStore couponStore;
+
+    private final CouponIndexProperties properties;
+
+    private final AtomicReferenceArray<ByteBuffer> segments;
+
+    private final long slotMask;
+
+    private final long maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final Disposable.Swap scheduledLoad = Disposables.swap();
+
+    private volatile long size;
+
+    private volatile int allocatedSegments;
+
+    private boolean fullReported;
+
+    public OffHeapCouponIndex(final CouponStore couponStore,
+                              final CouponIndexProperties properties,
+                              final MeterRegistry meterRegistry) {
+        this.couponStore = couponStore;
+        this.properties = properties;
+
+        long slots = properties.isEnabled() ? slotsFor(properties.getExpectedEntries()) : SEGMENT_SLOTS;
+        this.segments = new AtomicReferenceArray<>((int) (slots >>> SEGMENT_SHIFT));
+        this.slotMask = slots - 1;
+        this.maxEntries = (long) (slots * MAX_LOAD_FACTOR);
+
+        Gauge.builder("coupon.index.size", this, OffHeapCouponIndex::size)
+                .description("Coupons held in the off-heap index")
+                .register(meterRegistry);
+        Gauge.builder("coupon.index.memory", this, OffHeapCouponIndex::memoryBytes)
+                .description("Direct memory allocated by the off-heap index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("coupon.index.lookups", hits, LongAdder::doubleValue)
+                .tag("result", "hit")
+                .description("Lookups answered by the off-heap index")
+                .register(meterRegistry);
+        FunctionCounter.builder("coupon.index.lookups", misses, LongAdder::doubleValue)
+                .tag("result", "miss")
+                .description("Lookups answered by the off-heap index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns a coupon rebuilt from its slot, or {@code null} if the index does not hold the code. The slot
+     * already holds cents, so only the coupon and its two amounts are allocated.
+     */
+    public Coupon get(final String code) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+
+        long packed = CouponCodes.pack(code);
+        if (packed == CouponCodes.INVALID) {
+            return null;
+        }
+
+        long key = packed + 1;
+        for (long slot = hash(packed) & slotMask; ; slot = (slot + 1) & slotMask) {
+            ByteBuffer segment = segments.get((int) (slot >>> SEGMENT_SHIFT));
+            if (segment == null) {
+                misses.increment();
+                return null;
+            }
+
+            int offset = offset(slot);
+            long stored = (long) LONGS.getAcquire(segment, offset + KEY);
+            if (stored == 0) {
+                misses.increment();
+                return null;
+            }
+            if (stored == key) {
+                hits.increment();
+                long id = (long) LONGS.get(segment, offset + ID);
+                return Coupon.ofCents(id != 0 ? id : null, code,
+                        (long) LONGS.get(segment, offset + DISCOUNT), (long) LONGS.get(segment, offset + MIN_BASKET));
+            }
+        }
+    }
+
+    /**
+     * Adds the coupon unless it is already held. Returns whether the index now holds it; coupons with
+     * redemption limits, malformed codes or a full table are refused.
+     */
+    public synchronized boolean put(final Coupon coupon) {
+        if (!properties.isEnabled() || !isIndexable(coupon)) {
+            return false;
+        }
+
+        long packed = CouponCodes.pack(coupon.getCode());
+        if (packed == CouponCodes.INVALID) {
+            return false;
+        }
+
+        long key = packed + 1;
+        for (long slot = hash(packed) & slotMask; ; slot = (slot + 1) & slotMask) {
+            ByteBuffer segment = segment((int) (slot >>> SEGMENT_SHIFT));
+            int offset = offset(slot);
+            long stored = (long) LONGS.get(segment, offset + KEY);
+
+            if (stored == key) {
+                return true;
+            }
+            if (stored == 0) {
+                if (size >= maxEntries) {
+                    reportFull();
+                    return false;
+                }
+
+                LONGS.set(segment, offset + ID, coupon.getId() != null ? coupon.getId() : 0L);
+                LONGS.set(segment, offset + DISCOUNT, coupon.getDiscountCents());
+                LONGS.set(segment, offset + MIN_BASKET, coupon.getMinBasketValueCents());
+                LONGS.setRelease(segment, offset + KEY, key);
+                size++;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Streams the coupons table into the index. Coupons created meanwhile are added by their writers.
+     */
+    public Mono<Long> load() {
+        if (!properties.isEnabled()) {
+            return Mono.empty();
+        }
+
+        return couponStore.findAll()
+                .filter(this::put)
+                .count()
+                .doOnSuccess(count -> log.info("Coupon index loaded {} coupons ({} bytes off-heap, {} slots)",
+                        count, memoryBytes(), slotMask + 1));
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long capacity() {
+        return maxEntries;
+    }
+
+    public long memoryBytes() {
+        return (long) allocatedSegments * SEGMENT_SLOTS * SLOT_BYTES;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        scheduledLoad.update(load()
+                .doOnError(error -> log.warn("Coupon index load failed", error))
+                .onErrorResume(error -> Mono.empty())
+                .subscribe());
+    }
+
+    @Override
+    public void destroy() {
+        scheduledLoad.dispose();
+    }
+
+    private static boolean isIndexable(final Coupon coupon) {
+        return !coupon.isRedemptionLimited() && coupon.getDiscount() != null && coupon.getMinBasketValue() != null;
+    }
+
+    private ByteBuffer segment(final int index) {
+        ByteBuffer segment = segments.get(index);
+        if (segment == null) {
+            // direct buffers are only page aligned by accident; atomic long access requires 8-byte alignment
+            segment = ByteBuffer.allocateDirect(SEGMENT_SLOTS * SLOT_BYTES + Long.BYTES)
+                    .alignedSlice(Long.BYTES)
+                    .order(ByteOrder.nativeOrder());
+            segments.set(index, segment);
+            allocatedSegments++;
+        }
+        return segment;
+    }
+
+    private void reportFull() {
+        if (!fullReported) {
+            fullReported = true;
+            log.warn("Coupon index is full at {} coupons; raise coupon.index.expected-entries", size);
+        }
+    }
+
+    private static int offset(final long slot) {
+        return (int) (slot & (SEGMENT_SLOTS - 1)) * SLOT_BYTES;
+    }
+
+    private static long hash(final long packed) {
+        long h = packed * 0x9e3779b97f4a7c15L;
+        return h ^ (h >>> 29);
+    }
+
+    private static long slotsFor(final long expectedEntries) {
+        long required = (long) Math.ceil(Math.max(1, expectedEntries) / MAX_LOAD_FACTOR);
+        return Math.max(SEGMENT_SLOTS, Long.highestOneBit(required - 1) << 1);
+    }
+
+}
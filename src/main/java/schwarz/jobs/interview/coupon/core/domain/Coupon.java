@@ -1,15 +1,21 @@
 package schwarz.jobs.interview.coupon.core.domain;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.PersistenceCreator;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
+import schwarz.jobs.interview.coupon.core.models.Money;
 
 import java.math.BigDecimal;
 
 @Data
-@Builder
 @Table("COUPONS")
 public class Coupon {
 
@@ -25,4 +31,69 @@ public class Coupon {
     @Column("MIN_BASKET_VALUE")
     private BigDecimal minBasketValue;
 
+    @Column("MAX_REDEMPTIONS")
+    private Integer maxRedemptions;
+
+    @Column("DISCOUNT_BUDGET")
+    private BigDecimal discountBudget;
+
+    @Column("REDEMPTIONS")
+    private long redemptions;
+
+    @Column("REDEEMED_DISCOUNT")
+    private BigDecimal redeemedDiscount;
+
+    @Transient
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private long discountCents;
+
+    @Transient
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private long minBasketValueCents;
+
+    @Builder
+    @PersistenceCreator
+    public Coupon(Long id, String code, BigDecimal discount, BigDecimal minBasketValue,
+                  Integer maxRedemptions, BigDecimal discountBudget, long redemptions, BigDecimal redeemedDiscount) {
+        this.id = id;
+        this.code = code;
+        setDiscount(discount);
+        setMinBasketValue(minBasketValue);
+        this.maxRedemptions = maxRedemptions;
+        this.discountBudget = discountBudget;
+        this.redemptions = redemptions;
+        this.redeemedDiscount = redeemedDiscount != null ? redeemedDiscount : BigDecimal.ZERO;
+    }
+
+    /**
+     * Builds an unlimited coupon from amounts already held in cents, without converting them back from the
+     * {@link BigDecimal} values.
+     */
+    public static Coupon ofCents(Long id, String code, long discountCents, long minBasketValueCents) {
+        Coupon coupon = new Coupon(id, code, null, null, null, null, 0, BigDecimal.ZERO);
+        coupon.discount = Money.toBigDecimal(discountCents);
+        coupon.discountCents = discountCents;
+        coupon.minBasketValue = Money.toBigDecimal(minBasketValueCents);
+        coupon.minBasketValueCents = minBasketValueCents;
+        return coupon;
+    }
+
+    public boolean isRedemptionLimited() {
+        return maxRedemptions != null || discountBudget != null;
+    }
+
+    public void setDiscount(BigDecimal discount) {
+        this.discount = discount;
+        this.discountCents = discount != null ? Money.toCents(discount) : 0;
+    }
+
+    public void setMinBasketValue(BigDecimal minBasketValue) {
+        this.minBasketValue = minBasketValue;
+        this.minBasketValueCents = minBasketValue != null ? Money.toCents(minBasketValue) : 0;
+    }
+
 }
@@ -0,0 +1,7 @@
+package schwarz.jobs.interview.coupon.core.exception;
+
+public class CouponRedemptionLimitReachedException extends RuntimeException {
+    public CouponRedemptionLimitReachedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package schwarz.jobs.interview.coupon.core.exception;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
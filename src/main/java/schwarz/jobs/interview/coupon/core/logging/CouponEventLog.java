@@ -0,0 +1,228 @@
+package schwarz.jobs.interview.coupon.core.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import schwarz.jobs.interview.coupon.configuration.CouponEventLogProperties;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured apply/create events, logged off the request path. Sampled events are copied as references into a
+ * preallocated ring buffer; a single writer thread formats them as {@code key=value} lines on the
+ * {@code coupon.events} logger. Nothing is formatted for events that are sampled out or find the buffer full, and
+ * both cases are counted. An idle writer parks until a producer publishes into the empty buffer and wakes it.
+ */
+@Slf4j(topic = "coupon.events")
+@Component
+public class CouponEventLog implements MeterBinder, DisposableBean {
+
+    private static final long UNPUBLISHED = -1;
+
+    private static final long WRITER_JOIN_MILLIS = 5_000;
+
+    private final CouponEventLogProperties properties;
+
+    private final Slot[] slots;
+
+    private final int mask;
+
+    private final AtomicLong claimed = new AtomicLong();
+
+    private final StringBuilder line = new StringBuilder(256);
+
+    private final LongAdder published = new LongAdder();
+
+    private final LongAdder sampledOut = new LongAdder();
+
+    private final LongAdder bufferFull = new LongAdder();
+
+    private volatile long consumed;
+
+    private volatile boolean running;
+
+    private final AtomicBoolean writerParked = new AtomicBoolean();
+
+    private Thread writer;
+
+    public CouponEventLog(final CouponEventLogProperties properties) {
+        this.properties = properties;
+
+        int capacity = Integer.highestOneBit(Math.max(properties.getBufferSize() - 1, 1)) << 1;
+        this.slots = new Slot[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    public void applied(final String code, final BigDecimal basketValue, final BigDecimal appliedDiscount) {
+        publish(CouponEventType.APPLIED, code, basketValue, appliedDiscount);
+    }
+
+    public void created(final String code, final BigDecimal discount, final BigDecimal minBasketValue) {
+        publish(CouponEventType.CREATED, code, minBasketValue, discount);
+    }
+
+    private void publish(final CouponEventType type, final String code, final BigDecimal value,
+                         final BigDecimal discount) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (ThreadLocalRandom.current().nextDouble() >= properties.getSampleRate()) {
+            sampledOut.increment();
+            return;
+        }
+
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                bufferFull.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = slots[(int) (sequence & mask)];
+        slot.type = type;
+        slot.timestamp = System.currentTimeMillis();
+        slot.code = code;
+        slot.value = value;
+        slot.discount = discount;
+        slot.published = sequence;
+        published.increment();
+
+        if (writerParked.get() && writerParked.compareAndSet(true, false)) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Writes every event published so far, in claim order, and returns how many were written. Only the writer
+     * thread calls this once it is started.
+     */
+    public int drain() {
+        int written = 0;
+        long sequence = consumed;
+        Slot slot = slots[(int) (sequence & mask)];
+
+        while (slot.published == sequence) {
+            write(slot);
+            slot.clear();
+            consumed = ++sequence;
+            written++;
+            slot = slots[(int) (sequence & mask)];
+        }
+        return written;
+    }
+
+    private void write(final Slot slot) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+
+        line.setLength(0);
+        line.append("event=").append(slot.type.tag())
+                .append(" code=").append(slot.code)
+                .append(slot.type == CouponEventType.APPLIED ? " basket_value=" : " min_basket_value=")
+                .append(slot.value != null ? slot.value.toPlainString() : null)
+                .append(slot.type == CouponEventType.APPLIED ? " applied_discount=" : " discount=")
+                .append(slot.discount != null ? slot.discount.toPlainString() : null)
+                .append(" at=");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(slot.timestamp), line);
+        log.info(line.toString());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void onApplicationReady() {
+        if (!properties.isEnabled() || writer != null) {
+            return;
+        }
+
+        running = true;
+        long idleNanos = properties.getIdleWait().toNanos();
+        writer = new Thread(() -> {
+            while (running) {
+                if (drain() == 0) {
+                    park(idleNanos);
+                }
+            }
+            drain();
+        }, "coupon-event-log");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private void park(final long idleNanos) {
+        writerParked.set(true);
+        // a producer publishing after this check sees the flag and unparks the writer
+        if (slots[(int) (consumed & mask)].published != consumed && running) {
+            LockSupport.parkNanos(this, idleNanos);
+        }
+        writerParked.set(false);
+    }
+
+    @Override
+    public synchronized void destroy() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(WRITER_JOIN_MILLIS);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("coupon.events.published", published, LongAdder::doubleValue)
+                .description("Apply/create events queued for logging")
+                .register(registry);
+        FunctionCounter.builder("coupon.events.dropped", sampledOut, LongAdder::doubleValue)
+                .description("Apply/create events not logged")
+                .tag("reason", "sampled_out")
+                .register(registry);
+        FunctionCounter.builder("coupon.events.dropped", bufferFull, LongAdder::doubleValue)
+                .description("Apply/create events not logged")
+                .tag("reason", "buffer_full")
+                .register(registry);
+    }
+
+    private static final class Slot {
+
+        private CouponEventType type;
+
+        private long timestamp;
+
+        private String code;
+
+        /**
+         * Basket value of an application, minimum basket value of a created coupon.
+         */
+        private BigDecimal value;
+
+        private BigDecimal discount;
+
+        private volatile long published = UNPUBLISHED;
+
+        private void clear() {
+            code = null;
+            value = null;
+            discount = null;
+        }
+
+    }
+
+}
@@ -0,0 +1,18 @@
+package schwarz.jobs.interview.coupon.core.logging;
+
+public enum CouponEventType {
+
+    APPLIED("coupon_applied"),
+    CREATED("coupon_created");
+
+    private final String tag;
+
+    CouponEventType(final String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+}
@@ -7,5 +7,9 @@ public interface BasketMapper {
 
     Basket toBasket(BasketDTO basketDTO);
 
+    /**
+     * Amounts always come out with two decimal places, whatever scale the request used: {@code 100} is answered
+     * as {@code 100.00}.
+     */
     BasketDTO toDto(Basket basket);
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package schwarz.jobs.interview.coupon.core.mapper;
+
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+
+import java.util.Map;
+
+public interface CouponCsvMapper {
+
+    boolean isHeader(String line);
+
+    CouponDTO toDto(String line, Map<String, String> errors);
+
+}
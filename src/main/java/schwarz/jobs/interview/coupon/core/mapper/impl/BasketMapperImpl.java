@@ -3,6 +3,7 @@ package schwarz.jobs.interview.coupon.core.mapper.impl;
 import org.springframework.stereotype.Component;
 import schwarz.jobs.interview.coupon.core.mapper.BasketMapper;
 import schwarz.jobs.interview.coupon.core.models.Basket;
+import schwarz.jobs.interview.coupon.core.models.Money;
 import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
 
 @Component
@@ -11,8 +12,8 @@ public class BasketMapperImpl implements BasketMapper {
     @Override
     public Basket toBasket(BasketDTO basketDTO) {
         return Basket.builder()
-                .value(basketDTO.getValue())
-                .appliedDiscount(basketDTO.getAppliedDiscount())
+                .value(Money.toCents(basketDTO.getValue()))
+                .appliedDiscount(Money.toCents(basketDTO.getAppliedDiscount()))
                 .applicationSuccessful(basketDTO.isApplicationSuccessful())
                 .build();
     }
@@ -20,8 +21,8 @@ public class BasketMapperImpl implements BasketMapper {
     @Override
     public BasketDTO toDto(Basket basket) {
         return BasketDTO.builder()
-                .value(basket.getValue())
-                .appliedDiscount(basket.getAppliedDiscount())
+                .value(Money.toBigDecimal(basket.getValue()))
+                .appliedDiscount(Money.toBigDecimal(basket.getAppliedDiscount()))
                 .applicationSuccessful(basket.isApplicationSuccessful())
                 .build();
     }
@@ -0,0 +1,50 @@
+package schwarz.jobs.interview.coupon.core.mapper.impl;
+
+import org.springframework.stereotype.Component;
+import schwarz.jobs.interview.coupon.core.mapper.CouponCsvMapper;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.INVALID_NUMBER;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.MALFORMED_ROW;
+
+/**
+ * Maps {@code code,discount,minBasketValue} lines; parse problems are added to {@code errors} by field name.
+ */
+@Component
+public class CouponCsvMapperImpl implements CouponCsvMapper {
+
+    private static final String HEADER_PREFIX = "code,";
+
+    @Override
+    public boolean isHeader(String line) {
+        return line.regionMatches(true, 0, HEADER_PREFIX, 0, HEADER_PREFIX.length());
+    }
+
+    @Override
+    public CouponDTO toDto(String line, Map<String, String> errors) {
+        String[] columns = line.split(",", -1);
+        if (columns.length != 3) {
+            errors.put("row", MALFORMED_ROW);
+            return CouponDTO.builder().build();
+        }
+
+        return CouponDTO.builder()
+                .code(columns[0].trim())
+                .discount(toDecimal("discount", columns[1], errors))
+                .minBasketValue(toDecimal("minBasketValue", columns[2], errors))
+                .build();
+    }
+
+    private BigDecimal toDecimal(String field, String value, Map<String, String> errors) {
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            errors.put(field, INVALID_NUMBER);
+            return null;
+        }
+    }
+
+}
@@ -14,6 +14,8 @@ public class CouponMapperImpl implements CouponMapper {
                 .code(coupon.getCode())
                 .discount(coupon.getDiscount())
                 .minBasketValue(coupon.getMinBasketValue())
+                .maxRedemptions(coupon.getMaxRedemptions())
+                .discountBudget(coupon.getDiscountBudget())
                 .build();
     }
     
@@ -0,0 +1,56 @@
+package schwarz.jobs.interview.coupon.core.metrics;
+
+import org.springframework.web.bind.support.WebExchangeBindException;
+import schwarz.jobs.interview.coupon.core.exception.CouponCodeAlreadyExistsException;
+import schwarz.jobs.interview.coupon.core.exception.CouponNotFoundException;
+import schwarz.jobs.interview.coupon.core.exception.CouponRedemptionLimitReachedException;
+import schwarz.jobs.interview.coupon.core.exception.IdempotencyKeyReusedException;
+import schwarz.jobs.interview.coupon.core.exception.InsufficientBasketValueException;
+import schwarz.jobs.interview.coupon.core.exception.InvalidDiscountException;
+
+public enum CouponOutcome {
+
+    APPLIED("applied"),
+    CREATED("created"),
+    NOT_FOUND("not_found"),
+    INSUFFICIENT_BASKET_VALUE("insufficient_basket_value"),
+    INVALID_DISCOUNT("invalid_discount"),
+    ALREADY_EXISTS("already_exists"),
+    REDEMPTION_LIMIT_REACHED("redemption_limit_reached"),
+    VALIDATION_FAILED("validation_failed"),
+    RATE_LIMITED("rate_limited"),
+    ERROR("error");
+
+    private final String tag;
+
+    CouponOutcome(final String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    public static CouponOutcome of(final Throwable error) {
+        if (error instanceof CouponNotFoundException) {
+            return NOT_FOUND;
+        }
+        if (error instanceof InsufficientBasketValueException) {
+            return INSUFFICIENT_BASKET_VALUE;
+        }
+        if (error instanceof InvalidDiscountException) {
+            return INVALID_DISCOUNT;
+        }
+        if (error instanceof CouponCodeAlreadyExistsException) {
+            return ALREADY_EXISTS;
+        }
+        if (error instanceof CouponRedemptionLimitReachedException) {
+            return REDEMPTION_LIMIT_REACHED;
+        }
+        if (error instanceof WebExchangeBindException || error instanceof IdempotencyKeyReusedException) {
+            return VALIDATION_FAILED;
+        }
+        return ERROR;
+    }
+
+}
@@ -0,0 +1,36 @@
+package schwarz.jobs.interview.coupon.core.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One {@code coupon.outcomes} counter per {@link CouponOutcome}, registered up front so every series is scraped
+ * from the first request on.
+ */
+@Component
+public class CouponOutcomeMetrics {
+
+    private final Map<CouponOutcome, Counter> counters = new EnumMap<>(CouponOutcome.class);
+
+    public CouponOutcomeMetrics(final MeterRegistry meterRegistry) {
+        for (CouponOutcome outcome : CouponOutcome.values()) {
+            counters.put(outcome, Counter.builder("coupon.outcomes")
+                    .description("Coupon API results by business outcome")
+                    .tag("outcome", outcome.tag())
+                    .register(meterRegistry));
+        }
+    }
+
+    public void record(final CouponOutcome outcome) {
+        counters.get(outcome).increment();
+    }
+
+    public void record(final Throwable error) {
+        record(CouponOutcome.of(error));
+    }
+
+}
@@ -0,0 +1,76 @@
+package schwarz.jobs.interview.coupon.core.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Wraps the {@link CouponStore} so every reactive query is timed from subscription to termination as
+ * {@code coupon.repository.query}, tagged by method and signal, whichever storage engine is active. The proxy keeps
+ * every interface of the store. The registry is resolved lazily because the store is created before the metrics
+ * infrastructure.
+ */
+@Component
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public RepositoryMetricsPostProcessor(final ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (bean instanceof CouponStore) {
+            return timed((CouponStore) bean);
+        }
+        return bean;
+    }
+
+    CouponStore timed(final CouponStore store) {
+        return (CouponStore) Proxy.newProxyInstance(
+                CouponStore.class.getClassLoader(),
+                ClassUtils.getAllInterfacesForClass(store.getClass(), CouponStore.class.getClassLoader()),
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(store, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof Mono) {
+                        return Mono.defer(() -> {
+                            Timer.Sample sample = Timer.start();
+                            return ((Mono<?>) result).doFinally(signal -> stop(sample, method, signal));
+                        });
+                    }
+                    if (result instanceof Flux) {
+                        return Flux.defer(() -> {
+                            Timer.Sample sample = Timer.start();
+                            return ((Flux<?>) result).doFinally(signal -> stop(sample, method, signal));
+                        });
+                    }
+                    return result;
+                });
+    }
+
+    private void stop(final Timer.Sample sample, final Method method, final SignalType signal) {
+        sample.stop(Timer.builder("coupon.repository.query")
+                .description("Coupon repository query latency")
+                .tag("method", method.getName())
+                .tag("signal", signal.name().toLowerCase())
+                .register(meterRegistry.getObject()));
+    }
+
+}
@@ -0,0 +1,79 @@
+package schwarz.jobs.interview.coupon.core.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records how long callers wait for a connection as {@code r2dbc.pool.acquire}. Implements {@link Wrapped} so the
+ * actuator still finds the underlying pool and binds its {@code r2dbc.pool.*} gauges.
+ */
+public class TimedConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory>, Disposable {
+
+    private final ConnectionFactory delegate;
+
+    private final String name;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    private volatile Timer acquireTimer;
+
+    public TimedConnectionFactory(final ConnectionFactory delegate,
+                                  final String name,
+                                  final ObjectProvider<MeterRegistry> meterRegistry) {
+        this.delegate = delegate;
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return Mono.<Connection>from(delegate.create())
+                    .doOnSuccess(connection -> sample.stop(acquireTimer()));
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    @Override
+    public void dispose() {
+        if (delegate instanceof Disposable) {
+            ((Disposable) delegate).dispose();
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate instanceof Disposable && ((Disposable) delegate).isDisposed();
+    }
+
+    private Timer acquireTimer() {
+        Timer timer = acquireTimer;
+        if (timer == null) {
+            timer = Timer.builder("r2dbc.pool.acquire")
+                    .description("Time spent waiting for a pooled connection")
+                    .tag("name", name)
+                    .register(meterRegistry.getObject());
+            acquireTimer = timer;
+        }
+        return timer;
+    }
+
+}
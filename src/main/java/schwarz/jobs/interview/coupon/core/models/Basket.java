@@ -3,21 +3,22 @@ package schwarz.jobs.interview.coupon.core.models;
 import lombok.Builder;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
+/**
+ * Basket amounts are held in cents, see {@link Money}.
+ */
 @Data
 @Builder
 public class Basket {
 
-    private BigDecimal value;
+    private long value;
 
-    private BigDecimal appliedDiscount;
+    private long appliedDiscount;
 
     private boolean applicationSuccessful;
 
-    public void applyDiscount(final BigDecimal discount) {
+    public void applyDiscount(final long discount) {
         this.applicationSuccessful = true;
-        this.appliedDiscount = this.appliedDiscount.add(discount);
+        this.appliedDiscount += discount;
     }
 
 }
@@ -0,0 +1,63 @@
+package schwarz.jobs.interview.coupon.core.models;
+
+/**
+ * Packs coupon codes, which are always exactly 8 characters of {@code [0-9A-Za-z]}, into a base-62 number.
+ * 62^8 is below 2^48, so every code fits the low 48 bits of a {@code long}.
+ */
+public final class CouponCodes {
+
+    public static final int LENGTH = 8;
+
+    public static final long INVALID = -1;
+
+    private static final int RADIX = 62;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private CouponCodes() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Returns the packed code, or {@link #INVALID} if the value is not a well-formed coupon code.
+     */
+    public static long pack(final String code) {
+        if (code == null || code.length() != LENGTH) {
+            return INVALID;
+        }
+
+        long packed = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            int digit = digit(code.charAt(i));
+            if (digit < 0) {
+                return INVALID;
+            }
+            packed = packed * RADIX + digit;
+        }
+        return packed;
+    }
+
+    public static String unpack(final long packed) {
+        char[] code = new char[LENGTH];
+        long remaining = packed;
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            code[i] = ALPHABET[(int) (remaining % RADIX)];
+            remaining /= RADIX;
+        }
+        return new String(code);
+    }
+
+    private static int digit(final char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A' + 10;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 36;
+        }
+        return -1;
+    }
+
+}
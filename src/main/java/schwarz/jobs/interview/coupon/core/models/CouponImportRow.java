@@ -0,0 +1,23 @@
+package schwarz.jobs.interview.coupon.core.models;
+
+import lombok.Builder;
+import lombok.Value;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+
+import java.util.Map;
+
+@Value
+@Builder
+public class CouponImportRow {
+
+    long row;
+
+    CouponDTO coupon;
+
+    Map<String, String> errors;
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+}
@@ -0,0 +1,29 @@
+package schwarz.jobs.interview.coupon.core.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money as a primitive {@code long} number of cents. Amounts are capped at 8 integer and 2 fraction
+ * digits by the DTO constraints, so any sum of a few of them fits a {@code long} without overflow.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+
+    private Money() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Exact conversion; fails with {@link ArithmeticException} if the amount has more than two decimal places.
+     */
+    public static long toCents(final BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(final long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+}
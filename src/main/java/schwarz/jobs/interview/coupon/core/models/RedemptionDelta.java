@@ -0,0 +1,16 @@
+package schwarz.jobs.interview.coupon.core.models;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class RedemptionDelta {
+
+    String code;
+
+    long redemptions;
+
+    long discountCents;
+
+}
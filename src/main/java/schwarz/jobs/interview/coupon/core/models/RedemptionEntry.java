@@ -0,0 +1,20 @@
+package schwarz.jobs.interview.coupon.core.models;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+@Builder
+public class RedemptionEntry {
+
+    String code;
+
+    long basketValueCents;
+
+    long discountCents;
+
+    Instant redeemedAt;
+
+}
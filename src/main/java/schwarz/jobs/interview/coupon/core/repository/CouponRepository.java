@@ -1,5 +1,6 @@
 package schwarz.jobs.interview.coupon.core.repository;
 
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
@@ -15,6 +16,7 @@ public interface CouponRepository extends R2dbcRepository<Coupon, Long> {
 
     Flux<Coupon> findByCodeIn(List<String> codes);
 
-    Mono<Boolean> existsCouponByCode(final String code);
+    @Query("SELECT CODE FROM COUPONS")
+    Flux<String> findAllCodes();
 
 }
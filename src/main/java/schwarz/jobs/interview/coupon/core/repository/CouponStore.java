@@ -0,0 +1,35 @@
+package schwarz.jobs.interview.coupon.core.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.RedemptionDelta;
+
+import java.util.List;
+
+/**
+ * The coupon operations the services rely on, implemented once per storage engine and selected with
+ * {@code coupon.storage.engine}.
+ */
+public interface CouponStore {
+
+    Mono<Coupon> findByCode(String code);
+
+    Flux<Coupon> findByCodeIn(List<String> codes);
+
+    Flux<Coupon> findAll();
+
+    Flux<String> findAllCodes();
+
+    /**
+     * Inserts a coupon without an id and updates one that has it; a duplicate code fails with a
+     * {@link org.springframework.dao.DuplicateKeyException}.
+     */
+    Mono<Coupon> save(Coupon coupon);
+
+    /**
+     * Raises the redemption totals of each coupon by its delta and emits how many coupons were updated.
+     */
+    Mono<Long> addRedemptions(List<RedemptionDelta> deltas);
+
+}
@@ -0,0 +1,28 @@
+package schwarz.jobs.interview.coupon.core.repository;
+
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+
+/**
+ * Spring Data R2DBC reports unique index violations as a plain {@link DataIntegrityViolationException}, so the
+ * SQLSTATE of the driver exception is checked as well.
+ */
+public final class DuplicateKeyErrors {
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private DuplicateKeyErrors() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static boolean isDuplicateKey(final Throwable error) {
+        if (error instanceof DuplicateKeyException) {
+            return true;
+        }
+        Throwable cause = error instanceof DataIntegrityViolationException ? error.getCause() : error;
+        return cause instanceof R2dbcDataIntegrityViolationException
+                && UNIQUE_VIOLATION.equals(((R2dbcDataIntegrityViolationException) cause).getSqlState());
+    }
+
+}
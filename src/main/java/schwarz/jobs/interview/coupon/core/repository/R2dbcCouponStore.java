@@ -0,0 +1,82 @@
+package schwarz.jobs.interview.coupon.core.repository;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.Money;
+import schwarz.jobs.interview.coupon.core.models.RedemptionDelta;
+
+import java.util.List;
+
+/**
+ * Coupon storage in the coupons table, the default engine.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "coupon.storage", name = "engine", havingValue = "r2dbc", matchIfMissing = true)
+public class R2dbcCouponStore implements CouponStore {
+
+    private static final String UPDATE_REDEMPTIONS = "UPDATE COUPONS SET REDEMPTIONS = REDEMPTIONS + $1, "
+            + "REDEEMED_DISCOUNT = REDEEMED_DISCOUNT + $2 WHERE CODE = $3";
+
+    private final CouponRepository couponRepository;
+
+    private final DatabaseClient databaseClient;
+
+    private final TransactionalOperator transactionalOperator;
+
+    @Override
+    public Mono<Coupon> findByCode(final String code) {
+        return couponRepository.findByCode(code);
+    }
+
+    @Override
+    public Flux<Coupon> findByCodeIn(final List<String> codes) {
+        return couponRepository.findByCodeIn(codes);
+    }
+
+    @Override
+    public Flux<Coupon> findAll() {
+        return couponRepository.findAll();
+    }
+
+    @Override
+    public Flux<String> findAllCodes() {
+        return couponRepository.findAllCodes();
+    }
+
+    @Override
+    public Mono<Coupon> save(final Coupon coupon) {
+        return couponRepository.save(coupon);
+    }
+
+    /**
+     * Writes all increments as one batched statement in a single transaction.
+     */
+    @Override
+    public Mono<Long> addRedemptions(final List<RedemptionDelta> deltas) {
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(UPDATE_REDEMPTIONS);
+                    for (int i = 0; i < deltas.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        RedemptionDelta delta = deltas.get(i);
+                        statement.bind("$1", delta.getRedemptions())
+                                .bind("$2", Money.toBigDecimal(delta.getDiscountCents()))
+                                .bind("$3", delta.getCode());
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                })
+                .as(transactionalOperator::transactional)
+                .reduce(0L, (updated, rows) -> updated + rows);
+    }
+
+}
@@ -0,0 +1,281 @@
+package schwarz.jobs.interview.coupon.core.repository.journal;
+
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+import schwarz.jobs.interview.coupon.core.models.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only file of fixed-size coupon records, mapped into memory one region at a time. A coupon is rewritten
+ * in full whenever it changes, so the last record of a code is its current state. Every record carries a CRC32C
+ * of its body; recovery replays records up to the first torn or unwritten one and zeroes everything after it.
+ * <p>
+ * Appends are serialized; {@link #force()} only holds the lock to take its snapshot, so appends continue while a
+ * force is running, and {@link #read} takes no lock at all.
+ */
+final class CouponJournal implements Closeable {
+
+    static final int RECORD_BYTES = 64;
+
+    private static final int CHECKSUM = 0;
+
+    private static final int MAX_REDEMPTIONS = 4;
+
+    private static final int CODE = 8;
+
+    private static final int ID = 16;
+
+    private static final int DISCOUNT = 24;
+
+    private static final int MIN_BASKET = 32;
+
+    private static final int DISCOUNT_BUDGET = 40;
+
+    private static final int REDEMPTIONS = 48;
+
+    private static final int REDEEMED_DISCOUNT = 56;
+
+    private static final int NONE = -1;
+
+    private final FileChannel channel;
+
+    private final int regionSize;
+
+    private final ByteBuffer scratch = ByteBuffer.allocate(RECORD_BYTES);
+
+    private final CRC32C checksum = new CRC32C();
+
+    private volatile MappedByteBuffer[] regions = new MappedByteBuffer[0];
+
+    private volatile long end;
+
+    private int firstDirtyRegion;
+
+    private CouponJournal(final FileChannel channel, final int regionSize) {
+        this.channel = channel;
+        this.regionSize = regionSize;
+    }
+
+    /**
+     * Opens or creates the journal and hands every intact record to {@code replay} with its position, oldest first.
+     */
+    static CouponJournal open(final Path path, final long regionSize, final ObjLongConsumer<Coupon> replay)
+            throws IOException {
+        if (regionSize <= 0 || regionSize > Integer.MAX_VALUE || regionSize % RECORD_BYTES != 0) {
+            throw new IllegalArgumentException("Journal region size must be a positive multiple of "
+                    + RECORD_BYTES + " bytes below 2 GiB");
+        }
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        CouponJournal journal = new CouponJournal(channel, (int) regionSize);
+        try {
+            journal.recover(replay);
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+        return journal;
+    }
+
+    synchronized long append(final Coupon coupon) throws IOException {
+        long packed = CouponCodes.pack(coupon.getCode());
+        if (packed == CouponCodes.INVALID) {
+            throw new IllegalArgumentException("Not a coupon code: " + coupon.getCode());
+        }
+
+        long position = end;
+        MappedByteBuffer region = region(regionIndex(position));
+
+        scratch.clear();
+        scratch.putInt(MAX_REDEMPTIONS, coupon.getMaxRedemptions() != null ? coupon.getMaxRedemptions() : NONE)
+                .putLong(CODE, packed)
+                .putLong(ID, coupon.getId() != null ? coupon.getId() : 0L)
+                .putLong(DISCOUNT, coupon.getDiscountCents())
+                .putLong(MIN_BASKET, coupon.getMinBasketValueCents())
+                .putLong(DISCOUNT_BUDGET, coupon.getDiscountBudget() != null ? Money.toCents(coupon.getDiscountBudget()) : NONE)
+                .putLong(REDEMPTIONS, coupon.getRedemptions())
+                .putLong(REDEEMED_DISCOUNT, Money.toCents(coupon.getRedeemedDiscount()));
+        scratch.putInt(CHECKSUM, checksum(scratch, 0));
+
+        ByteBuffer target = region.duplicate();
+        target.position(offset(position));
+        target.put(scratch.array());
+
+        end = position + RECORD_BYTES;
+        return position;
+    }
+
+    /**
+     * Decodes the record at {@code position}; {@code code} is reused when the caller already holds it.
+     */
+    Coupon read(final long position, final String code) {
+        MappedByteBuffer region = regions[regionIndex(position)];
+        int offset = offset(position);
+
+        int maxRedemptions = region.getInt(offset + MAX_REDEMPTIONS);
+        long discountBudget = region.getLong(offset + DISCOUNT_BUDGET);
+
+        return Coupon.builder()
+                .id(region.getLong(offset + ID))
+                .code(code != null ? code : CouponCodes.unpack(region.getLong(offset + CODE)))
+                .discount(Money.toBigDecimal(region.getLong(offset + DISCOUNT)))
+                .minBasketValue(Money.toBigDecimal(region.getLong(offset + MIN_BASKET)))
+                .maxRedemptions(maxRedemptions != NONE ? maxRedemptions : null)
+                .discountBudget(discountBudget != NONE ? Money.toBigDecimal(discountBudget) : null)
+                .redemptions(region.getLong(offset + REDEMPTIONS))
+                .redeemedDiscount(Money.toBigDecimal(region.getLong(offset + REDEEMED_DISCOUNT)))
+                .build();
+    }
+
+    String code(final long position) {
+        return CouponCodes.unpack(regions[regionIndex(position)].getLong(offset(position) + CODE));
+    }
+
+    /**
+     * Writes every region appended to since the last call back to the file and returns the end position that is
+     * now durable.
+     */
+    long force() {
+        long durableEnd;
+        MappedByteBuffer[] mapped;
+        int from;
+        int to;
+        synchronized (this) {
+            durableEnd = end;
+            mapped = regions;
+            from = firstDirtyRegion;
+            to = durableEnd == 0 ? 0 : regionIndex(durableEnd - 1);
+            // the last region stays dirty, later appends land there
+            firstDirtyRegion = to;
+        }
+
+        for (int i = from; i <= to && i < mapped.length; i++) {
+            mapped[i].force();
+        }
+        return durableEnd;
+    }
+
+    long end() {
+        return end;
+    }
+
+    long mappedBytes() {
+        return (long) regions.length * regionSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Closes the file without writing it back, for a journal that compaction replaced. The mapped regions stay
+     * readable until they are collected, so lookups still running on it are unaffected.
+     */
+    void discard() throws IOException {
+        channel.close();
+    }
+
+    private void recover(final ObjLongConsumer<Coupon> replay) throws IOException {
+        long fileSize = channel.size();
+        if (fileSize > 0) {
+            region(regionIndex(fileSize - 1));
+        }
+
+        long position = 0;
+        while (position + RECORD_BYTES <= fileSize) {
+            MappedByteBuffer region = regions[regionIndex(position)];
+            if (!isIntact(region, offset(position))) {
+                break;
+            }
+            replay.accept(read(position, null), position);
+            position += RECORD_BYTES;
+        }
+        end = position;
+
+        // records past the end were never acknowledged; stale ones must not resurface once it is overwritten
+        boolean zeroed = false;
+        byte[] zeros = new byte[RECORD_BYTES];
+        for (long tail = position; tail + RECORD_BYTES <= mappedBytes(); tail += RECORD_BYTES) {
+            MappedByteBuffer region = regions[regionIndex(tail)];
+            int offset = offset(tail);
+            if (!isZero(region, offset)) {
+                ByteBuffer target = region.duplicate();
+                target.position(offset);
+                target.put(zeros);
+                zeroed = true;
+            }
+        }
+        if (zeroed) {
+            for (int i = regionIndex(position); i < regions.length; i++) {
+                regions[i].force();
+            }
+        }
+        firstDirtyRegion = regionIndex(position);
+    }
+
+    private static boolean isZero(final MappedByteBuffer region, final int offset) {
+        for (int i = 0; i < RECORD_BYTES; i += Long.BYTES) {
+            if (region.getLong(offset + i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isIntact(final MappedByteBuffer region, final int offset) {
+        ByteBuffer record = region.duplicate();
+        record.position(offset).limit(offset + RECORD_BYTES);
+        return checksum(record.slice(), 0) == record.getInt(offset + CHECKSUM);
+    }
+
+    private int checksum(final ByteBuffer record, final int offset) {
+        ByteBuffer body = record.duplicate();
+        body.position(offset + MAX_REDEMPTIONS).limit(offset + RECORD_BYTES);
+        checksum.reset();
+        checksum.update(body);
+        return (int) checksum.getValue();
+    }
+
+    private synchronized MappedByteBuffer region(final int index) throws IOException {
+        MappedByteBuffer[] mapped = regions;
+        if (index < mapped.length) {
+            return mapped[index];
+        }
+
+        // mapping past the end of the file grows it to the region boundary
+        MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, (long) index * regionSize, regionSize);
+        MappedByteBuffer[] grown = Arrays.copyOf(mapped, index + 1);
+        for (int i = mapped.length; i < index; i++) {
+            grown[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * regionSize, regionSize);
+        }
+        grown[index] = region;
+        regions = grown;
+        return region;
+    }
+
+    private int regionIndex(final long position) {
+        return (int) (position / regionSize);
+    }
+
+    private int offset(final long position) {
+        return (int) (position % regionSize);
+    }
+
+}
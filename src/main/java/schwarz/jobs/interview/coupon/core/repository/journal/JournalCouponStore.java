@@ -0,0 +1,485 @@
+package schwarz.jobs.interview.coupon.core.repository.journal;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+import schwarz.jobs.interview.coupon.configuration.CouponStorageProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+import schwarz.jobs.interview.coupon.core.models.Money;
+import schwarz.jobs.interview.coupon.core.models.RedemptionDelta;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coupon storage on a memory-mapped {@link CouponJournal}, selected with {@code coupon.storage.engine=journal}.
+ * Lookups resolve the code through an in-memory {@link JournalIndex} and decode the record straight from the
+ * mapping. Writes are appended under one lock and acknowledged once a sync of the journal covers them; a single
+ * committer thread forces whatever accumulated while the previous sync ran, so concurrent writers share fsyncs.
+ * A write reaches the index as soon as it is appended, so lookups may see it before the sync that acknowledges it;
+ * a crash in between loses such a write, but never one whose save already completed. A failed sync leaves the file
+ * in an unknown state, so the store fails every later read and write instead of serving records it cannot vouch for.
+ * <p>
+ * Once the journal outgrows twice its live records it is compacted: the latest record of every code is copied
+ * into a fresh file that atomically replaces the journal. Durability is tracked in logical positions that keep
+ * growing across compactions, so writers waiting on a sync of the old file are released by the swap.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "coupon.storage", name = "engine", havingValue = "journal")
+public class JournalCouponStore implements CouponStore, MeterBinder, DisposableBean {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final CouponStorageProperties.Journal properties;
+
+    private final Object writeLock = new Object();
+
+    private final Object commitLock = new Object();
+
+    private final Queue<PendingCommit> pendingCommits = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder syncs = new LongAdder();
+
+    private final LongAdder committedWrites = new LongAdder();
+
+    private final LongAdder compactions = new LongAdder();
+
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    private final Thread committer;
+
+    private long lastId;
+
+    private boolean closed;
+
+    private volatile Segment segment;
+
+    private volatile long durableEnd;
+
+    private volatile boolean running = true;
+
+    private volatile RuntimeException syncFailure;
+
+    public JournalCouponStore(final CouponStorageProperties storageProperties) throws IOException {
+        this.properties = storageProperties.getJournal();
+
+        long started = System.nanoTime();
+        // left behind by a compaction that did not finish; the journal it was meant to replace is intact
+        Files.deleteIfExists(compactionPath(properties.getPath()));
+
+        JournalIndex index = new JournalIndex();
+        CouponJournal journal = CouponJournal.open(properties.getPath(), properties.getRegionSize().toBytes(),
+                (coupon, position) -> replay(index, coupon, position));
+        this.segment = new Segment(journal, index, 0);
+        this.durableEnd = journal.end();
+        log.info("Recovered {} coupons from {} journal records at {} in {} ms", index.size(),
+                journal.end() / CouponJournal.RECORD_BYTES, properties.getPath(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        if (properties.isFsync()) {
+            this.committer = new Thread(this::commitLoop, "coupon-journal-sync");
+            committer.setDaemon(true);
+            committer.start();
+        } else {
+            this.committer = null;
+        }
+    }
+
+    @Override
+    public Mono<Coupon> findByCode(final String code) {
+        return Mono.fromSupplier(() -> find(code));
+    }
+
+    @Override
+    public Flux<Coupon> findByCodeIn(final List<String> codes) {
+        return Flux.fromIterable(codes)
+                .distinct()
+                .handle((code, sink) -> {
+                    Coupon coupon = find(code);
+                    if (coupon != null) {
+                        sink.next(coupon);
+                    }
+                });
+    }
+
+    @Override
+    public Flux<String> findAllCodes() {
+        return Flux.fromStream(() -> {
+            checkSynced();
+            Segment current = segment;
+            return current.getIndex().positions().mapToObj(current.getJournal()::code);
+        });
+    }
+
+    @Override
+    public Flux<Coupon> findAll() {
+        return Flux.fromStream(() -> {
+            checkSynced();
+            Segment current = segment;
+            return current.getIndex().positions().mapToObj(position -> current.getJournal().read(position, null));
+        });
+    }
+
+    /**
+     * Inserts a coupon without an id, emitting a copy with the next id assigned, and rewrites a coupon that has one.
+     * Completes once the record is durable; the given coupon is left untouched.
+     */
+    @Override
+    public Mono<Coupon> save(final Coupon coupon) {
+        return Mono.defer(() -> {
+            long packed = CouponCodes.pack(coupon.getCode());
+            if (packed == CouponCodes.INVALID) {
+                return Mono.error(new IllegalArgumentException("Not a coupon code: " + coupon.getCode()));
+            }
+
+            Coupon saved;
+            long end;
+            synchronized (writeLock) {
+                saved = coupon;
+                if (coupon.getId() == null) {
+                    if (segment.getIndex().get(packed) != JournalIndex.ABSENT) {
+                        return Mono.error(new DuplicateKeyException("Coupon code " + coupon.getCode() + " already exists"));
+                    }
+                    saved = withId(coupon, lastId + 1);
+                }
+                end = append(packed, saved);
+                lastId = Math.max(lastId, saved.getId());
+            }
+            compactIfNeeded();
+            return durable(end).thenReturn(saved);
+        });
+    }
+
+    /**
+     * Rewrites each coupon with its redemption totals raised by the delta and emits how many coupons were updated.
+     */
+    @Override
+    public Mono<Long> addRedemptions(final List<RedemptionDelta> deltas) {
+        return Mono.defer(() -> {
+            long updated = 0;
+            long end = 0;
+            synchronized (writeLock) {
+                Segment current = segment;
+                for (RedemptionDelta delta : deltas) {
+                    long packed = CouponCodes.pack(delta.getCode());
+                    long position = packed != CouponCodes.INVALID ? current.getIndex().get(packed) : JournalIndex.ABSENT;
+                    if (position == JournalIndex.ABSENT) {
+                        continue;
+                    }
+
+                    Coupon coupon = current.getJournal().read(position, delta.getCode());
+                    coupon.setRedemptions(coupon.getRedemptions() + delta.getRedemptions());
+                    coupon.setRedeemedDiscount(coupon.getRedeemedDiscount()
+                            .add(Money.toBigDecimal(delta.getDiscountCents())));
+                    end = append(packed, coupon);
+                    updated++;
+                }
+            }
+            compactIfNeeded();
+            return updated == 0 ? Mono.just(0L) : durable(end).thenReturn(updated);
+        });
+    }
+
+    public long size() {
+        return segment.getIndex().size();
+    }
+
+    /**
+     * Rewrites the latest record of every coupon into a fresh file and swaps it in for the journal. Writes wait
+     * until the swap; lookups carry on against the old file, whose mapping outlives it.
+     */
+    public void compact() throws IOException {
+        Path path = properties.getPath();
+        Path compactedPath = compactionPath(path);
+        long started = System.nanoTime();
+
+        long before;
+        long after;
+        synchronized (writeLock) {
+            // after a failed sync the index may point at records that never reached the disk
+            if (closed || syncFailure != null) {
+                return;
+            }
+            // the committer must not force the old file while it is replaced
+            synchronized (commitLock) {
+                Segment current = segment;
+                before = current.getJournal().end();
+
+                Files.deleteIfExists(compactedPath);
+                JournalIndex index = new JournalIndex();
+                CouponJournal compacted = CouponJournal.open(compactedPath, properties.getRegionSize().toBytes(),
+                        (coupon, position) -> { });
+                try {
+                    for (PrimitiveIterator.OfLong positions = current.getIndex().positions().iterator(); positions.hasNext(); ) {
+                        Coupon coupon = current.getJournal().read(positions.nextLong(), null);
+                        index.put(CouponCodes.pack(coupon.getCode()), compacted.append(coupon));
+                    }
+                    compacted.force();
+                    Files.move(compactedPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    syncDirectory(path);
+                } catch (IOException | RuntimeException ex) {
+                    compacted.discard();
+                    Files.deleteIfExists(compactedPath);
+                    throw ex;
+                }
+                after = compacted.end();
+
+                // the compacted file holds the latest state of everything appended so far, all of it durable
+                long logicalEnd = current.getOffset() + before;
+                segment = new Segment(compacted, index, logicalEnd - after);
+                durableEnd = logicalEnd;
+                completeCommits(logicalEnd);
+                current.getJournal().discard();
+                compactions.increment();
+            }
+        }
+        log.info("Compacted coupon journal at {} from {} to {} bytes in {} ms", path, before, after,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("coupon.journal.coupons", this, JournalCouponStore::size)
+                .description("Coupons held by the journal")
+                .register(registry);
+        Gauge.builder("coupon.journal.size", this, store -> store.segment.getJournal().end())
+                .description("Bytes appended to the journal")
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("coupon.journal.syncs", syncs, LongAdder::doubleValue)
+                .description("Journal syncs to disk")
+                .register(registry);
+        FunctionCounter.builder("coupon.journal.commits", committedWrites, LongAdder::doubleValue)
+                .description("Journal writes acknowledged after a sync")
+                .register(registry);
+        FunctionCounter.builder("coupon.journal.compactions", compactions, LongAdder::doubleValue)
+                .description("Journal compactions")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() throws IOException, InterruptedException {
+        running = false;
+        if (committer != null) {
+            LockSupport.unpark(committer);
+            committer.join(properties.getShutdownTimeout().toMillis());
+        }
+        if (properties.isCompactOnShutdown()) {
+            try {
+                compact();
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Coupon journal compaction on shutdown failed, keeping the journal as it is", ex);
+            }
+        }
+        synchronized (writeLock) {
+            closed = true;
+            segment.getJournal().close();
+        }
+        log.info("Closed coupon journal at {} with {} coupons", properties.getPath(), size());
+    }
+
+    private Coupon find(final String code) {
+        checkSynced();
+        long packed = CouponCodes.pack(code);
+        if (packed == CouponCodes.INVALID) {
+            return null;
+        }
+        Segment current = segment;
+        long position = current.getIndex().get(packed);
+        return position != JournalIndex.ABSENT ? current.getJournal().read(position, code) : null;
+    }
+
+    private void replay(final JournalIndex index, final Coupon coupon, final long position) {
+        index.put(CouponCodes.pack(coupon.getCode()), position);
+        lastId = Math.max(lastId, coupon.getId());
+    }
+
+    private void compactIfNeeded() {
+        Segment current = segment;
+        long size = current.getJournal().end();
+        long live = (long) current.getIndex().size() * CouponJournal.RECORD_BYTES;
+        if (size < properties.getCompactionMinSize().toBytes() || size < 2 * live
+                || !compacting.compareAndSet(false, true)) {
+            return;
+        }
+
+        Schedulers.boundedElastic().schedule(() -> {
+            try {
+                compact();
+            } catch (IOException | RuntimeException ex) {
+                log.error("Coupon journal compaction failed", ex);
+            } finally {
+                compacting.set(false);
+            }
+        });
+    }
+
+    private long append(final long packed, final Coupon coupon) {
+        if (!running) {
+            throw new IllegalStateException("Coupon journal is closed");
+        }
+        checkSynced();
+        Segment current = segment;
+        try {
+            long position = current.getJournal().append(coupon);
+            current.getIndex().put(packed, position);
+            return current.getOffset() + position + CouponJournal.RECORD_BYTES;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Mono<Void> durable(final long end) {
+        if (committer == null) {
+            return Mono.empty();
+        }
+        if (syncFailure != null) {
+            return Mono.error(syncFailure);
+        }
+        if (durableEnd >= end) {
+            // a sync that started after this append already covered it
+            committedWrites.increment();
+            return Mono.empty();
+        }
+
+        return Mono.<Void>create(sink -> {
+                    pendingCommits.offer(new PendingCommit(end, sink));
+                    LockSupport.unpark(committer);
+                })
+                // keep the committer thread free for the next sync
+                .publishOn(Schedulers.parallel());
+    }
+
+    private void commitLoop() {
+        long windowNanos = properties.getCommitWindow().toNanos();
+
+        while (running || !pendingCommits.isEmpty()) {
+            if (pendingCommits.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            if (windowNanos > 0) {
+                LockSupport.parkNanos(windowNanos);
+            }
+            commit();
+        }
+    }
+
+    private void commit() {
+        synchronized (commitLock) {
+            try {
+                if (syncFailure == null) {
+                    Segment current = segment;
+                    long synced = current.getOffset() + current.getJournal().force();
+                    durableEnd = synced;
+                    syncs.increment();
+                    completeCommits(synced);
+                    return;
+                }
+            } catch (RuntimeException ex) {
+                log.error("Coupon journal sync failed, refusing further reads and writes", ex);
+                syncFailure = ex;
+            }
+            PendingCommit commit;
+            while ((commit = pendingCommits.poll()) != null) {
+                commit.getSink().error(syncFailure);
+            }
+        }
+    }
+
+    private void checkSynced() {
+        if (syncFailure != null) {
+            throw new IllegalStateException("Coupon journal failed a sync", syncFailure);
+        }
+    }
+
+    private void completeCommits(final long synced) {
+        for (Iterator<PendingCommit> pending = pendingCommits.iterator(); pending.hasNext(); ) {
+            PendingCommit commit = pending.next();
+            if (commit.getEnd() <= synced) {
+                pending.remove();
+                committedWrites.increment();
+                commit.getSink().success();
+            }
+        }
+    }
+
+    private static Coupon withId(final Coupon coupon, final long id) {
+        return Coupon.builder()
+                .id(id)
+                .code(coupon.getCode())
+                .discount(coupon.getDiscount())
+                .minBasketValue(coupon.getMinBasketValue())
+                .maxRedemptions(coupon.getMaxRedemptions())
+                .discountBudget(coupon.getDiscountBudget())
+                .redemptions(coupon.getRedemptions())
+                .redeemedDiscount(coupon.getRedeemedDiscount())
+                .build();
+    }
+
+    private static Path compactionPath(final Path path) {
+        return path.resolveSibling(path.getFileName() + ".compact");
+    }
+
+    private static void syncDirectory(final Path path) {
+        Path directory = path.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ex) {
+            // not every platform can sync a directory; the rename itself is still atomic
+            log.debug("Could not sync journal directory {}", directory, ex);
+        }
+    }
+
+    /**
+     * The journal file with its index; {@code offset} is the logical position of the first byte of the file.
+     */
+    @Value
+    private static class Segment {
+
+        CouponJournal journal;
+
+        JournalIndex index;
+
+        long offset;
+
+    }
+
+    @Value
+    private static class PendingCommit {
+
+        long end;
+
+        MonoSink<Void> sink;
+
+    }
+
+}
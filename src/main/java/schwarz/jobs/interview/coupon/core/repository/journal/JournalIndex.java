@@ -0,0 +1,96 @@
+package schwarz.jobs.interview.coupon.core.repository.journal;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * Open-addressing map from packed coupon code to the journal position of the code's latest record, stored as
+ * interleaved key/position pairs in one {@code long[]}. Writers must be serialized; readers take no lock and only
+ * see a pair once its position has been published.
+ */
+final class JournalIndex {
+
+    static final long ABSENT = -1;
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    private volatile long[] table = new long[INITIAL_CAPACITY * 2];
+
+    private int size;
+
+    long get(final long packed) {
+        long[] pairs = table;
+        int mask = pairs.length / 2 - 1;
+        long key = packed + 1;
+
+        for (int slot = slot(packed, mask); ; slot = (slot + 1) & mask) {
+            long stored = (long) LONGS.getAcquire(pairs, slot * 2);
+            if (stored == 0) {
+                return ABSENT;
+            }
+            if (stored == key) {
+                return (long) LONGS.getAcquire(pairs, slot * 2 + 1);
+            }
+        }
+    }
+
+    void put(final long packed, final long position) {
+        if ((size + 1) * 2L > table.length / 2) {
+            table = resized(table);
+        }
+        if (insert(table, packed + 1, position)) {
+            size++;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Positions of the latest record of every code, read from the table as it is when the stream starts.
+     */
+    LongStream positions() {
+        long[] pairs = table;
+        return IntStream.range(0, pairs.length / 2)
+                .filter(slot -> (long) LONGS.getAcquire(pairs, slot * 2) != 0)
+                .mapToLong(slot -> (long) LONGS.getAcquire(pairs, slot * 2 + 1));
+    }
+
+    private static boolean insert(final long[] pairs, final long key, final long position) {
+        int mask = pairs.length / 2 - 1;
+
+        for (int slot = slot(key - 1, mask); ; slot = (slot + 1) & mask) {
+            long stored = (long) LONGS.get(pairs, slot * 2);
+            if (stored == key) {
+                LONGS.setRelease(pairs, slot * 2 + 1, position);
+                return false;
+            }
+            if (stored == 0) {
+                LONGS.setRelease(pairs, slot * 2 + 1, position);
+                LONGS.setRelease(pairs, slot * 2, key);
+                return true;
+            }
+        }
+    }
+
+    private static long[] resized(final long[] pairs) {
+        long[] grown = new long[pairs.length * 2];
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (pairs[i] != 0) {
+                insert(grown, pairs[i], pairs[i + 1]);
+            }
+        }
+        return grown;
+    }
+
+    private static int slot(final long packed, final int mask) {
+        long h = packed * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+}
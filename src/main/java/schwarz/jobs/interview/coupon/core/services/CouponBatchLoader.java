@@ -0,0 +1,139 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import schwarz.jobs.interview.coupon.configuration.CouponBatchingProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Collects single-code lookups issued within a short window (or until the batch is full) and resolves them
+ * with one {@code findByCodeIn} query, fanning the results back out to every waiting caller. Callers hand their
+ * lookup to a {@link FluxSink}, which queues concurrent submissions and lets one of them drain the queue, so no
+ * caller ever spins on the event loop waiting for another.
+ */
+@Slf4j
+@Component
+public class CouponBatchLoader implements DisposableBean {
+
+    private final CouponStore couponStore;
+
+    private final CouponBatchingProperties properties;
+
+    private final Disposable pipeline;
+
+    private volatile FluxSink<PendingLookup> pending;
+
+    private final LongAdder lookups = new LongAdder();
+
+    private final LongAdder queries = new LongAdder();
+
+    public CouponBatchLoader(final CouponStore couponStore,
+                             final CouponBatchingProperties properties,
+                             final MeterRegistry meterRegistry) {
+        this.couponStore = couponStore;
+        this.properties = properties;
+        this.pipeline = properties.isEnabled() ? start() : Disposables.disposed();
+
+        FunctionCounter.builder("coupon.batch.lookups", lookups, LongAdder::doubleValue)
+                .description("Coupon lookups resolved through the batch loader")
+                .register(meterRegistry);
+        FunctionCounter.builder("coupon.batch.queries", queries, LongAdder::doubleValue)
+                .description("findByCodeIn queries issued by the batch loader")
+                .register(meterRegistry);
+    }
+
+    public Mono<Coupon> load(final String code) {
+        if (!properties.isEnabled()) {
+            return couponStore.findByCode(code);
+        }
+
+        return Mono.defer(() -> {
+            if (pending.isCancelled()) {
+                return couponStore.findByCode(code);
+            }
+            Sinks.One<Coupon> result = Sinks.one();
+            pending.next(new PendingLookup(code, result));
+            return result.asMono().timeout(properties.getTimeout());
+        });
+    }
+
+    public long lookups() {
+        return lookups.sum();
+    }
+
+    public long queries() {
+        return queries.sum();
+    }
+
+    private Disposable start() {
+        // the sink is handed over on subscription, which happens right here
+        return Flux.<PendingLookup>create(sink -> pending = sink)
+                .bufferTimeout(properties.getMaxBatchSize(), properties.getWindow())
+                .onBackpressureBuffer()
+                .flatMap(this::resolve, properties.getMaxConcurrentBatches())
+                .subscribe();
+    }
+
+    private Mono<Void> resolve(final List<PendingLookup> batch) {
+        List<String> codes = batch.stream()
+                .map(PendingLookup::getCode)
+                .distinct()
+                .collect(Collectors.toList());
+
+        lookups.add(batch.size());
+        queries.increment();
+
+        return couponStore.findByCodeIn(codes)
+                .collectMap(Coupon::getCode)
+                .doOnNext(found -> batch.forEach(lookup -> lookup.complete(found)))
+                .doOnError(error -> {
+                    log.warn("Batched lookup of {} coupon codes failed", codes.size(), error);
+                    batch.forEach(lookup -> lookup.getResult().tryEmitError(error));
+                })
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    @Override
+    public void destroy() {
+        if (pending != null) {
+            pending.complete();
+        }
+        pipeline.dispose();
+    }
+
+    @Value
+    private static class PendingLookup {
+
+        String code;
+
+        Sinks.One<Coupon> result;
+
+        void complete(final Map<String, Coupon> found) {
+            Coupon coupon = found.get(code);
+            if (coupon != null) {
+                result.tryEmitValue(coupon);
+            } else {
+                result.tryEmitEmpty();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,155 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponBulkProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.exception.CouponRedemptionLimitReachedException;
+import schwarz.jobs.interview.coupon.core.exception.InsufficientBasketValueException;
+import schwarz.jobs.interview.coupon.core.exception.InvalidDiscountException;
+import schwarz.jobs.interview.coupon.core.metrics.CouponOutcome;
+import schwarz.jobs.interview.coupon.core.metrics.CouponOutcomeMetrics;
+import schwarz.jobs.interview.coupon.web.dto.ApplicationRequestDTO;
+import schwarz.jobs.interview.coupon.web.dto.ApplicationResultDTO;
+import schwarz.jobs.interview.coupon.web.errors.BaseError;
+import schwarz.jobs.interview.coupon.web.errors.ConflictError;
+import schwarz.jobs.interview.coupon.web.errors.NotFoundError;
+import schwarz.jobs.interview.coupon.web.errors.TooManyRequestsError;
+import schwarz.jobs.interview.coupon.web.errors.UnprocessableEntityError;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.COUPON_CODE_NOT_EXISTS;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.INSUFFICIENT_BASKET_VALUE;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.INVALID_DISCOUNT;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.MESSAGE_UNAVAILABLE;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.RATE_LIMIT_EXCEEDED;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.REDEMPTION_LIMIT_REACHED;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.VALIDATION_ERROR;
+
+@Service
+@RequiredArgsConstructor
+public class CouponBulkService {
+
+    private final CouponService couponService;
+
+    private final Validator validator;
+
+    private final CouponBulkProperties properties;
+
+    private final CouponOutcomeMetrics outcomeMetrics;
+
+    /**
+     * Applies every request of the stream, resolving the distinct codes of each batch with a single lookup.
+     * One result is emitted per request, in request order; item failures are reported inline. Every item is counted
+     * under the same outcome as on the single apply endpoint.
+     */
+    public Flux<ApplicationResultDTO> applyCoupons(final Flux<ApplicationRequestDTO> requests) {
+        return applyCoupons(requests, () -> true);
+    }
+
+    /**
+     * Same as {@link #applyCoupons(Flux)}, asking {@code admission} for every item first; items it refuses are
+     * reported as 429 without being looked up.
+     */
+    public Flux<ApplicationResultDTO> applyCoupons(final Flux<ApplicationRequestDTO> requests,
+                                                   final BooleanSupplier admission) {
+        return requests
+                .buffer(properties.getBatchSize())
+                .concatMap(batch -> applyBatch(batch, admission), 1);
+    }
+
+    private Flux<ApplicationResultDTO> applyBatch(final List<ApplicationRequestDTO> batch, final BooleanSupplier admission) {
+        boolean[] admitted = new boolean[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            admitted[i] = admission.getAsBoolean();
+        }
+
+        List<Set<ConstraintViolation<ApplicationRequestDTO>>> violations = batch.stream()
+                .map(request -> validator.validate(request))
+                .collect(Collectors.toList());
+
+        Set<String> codes = IntStream.range(0, batch.size())
+                .filter(index -> admitted[index] && violations.get(index).isEmpty())
+                .mapToObj(index -> batch.get(index).getCode())
+                .collect(Collectors.toSet());
+
+        return couponService.getCouponsByCode(codes)
+                .flatMapMany(coupons -> Flux.range(0, batch.size())
+                        .concatMap(index -> applyItem(batch.get(index), admitted[index], violations.get(index), coupons)));
+    }
+
+    private Mono<ApplicationResultDTO> applyItem(final ApplicationRequestDTO request,
+                                                 final boolean admitted,
+                                                 final Set<ConstraintViolation<ApplicationRequestDTO>> violations,
+                                                 final Map<String, Coupon> coupons) {
+        if (!admitted) {
+            return Mono.just(failure(request, HttpStatus.TOO_MANY_REQUESTS, CouponOutcome.RATE_LIMITED,
+                    TooManyRequestsError.builder().message(RATE_LIMIT_EXCEEDED).build()));
+        }
+
+        if (!violations.isEmpty()) {
+            return Mono.just(invalid(request, violations));
+        }
+
+        Coupon coupon = coupons.get(request.getCode());
+        if (coupon == null) {
+            return Mono.just(failure(request, HttpStatus.NOT_FOUND, CouponOutcome.NOT_FOUND,
+                    NotFoundError.builder().message(COUPON_CODE_NOT_EXISTS).build()));
+        }
+
+        return couponService.applyCoupon(coupon, request.getBasket())
+                .map(basket -> {
+                    outcomeMetrics.record(CouponOutcome.APPLIED);
+                    return ApplicationResultDTO.builder()
+                            .code(request.getCode())
+                            .status(HttpStatus.OK.value())
+                            .basket(basket)
+                            .build();
+                })
+                .onErrorResume(InsufficientBasketValueException.class, ex -> Mono.just(failure(request, HttpStatus.CONFLICT,
+                        CouponOutcome.INSUFFICIENT_BASKET_VALUE, ConflictError.builder().message(INSUFFICIENT_BASKET_VALUE).build())))
+                .onErrorResume(InvalidDiscountException.class, ex -> Mono.just(failure(request, HttpStatus.CONFLICT,
+                        CouponOutcome.INVALID_DISCOUNT, ConflictError.builder().message(INVALID_DISCOUNT).build())))
+                .onErrorResume(CouponRedemptionLimitReachedException.class, ex -> Mono.just(failure(request, HttpStatus.CONFLICT,
+                        CouponOutcome.REDEMPTION_LIMIT_REACHED, ConflictError.builder().message(REDEMPTION_LIMIT_REACHED).build())));
+    }
+
+    private ApplicationResultDTO invalid(final ApplicationRequestDTO request,
+                                         final Set<ConstraintViolation<ApplicationRequestDTO>> violations) {
+
+        Map<String, String> errors = violations.stream()
+                .collect(Collectors.toMap(
+                        violation -> violation.getPropertyPath().toString(),
+                        violation -> Optional.ofNullable(violation.getMessage()).orElse(MESSAGE_UNAVAILABLE),
+                        (existing, replacement) -> existing
+                ));
+
+        return failure(request, HttpStatus.UNPROCESSABLE_ENTITY, CouponOutcome.VALIDATION_FAILED, UnprocessableEntityError.builder()
+                .message(VALIDATION_ERROR)
+                .errors(errors)
+                .build());
+    }
+
+    private ApplicationResultDTO failure(final ApplicationRequestDTO request, final HttpStatus status,
+                                         final CouponOutcome outcome, final BaseError error) {
+        outcomeMetrics.record(outcome);
+        return ApplicationResultDTO.builder()
+                .code(request.getCode())
+                .status(status.value())
+                .error(error)
+                .build();
+    }
+
+}
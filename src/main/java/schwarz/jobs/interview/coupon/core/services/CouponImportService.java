@@ -0,0 +1,245 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.Parameter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponImportProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponStorageProperties;
+import schwarz.jobs.interview.coupon.core.cache.CouponCodeFilter;
+import schwarz.jobs.interview.coupon.core.cache.CouponEligibilityIndex;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.mapper.CouponCsvMapper;
+import schwarz.jobs.interview.coupon.core.models.CouponImportRow;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+import schwarz.jobs.interview.coupon.core.repository.DuplicateKeyErrors;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+import schwarz.jobs.interview.coupon.web.dto.ImportResultDTO;
+import schwarz.jobs.interview.coupon.web.errors.ConflictError;
+import schwarz.jobs.interview.coupon.web.errors.UnprocessableEntityError;
+
+import javax.validation.Validator;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.COUPON_CODE_ALREADY_EXISTS;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.MESSAGE_UNAVAILABLE;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.VALIDATION_ERROR;
+
+@Service
+@RequiredArgsConstructor
+public class CouponImportService {
+
+    private static final String INSERT_COUPON = "INSERT INTO COUPONS (CODE, DISCOUNT, MIN_BASKET_VALUE, MAX_REDEMPTIONS, DISCOUNT_BUDGET) "
+            + "VALUES ($1, $2, $3, $4, $5)";
+
+    private final CouponStore couponStore;
+
+    private final CouponCodeFilter codeFilter;
+
+    private final CouponCsvMapper csvMapper;
+
+    private final DatabaseClient databaseClient;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final Validator validator;
+
+    private final CouponImportProperties properties;
+
+    private final CouponStorageProperties storageProperties;
+
+    private final CouponEligibilityIndex eligibilityIndex;
+
+    public Flux<ImportResultDTO> importCsv(final Flux<String> lines) {
+        return importRows(lines
+                .index()
+                .filter(line -> !line.getT2().isBlank() && !csvMapper.isHeader(line.getT2()))
+                .map(line -> {
+                    Map<String, String> errors = new LinkedHashMap<>();
+                    CouponDTO coupon = csvMapper.toDto(line.getT2(), errors);
+                    return toRow(line.getT1() + 1, coupon, errors);
+                }));
+    }
+
+    public Flux<ImportResultDTO> importCoupons(final Flux<CouponDTO> coupons) {
+        return importRows(coupons.index((index, coupon) -> toRow(index + 1, coupon, new LinkedHashMap<>())));
+    }
+
+    /**
+     * Rows are handled one chunk at a time, so at most one chunk is held in memory whatever the upload size.
+     * Each chunk costs one existence query and one batched insert.
+     */
+    private Flux<ImportResultDTO> importRows(final Flux<CouponImportRow> rows) {
+        return rows
+                .buffer(properties.getChunkSize())
+                .concatMap(this::importChunk, 1);
+    }
+
+    private CouponImportRow toRow(final long row, final CouponDTO coupon, final Map<String, String> errors) {
+        if (errors.isEmpty()) {
+            validator.validate(coupon).forEach(violation -> errors.putIfAbsent(
+                    violation.getPropertyPath().toString(),
+                    Optional.ofNullable(violation.getMessage()).orElse(MESSAGE_UNAVAILABLE)));
+        }
+        return CouponImportRow.builder()
+                .row(row)
+                .coupon(coupon)
+                .errors(errors)
+                .build();
+    }
+
+    private Flux<ImportResultDTO> importChunk(final List<CouponImportRow> chunk) {
+        Set<String> seen = new HashSet<>();
+        List<CouponImportRow> candidates = new ArrayList<>();
+        for (CouponImportRow row : chunk) {
+            if (row.isValid() && seen.add(row.getCoupon().getCode())) {
+                candidates.add(row);
+            }
+        }
+
+        List<String> possiblyExisting = candidates.stream()
+                .map(row -> row.getCoupon().getCode())
+                .filter(codeFilter::mightContain)
+                .collect(Collectors.toList());
+
+        Mono<Set<String>> existing = possiblyExisting.isEmpty()
+                ? Mono.just(Set.of())
+                : couponStore.findByCodeIn(possiblyExisting).map(Coupon::getCode).collect(Collectors.toSet());
+
+        return existing
+                .flatMap(existingCodes -> {
+                    List<CouponDTO> inserts = candidates.stream()
+                            .map(CouponImportRow::getCoupon)
+                            .filter(coupon -> !existingCodes.contains(coupon.getCode()))
+                            .collect(Collectors.toList());
+                    Mono<Set<String>> inserted = storageProperties.isJournal() ? save(inserts) : insert(inserts);
+                    return inserted.map(created -> {
+                        created.forEach(codeFilter::put);
+                        inserts.stream()
+                                .filter(coupon -> created.contains(coupon.getCode()))
+                                .forEach(coupon -> eligibilityIndex.add(toCoupon(coupon)));
+                        return created;
+                    });
+                })
+                .flatMapMany(created -> Flux.fromIterable(chunk).map(row -> toResult(row, created)));
+    }
+
+    /**
+     * Inserts the coupons as one batched statement in a transaction. If a concurrent writer took one of the codes,
+     * the batch rolls back and the rows are retried one by one so only the colliding rows end up as duplicates.
+     */
+    private Mono<Set<String>> insert(final List<CouponDTO> coupons) {
+        if (coupons.isEmpty()) {
+            return Mono.just(new HashSet<>());
+        }
+
+        Set<String> codes = coupons.stream().map(CouponDTO::getCode).collect(Collectors.toSet());
+
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT_COUPON);
+                    for (int i = 0; i < coupons.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        bind(statement, coupons.get(i));
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                })
+                .then(Mono.just(codes))
+                .as(transactionalOperator::transactional)
+                .onErrorResume(DuplicateKeyErrors::isDuplicateKey, ex -> insertOneByOne(coupons));
+    }
+
+    /**
+     * Saves the coupons through the repository concurrently, so the journal syncs the whole chunk at once.
+     */
+    private Mono<Set<String>> save(final List<CouponDTO> coupons) {
+        return Flux.fromIterable(coupons)
+                .flatMap(coupon -> couponStore.save(toCoupon(coupon))
+                        .map(Coupon::getCode)
+                        .onErrorResume(DuplicateKeyErrors::isDuplicateKey, ex -> Mono.empty()), properties.getChunkSize())
+                .collect(Collectors.toSet());
+    }
+
+    private static Coupon toCoupon(final CouponDTO coupon) {
+        return Coupon.builder()
+                .code(coupon.getCode())
+                .discount(coupon.getDiscount())
+                .minBasketValue(coupon.getMinBasketValue())
+                .maxRedemptions(coupon.getMaxRedemptions())
+                .discountBudget(coupon.getDiscountBudget())
+                .build();
+    }
+
+    private Mono<Set<String>> insertOneByOne(final List<CouponDTO> coupons) {
+        return Flux.fromIterable(coupons)
+                .concatMap(coupon -> databaseClient.sql(INSERT_COUPON)
+                        .bind(0, coupon.getCode())
+                        .bind(1, coupon.getDiscount())
+                        .bind(2, coupon.getMinBasketValue())
+                        .bind(3, Parameter.fromOrEmpty(coupon.getMaxRedemptions(), Integer.class))
+                        .bind(4, Parameter.fromOrEmpty(coupon.getDiscountBudget(), BigDecimal.class))
+                        .fetch()
+                        .rowsUpdated()
+                        .map(updated -> Optional.of(coupon.getCode()))
+                        .onErrorResume(DuplicateKeyErrors::isDuplicateKey, ex -> Mono.just(Optional.empty())))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(Collectors.toSet());
+    }
+
+    // bound by name: r2dbc-h2 only clears its pending add() marker on named binds
+    private void bind(final Statement statement, final CouponDTO coupon) {
+        statement.bind("$1", coupon.getCode())
+                .bind("$2", coupon.getDiscount())
+                .bind("$3", coupon.getMinBasketValue());
+        bindNullable(statement, "$4", coupon.getMaxRedemptions(), Integer.class);
+        bindNullable(statement, "$5", coupon.getDiscountBudget(), BigDecimal.class);
+    }
+
+    private static void bindNullable(final Statement statement, final String name, final Object value, final Class<?> type) {
+        if (value == null) {
+            statement.bindNull(name, type);
+        } else {
+            statement.bind(name, value);
+        }
+    }
+
+    private ImportResultDTO toResult(final CouponImportRow row, final Set<String> created) {
+        ImportResultDTO.ImportResultDTOBuilder result = ImportResultDTO.builder()
+                .row(row.getRow())
+                .code(row.getCoupon().getCode());
+
+        if (!row.isValid()) {
+            return result.result(ImportResultDTO.Result.INVALID)
+                    .error(UnprocessableEntityError.builder()
+                            .message(VALIDATION_ERROR)
+                            .errors(row.getErrors())
+                            .build())
+                    .build();
+        }
+
+        // a code is reported as created only for its first row in the chunk
+        if (created.remove(row.getCoupon().getCode())) {
+            return result.result(ImportResultDTO.Result.CREATED).build();
+        }
+
+        return result.result(ImportResultDTO.Result.DUPLICATE)
+                .error(ConflictError.builder().message(COUPON_CODE_ALREADY_EXISTS).build())
+                .build();
+    }
+
+}
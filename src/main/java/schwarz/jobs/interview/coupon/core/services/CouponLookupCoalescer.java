@@ -0,0 +1,76 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Single-flight de-duplication of coupon lookups: concurrent callers asking for the same code share one
+ * pending lookup. The shared result is only replayed to callers that joined before it completed; any later
+ * caller, including after an error or an empty result, triggers a fresh lookup.
+ */
+@Component
+public class CouponLookupCoalescer implements MeterBinder {
+
+    private final Map<String, Mono<Coupon>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder lookups = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    public Mono<Coupon> coalesce(final String code, final Function<String, Mono<Coupon>> lookup) {
+        return Mono.defer(() -> {
+            AtomicReference<Mono<Coupon>> created = new AtomicReference<>();
+            Mono<Coupon> pending = inFlight.computeIfAbsent(code, key -> {
+                created.set(share(key, lookup.apply(key)));
+                return created.get();
+            });
+
+            if (created.get() == null) {
+                coalesced.increment();
+            } else {
+                lookups.increment();
+            }
+
+            return pending;
+        });
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+
+    private Mono<Coupon> share(final String code, final Mono<Coupon> lookup) {
+        AtomicReference<Mono<Coupon>> self = new AtomicReference<>();
+        Mono<Coupon> shared = lookup
+                .doOnTerminate(() -> inFlight.remove(code, self.get()))
+                .cache(coupon -> Duration.ZERO, error -> Duration.ZERO, () -> Duration.ZERO);
+        self.set(shared);
+        return shared;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("coupon.lookup.inflight", this, CouponLookupCoalescer::inFlight)
+                .description("Distinct coupon codes with a lookup currently in flight")
+                .register(registry);
+        FunctionCounter.builder("coupon.lookup.started", lookups, LongAdder::doubleValue)
+                .description("Lookups that reached the underlying loader")
+                .register(registry);
+        FunctionCounter.builder("coupon.lookup.coalesced", coalesced, LongAdder::doubleValue)
+                .description("Lookups that joined an in-flight lookup for the same code")
+                .register(registry);
+    }
+
+}
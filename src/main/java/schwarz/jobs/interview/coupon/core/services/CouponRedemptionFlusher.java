@@ -0,0 +1,91 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+import schwarz.jobs.interview.coupon.configuration.CouponRedemptionProperties;
+import schwarz.jobs.interview.coupon.core.models.RedemptionDelta;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Periodically writes the redemptions granted by {@link CouponRedemptionLimiter} to the {@link CouponStore} as
+ * batched increments. When a batch fails or the flush is cancelled, every delta not yet written is handed back to
+ * the limiter and retried on the next tick. On shutdown the running flush is allowed to finish before whatever is
+ * still pending is written once more.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CouponRedemptionFlusher implements DisposableBean {
+
+    private final CouponRedemptionLimiter redemptionLimiter;
+
+    // injected rather than looked up, so the store outlives the flush on shutdown
+    private final CouponStore couponStore;
+
+    private final CouponRedemptionProperties properties;
+
+    private final Sinks.Empty<Void> shutdown = Sinks.empty();
+
+    private volatile Mono<Void> scheduledFlush = Mono.empty();
+
+    /**
+     * Drains the pending redemptions and emits how many coupons were updated.
+     */
+    public Mono<Long> flush() {
+        return Mono.defer(() -> {
+            List<RedemptionDelta> deltas = redemptionLimiter.drain();
+            AtomicInteger written = new AtomicInteger();
+            return Flux.fromIterable(deltas)
+                    .buffer(properties.getFlushBatchSize())
+                    .concatMap(batch -> couponStore.addRedemptions(batch)
+                            .doOnSuccess(updated -> written.addAndGet(batch.size())))
+                    .reduce(0L, Long::sum)
+                    .doFinally(signal -> {
+                        if (signal != SignalType.ON_COMPLETE) {
+                            redemptionLimiter.restore(deltas.subList(written.get(), deltas.size()));
+                        }
+                    });
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // stopping the ticks completes the running flush instead of cancelling it mid-batch
+        scheduledFlush = Flux.interval(properties.getFlushInterval())
+                .onBackpressureDrop()
+                .takeUntilOther(shutdown.asMono())
+                .concatMap(tick -> flush()
+                        .onErrorResume(ex -> {
+                            log.warn("Coupon redemption flush failed, retrying on the next tick", ex);
+                            return Mono.empty();
+                        }))
+                .then()
+                .cache();
+        scheduledFlush.subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        shutdown.tryEmitEmpty();
+        Long updated = scheduledFlush.then(flush())
+                .onErrorResume(ex -> {
+                    log.error("Coupon redemption flush on shutdown failed, {} redemptions not persisted",
+                            redemptionLimiter.pending(), ex);
+                    return Mono.empty();
+                })
+                .block(properties.getShutdownTimeout());
+        log.info("Flushed pending redemptions of {} coupons on shutdown", updated);
+    }
+
+}
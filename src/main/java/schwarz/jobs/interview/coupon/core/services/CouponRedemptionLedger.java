@@ -0,0 +1,148 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import schwarz.jobs.interview.coupon.configuration.CouponLedgerProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponLedgerProperties.OverflowPolicy;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.Basket;
+import schwarz.jobs.interview.coupon.core.models.RedemptionEntry;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer of applied coupons. Recording only enqueues: a lock-free queue whose capacity is enforced
+ * by a compare-and-set slot counter, so the request path never blocks or waits for the database. When the buffer
+ * is full the configured {@link OverflowPolicy} decides which entry is dropped; drops are counted. Entries are taken
+ * off in batches by {@link CouponRedemptionLedgerWriter}.
+ */
+@Component
+public class CouponRedemptionLedger implements MeterBinder {
+
+    private final CouponLedgerProperties properties;
+
+    private final Queue<RedemptionEntry> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+
+    private final Sinks.Many<Integer> batchReady = Sinks.many().multicast().directBestEffort();
+
+    private final LongAdder recorded = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    public CouponRedemptionLedger(final CouponLedgerProperties properties) {
+        this.properties = properties;
+    }
+
+    public void record(final Coupon coupon, final Basket basket) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        RedemptionEntry entry = RedemptionEntry.builder()
+                .code(coupon.getCode())
+                .basketValueCents(basket.getValue())
+                .discountCents(coupon.getDiscountCents())
+                .redeemedAt(Instant.now())
+                .build();
+
+        if (!enqueue(entry)) {
+            dropped.increment();
+            return;
+        }
+        recorded.increment();
+
+        int queued = size.get();
+        if (queued >= properties.getBatchSize() && wakeupPending.compareAndSet(false, true)) {
+            batchReady.tryEmitNext(queued);
+        }
+    }
+
+    /**
+     * Takes up to {@code maxEntries} entries, oldest first.
+     */
+    public List<RedemptionEntry> poll(final int maxEntries) {
+        wakeupPending.set(false);
+
+        List<RedemptionEntry> batch = new ArrayList<>(Math.min(maxEntries, size.get()));
+        RedemptionEntry entry;
+        while (batch.size() < maxEntries && (entry = queue.poll()) != null) {
+            size.decrementAndGet();
+            batch.add(entry);
+        }
+        return batch;
+    }
+
+    /**
+     * Signals whenever a full batch has accumulated since the last {@link #poll(int)}.
+     */
+    public Flux<Integer> batchReady() {
+        return batchReady.asFlux();
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private boolean enqueue(final RedemptionEntry entry) {
+        while (true) {
+            if (reserveSlot()) {
+                queue.offer(entry);
+                return true;
+            }
+            if (properties.getOverflowPolicy() == OverflowPolicy.DROP_NEWEST) {
+                return false;
+            }
+            // DROP_OLDEST: the evicted entry's slot is handed over to the new one
+            if (queue.poll() != null) {
+                dropped.increment();
+                queue.offer(entry);
+                return true;
+            }
+        }
+    }
+
+    private boolean reserveSlot() {
+        int current;
+        do {
+            current = size.get();
+            if (current >= properties.getCapacity()) {
+                return false;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("coupon.ledger.queued", this, CouponRedemptionLedger::size)
+                .description("Redemption entries waiting to be written")
+                .register(registry);
+        FunctionCounter.builder("coupon.ledger.recorded", recorded, LongAdder::doubleValue)
+                .description("Redemption entries accepted into the write-behind queue")
+                .register(registry);
+        FunctionCounter.builder("coupon.ledger.dropped", dropped, LongAdder::doubleValue)
+                .description("Redemption entries discarded by the overflow policy")
+                .register(registry);
+    }
+
+}
@@ -0,0 +1,157 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.retry.Retry;
+import schwarz.jobs.interview.coupon.configuration.CouponLedgerProperties;
+import schwarz.jobs.interview.coupon.core.models.Money;
+import schwarz.jobs.interview.coupon.core.models.RedemptionEntry;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Background worker of the redemption ledger: every flush interval, or as soon as a full batch is queued, drains
+ * {@link CouponRedemptionLedger} with one multi-row INSERT per batch. A batch that still fails after a few retries
+ * is logged and counted as failed. On shutdown the running batch is allowed to finish and the queue is drained once
+ * more, bounded by the shutdown timeout; entries abandoned at the timeout are counted as failed too.
+ */
+@Slf4j
+@Component
+public class CouponRedemptionLedgerWriter implements DisposableBean {
+
+    private static final String INSERT_REDEMPTIONS = "INSERT INTO COUPON_REDEMPTIONS (CODE, BASKET_VALUE, DISCOUNT, REDEEMED_AT) VALUES ";
+
+    private static final int COLUMNS = 4;
+
+    private static final int MAX_RETRIES = 3;
+
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(100);
+
+    private final CouponRedemptionLedger ledger;
+
+    private final DatabaseClient databaseClient;
+
+    private final CouponLedgerProperties properties;
+
+    private final Sinks.Empty<Void> shutdown = Sinks.empty();
+
+    private volatile Mono<Void> scheduledFlush = Mono.empty();
+
+    private final Counter written;
+
+    private final Counter failed;
+
+    public CouponRedemptionLedgerWriter(final CouponRedemptionLedger ledger,
+                                        final DatabaseClient databaseClient,
+                                        final CouponLedgerProperties properties,
+                                        final MeterRegistry meterRegistry) {
+        this.ledger = ledger;
+        this.databaseClient = databaseClient;
+        this.properties = properties;
+        this.written = Counter.builder("coupon.ledger.written")
+                .description("Redemption entries inserted into the ledger table")
+                .register(meterRegistry);
+        this.failed = Counter.builder("coupon.ledger.failed")
+                .description("Redemption entries lost because their batch could not be inserted or was abandoned")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Writes batches until the queue is empty and emits the number of entries inserted.
+     */
+    public Mono<Long> flush() {
+        return nextBatch()
+                .expand(inserted -> nextBatch())
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> nextBatch() {
+        return Mono.defer(() -> {
+            List<RedemptionEntry> batch = ledger.poll(properties.getBatchSize());
+            return batch.isEmpty() ? Mono.empty() : insert(batch);
+        });
+    }
+
+    private Mono<Long> insert(final List<RedemptionEntry> batch) {
+        return Mono.defer(() -> {
+                    DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(insertSql(batch.size()));
+                    for (int i = 0; i < batch.size(); i++) {
+                        RedemptionEntry entry = batch.get(i);
+                        int offset = i * COLUMNS;
+                        spec = spec.bind(offset, entry.getCode())
+                                .bind(offset + 1, Money.toBigDecimal(entry.getBasketValueCents()))
+                                .bind(offset + 2, Money.toBigDecimal(entry.getDiscountCents()))
+                                .bind(offset + 3, entry.getRedeemedAt().atOffset(ZoneOffset.UTC));
+                    }
+                    return spec.fetch().rowsUpdated();
+                })
+                .map(Integer::longValue)
+                .retryWhen(Retry.backoff(MAX_RETRIES, RETRY_BACKOFF))
+                .doOnNext(written::increment)
+                .onErrorResume(ex -> {
+                    failed.increment(batch.size());
+                    log.error("Could not write {} redemption ledger entries", batch.size(), ex);
+                    return Mono.just(0L);
+                })
+                .doOnCancel(() -> {
+                    failed.increment(batch.size());
+                    log.error("Abandoned {} redemption ledger entries while they were being written", batch.size());
+                });
+    }
+
+    private static String insertSql(final int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_REDEMPTIONS);
+        for (int row = 0; row < rows; row++) {
+            sql.append(row == 0 ? "(" : ", (");
+            for (int column = 1; column <= COLUMNS; column++) {
+                sql.append(column == 1 ? "$" : ", $").append(row * COLUMNS + column);
+            }
+            sql.append(')');
+        }
+        return sql.toString();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        // stopping the signals completes the running flush instead of cancelling it mid-insert
+        scheduledFlush = Flux.merge(Flux.interval(properties.getFlushInterval()), ledger.batchReady())
+                .onBackpressureDrop()
+                .takeUntilOther(shutdown.asMono())
+                .concatMap(signal -> flush(), 1)
+                .then()
+                .cache();
+        scheduledFlush.subscribe();
+    }
+
+    @Override
+    public void destroy() {
+        shutdown.tryEmitEmpty();
+        Long inserted = scheduledFlush.then(flush())
+                .timeout(properties.getShutdownTimeout(), Mono.empty())
+                .block();
+
+        int abandoned = ledger.poll(Integer.MAX_VALUE).size();
+        if (abandoned > 0) {
+            failed.increment(abandoned);
+            log.error("Redemption ledger not drained within {}, {} entries abandoned",
+                    properties.getShutdownTimeout(), abandoned);
+        }
+        log.info("Drained redemption ledger on shutdown, {} entries written", inserted);
+    }
+
+}
@@ -0,0 +1,187 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.Money;
+import schwarz.jobs.interview.coupon.core.models.RedemptionDelta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory reservations against the redemption limits of each coupon. Every limited coupon gets its own counters,
+ * advanced by compare-and-set only while the result stays within the limit, so a node can never grant more than
+ * {@code maxRedemptions} applications or more than {@code discountBudget} in total. Counters start from the
+ * persisted totals and are never evicted; granted redemptions accumulate as deltas until drained for persistence.
+ */
+@Component
+public class CouponRedemptionLimiter implements MeterBinder {
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final LongAdder granted = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    public boolean tryReserve(final Coupon coupon) {
+        if (!coupon.isRedemptionLimited()) {
+            return true;
+        }
+
+        Counter counter = counters.computeIfAbsent(coupon.getCode(), code -> new Counter(coupon));
+        if (counter.tryReserve(coupon.getDiscountCents())) {
+            granted.increment();
+            return true;
+        }
+
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Whether a reservation for the coupon would currently be granted, without taking one.
+     */
+    public boolean canReserve(final Coupon coupon) {
+        if (!coupon.isRedemptionLimited()) {
+            return true;
+        }
+
+        Counter counter = counters.get(coupon.getCode());
+        return (counter != null ? counter : new Counter(coupon)).canReserve(coupon.getDiscountCents());
+    }
+
+    /**
+     * Hands back a reservation taken by {@link #tryReserve(Coupon)} that ended up unused.
+     */
+    public void release(final Coupon coupon) {
+        if (!coupon.isRedemptionLimited()) {
+            return;
+        }
+
+        counters.get(coupon.getCode()).release(coupon.getDiscountCents());
+        granted.decrement();
+    }
+
+    public long redemptions(final String code) {
+        Counter counter = counters.get(code);
+        return counter != null ? counter.redemptions.get() : 0;
+    }
+
+    /**
+     * Takes the redemptions granted since the last drain. Each delta must either be persisted or handed back
+     * through {@link #restore(List)}.
+     */
+    public List<RedemptionDelta> drain() {
+        List<RedemptionDelta> deltas = new ArrayList<>();
+        counters.forEach((code, counter) -> {
+            long redemptions = counter.pendingRedemptions.getAndSet(0);
+            long discountCents = counter.pendingDiscountCents.getAndSet(0);
+            if (redemptions != 0 || discountCents != 0) {
+                deltas.add(RedemptionDelta.builder()
+                        .code(code)
+                        .redemptions(redemptions)
+                        .discountCents(discountCents)
+                        .build());
+            }
+        });
+        return deltas;
+    }
+
+    public void restore(final List<RedemptionDelta> deltas) {
+        deltas.forEach(delta -> {
+            Counter counter = counters.get(delta.getCode());
+            counter.pendingRedemptions.addAndGet(delta.getRedemptions());
+            counter.pendingDiscountCents.addAndGet(delta.getDiscountCents());
+        });
+    }
+
+    public long pending() {
+        return counters.values().stream()
+                .mapToLong(counter -> counter.pendingRedemptions.get())
+                .sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("coupon.redemption.pending", this, CouponRedemptionLimiter::pending)
+                .description("Granted redemptions not yet written to the database")
+                .register(registry);
+        FunctionCounter.builder("coupon.redemption.granted", granted, LongAdder::doubleValue)
+                .description("Applications of limited coupons that obtained a reservation")
+                .register(registry);
+        FunctionCounter.builder("coupon.redemption.rejected", rejected, LongAdder::doubleValue)
+                .description("Applications rejected because a redemption limit was reached")
+                .register(registry);
+    }
+
+    private static final class Counter {
+
+        private final long maxRedemptions;
+
+        private final long discountBudgetCents;
+
+        private final AtomicLong redemptions;
+
+        private final AtomicLong discountCents;
+
+        private final AtomicLong pendingRedemptions = new AtomicLong();
+
+        private final AtomicLong pendingDiscountCents = new AtomicLong();
+
+        private Counter(final Coupon coupon) {
+            this.maxRedemptions = coupon.getMaxRedemptions() != null ? coupon.getMaxRedemptions() : Long.MAX_VALUE;
+            this.discountBudgetCents = coupon.getDiscountBudget() != null
+                    ? Money.toCents(coupon.getDiscountBudget())
+                    : Long.MAX_VALUE;
+            this.redemptions = new AtomicLong(coupon.getRedemptions());
+            this.discountCents = new AtomicLong(Money.toCents(coupon.getRedeemedDiscount()));
+        }
+
+        private boolean tryReserve(final long discount) {
+            if (!reserve(redemptions, 1, maxRedemptions)) {
+                return false;
+            }
+            if (!reserve(discountCents, discount, discountBudgetCents)) {
+                redemptions.decrementAndGet();
+                return false;
+            }
+
+            pendingRedemptions.incrementAndGet();
+            pendingDiscountCents.addAndGet(discount);
+            return true;
+        }
+
+        private void release(final long discount) {
+            redemptions.decrementAndGet();
+            discountCents.addAndGet(-discount);
+            // may drop below zero when the reservation was drained already, the next delta then takes it back
+            pendingRedemptions.decrementAndGet();
+            pendingDiscountCents.addAndGet(-discount);
+        }
+
+        private boolean canReserve(final long discount) {
+            return redemptions.get() < maxRedemptions && discount <= discountBudgetCents - discountCents.get();
+        }
+
+        private static boolean reserve(final AtomicLong used, final long amount, final long limit) {
+            long current;
+            do {
+                current = used.get();
+                if (amount > limit - current) {
+                    return false;
+                }
+            } while (!used.compareAndSet(current, current + amount));
+            return true;
+        }
+
+    }
+
+}
@@ -4,34 +4,117 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponFilterProperties;
+import schwarz.jobs.interview.coupon.core.cache.CouponCache;
+import schwarz.jobs.interview.coupon.core.cache.CouponEligibilityIndex;
+import schwarz.jobs.interview.coupon.core.cache.CouponCodeFilter;
+import schwarz.jobs.interview.coupon.core.cache.OffHeapCouponIndex;
 import schwarz.jobs.interview.coupon.core.domain.Coupon;
 import schwarz.jobs.interview.coupon.core.exception.CouponCodeAlreadyExistsException;
 import schwarz.jobs.interview.coupon.core.exception.CouponNotFoundException;
+import schwarz.jobs.interview.coupon.core.exception.CouponRedemptionLimitReachedException;
 import schwarz.jobs.interview.coupon.core.exception.InsufficientBasketValueException;
 import schwarz.jobs.interview.coupon.core.exception.InvalidDiscountException;
 import schwarz.jobs.interview.coupon.core.mapper.BasketMapper;
 import schwarz.jobs.interview.coupon.core.mapper.CouponMapper;
 import schwarz.jobs.interview.coupon.core.models.Basket;
-import schwarz.jobs.interview.coupon.core.repository.CouponRepository;
+import schwarz.jobs.interview.coupon.core.models.Money;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+import schwarz.jobs.interview.coupon.core.repository.DuplicateKeyErrors;
 import schwarz.jobs.interview.coupon.web.dto.ApplicationRequestDTO;
 import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
 import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
 import schwarz.jobs.interview.coupon.web.dto.CouponRequestDTO;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CouponService {
 
-    private final CouponRepository couponRepository;
+    private final CouponStore couponStore;
 
     private final CouponMapper couponMapper;
 
     private final BasketMapper basketMapper;
 
+    private final OffHeapCouponIndex couponIndex;
+
+    private final CouponCache couponCache;
+
+    private final CouponLookupCoalescer lookupCoalescer;
+
+    private final CouponBatchLoader batchLoader;
+
+    private final CouponCodeFilter codeFilter;
+
+    private final CouponFilterProperties filterProperties;
+
+    private final CouponRedemptionLimiter redemptionLimiter;
+
+    private final CouponRedemptionLedger redemptionLedger;
+
+    private final CouponEligibilityIndex eligibilityIndex;
+
     public Mono<Coupon> getCoupon(final String code) {
-        return couponRepository.findByCode(code);
+        return Mono.defer(() -> {
+            Coupon indexed = couponIndex.get(code);
+            if (indexed != null) {
+                return Mono.just(indexed);
+            }
+
+            if (!codeFilter.mightContain(code)) {
+                return Mono.empty();
+            }
+
+            Coupon cached = couponCache.get(code);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return lookupCoalescer.coalesce(code, key -> batchLoader.load(key)
+                    .doOnNext(this::retain));
+        });
+    }
+
+    public Mono<CouponDTO> findCoupon(final String code) {
+        return getCoupon(code)
+                .switchIfEmpty(Mono.error(new CouponNotFoundException(code)))
+                .map(couponMapper::toDto);
+    }
+
+    public Mono<Map<String, Coupon>> getCouponsByCode(final Collection<String> codes) {
+        return Mono.defer(() -> {
+            Map<String, Coupon> coupons = new HashMap<>();
+            List<String> missing = new ArrayList<>();
+
+            for (String code : codes) {
+                Coupon cached = couponIndex.get(code);
+                if (cached == null) {
+                    cached = couponCache.get(code);
+                }
+                if (cached != null) {
+                    coupons.put(code, cached);
+                } else if (codeFilter.mightContain(code)) {
+                    missing.add(code);
+                }
+            }
+
+            if (missing.isEmpty()) {
+                return Mono.just(coupons);
+            }
+
+            return couponStore.findByCodeIn(missing)
+                    .doOnNext(this::retain)
+                    .collect(() -> coupons, (found, coupon) -> found.put(coupon.getCode(), coupon));
+        });
     }
 
     public Mono<BasketDTO> applyCoupon(final ApplicationRequestDTO requestDTO) {
@@ -40,53 +123,94 @@ public class CouponService {
 
         return getCoupon(couponCode)
                 .switchIfEmpty(Mono.error(new CouponNotFoundException(couponCode)))
-                .flatMap(coupon -> {
+                .flatMap(coupon -> applyDiscount(coupon, basket));
+    }
+
+    public Mono<BasketDTO> applyCoupon(final Coupon coupon, final BasketDTO basketDTO) {
+        return applyDiscount(coupon, basketMapper.toBasket(basketDTO));
+    }
+
+    private Mono<BasketDTO> applyDiscount(final Coupon coupon, final Basket basket) {
+        if (coupon.getMinBasketValueCents() > basket.getValue()) {
+            return Mono.error(new InsufficientBasketValueException(coupon.getMinBasketValue().toString()));
+        }
 
-                    if (coupon.getMinBasketValue().compareTo(basket.getValue()) > 0) {
-                        return Mono.error(new InsufficientBasketValueException(coupon.getMinBasketValue().toString()));
-                    }
+        final long totalDiscount = basket.getValue() - (coupon.getDiscountCents() + basket.getAppliedDiscount());
+        if (totalDiscount < 0) {
+            return Mono.error(new InvalidDiscountException(Money.toBigDecimal(totalDiscount).toString()));
+        }
 
-                    final BigDecimal totalDiscount = basket.getValue().subtract(coupon.getDiscount().add(basket.getAppliedDiscount()));
-                    if (BigDecimal.ZERO.compareTo(totalDiscount) > 0) {
-                        return Mono.error(new InvalidDiscountException(totalDiscount.toString()));
-                    }
+        // reserved last, so only an application that otherwise succeeds consumes a redemption
+        if (!redemptionLimiter.tryReserve(coupon)) {
+            return Mono.error(new CouponRedemptionLimitReachedException(coupon.getCode()));
+        }
 
-                    basket.applyDiscount(coupon.getDiscount());
+        basket.applyDiscount(coupon.getDiscountCents());
+        redemptionLedger.record(coupon, basket);
 
-                    return Mono.just(basketMapper.toDto(basket));
-                });
+        return Mono.just(basketMapper.toDto(basket));
     }
 
     public Mono<CouponDTO> createCoupon(final CouponDTO couponDTO) {
-        String couponCode = couponDTO.getCode();
-
-        return hasCoupon(couponCode)
-                .flatMap(exists -> {
-                    if (Boolean.TRUE.equals(exists)) {
-                        return Mono.error(new CouponCodeAlreadyExistsException(couponCode));
-                    } else {
-                        return saveCoupon(couponDTO, couponCode);
-                    }
-                })
+        Coupon newCoupon = Coupon.builder()
+                .code(couponDTO.getCode())
+                .discount(couponDTO.getDiscount())
+                .minBasketValue(couponDTO.getMinBasketValue())
+                .maxRedemptions(couponDTO.getMaxRedemptions())
+                .discountBudget(couponDTO.getDiscountBudget())
+                .build();
+
+        // a single INSERT; the unique index on CODE rejects duplicates, including concurrent ones
+        return couponStore.save(newCoupon)
+                .onErrorMap(DuplicateKeyErrors::isDuplicateKey,
+                        ex -> new CouponCodeAlreadyExistsException(couponDTO.getCode()))
+                .doOnNext(this::register)
                 .map(couponMapper::toDto);
     }
 
-    private Mono<Boolean> hasCoupon(String code) {
-        return couponRepository.existsCouponByCode(code);
+    private void register(final Coupon coupon) {
+        codeFilter.put(coupon.getCode());
+        eligibilityIndex.add(coupon);
+        retain(coupon);
     }
 
-    private Mono<Coupon> saveCoupon(CouponDTO couponDTO, String code) {
-        Coupon newCoupon = Coupon.builder()
-                .code(code)
-                .discount(couponDTO.getDiscount())
-                .minBasketValue(couponDTO.getMinBasketValue())
-                .build();
+    /**
+     * Returns the coupons {@link #applyCoupon} would currently accept for the basket, highest discount first.
+     */
+    public Flux<CouponDTO> recommendCoupons(final BasketDTO basketDTO, final int limit) {
+        return Flux.defer(() -> {
+            Basket basket = basketMapper.toBasket(basketDTO);
+            long maxDiscount = basket.getValue() - basket.getAppliedDiscount();
+
+            return Flux.fromIterable(eligibilityIndex.best(basket.getValue(), maxDiscount, limit,
+                    redemptionLimiter::canReserve));
+        }).map(couponMapper::toDto);
+    }
 
-        return couponRepository.save(newCoupon);
+    private void retain(final Coupon coupon) {
+        // the heap cache only keeps what the off-heap index refuses
+        if (!couponIndex.put(coupon)) {
+            couponCache.put(coupon);
+        }
     }
 
     public Flux<CouponDTO> getCoupons(final CouponRequestDTO couponRequestDTO) {
-        Flux<Coupon> coupons = couponRepository.findByCodeIn(couponRequestDTO.getCodes());
+        boolean ordered = couponRequestDTO.getOrdered() != null
+                ? couponRequestDTO.getOrdered()
+                : filterProperties.isOrdered();
+
+        Flux<List<String>> batches = Flux.fromIterable(new LinkedHashSet<>(couponRequestDTO.getCodes()))
+                .buffer(filterProperties.getBatchSize());
+
+        Function<List<String>, Flux<Coupon>> lookup = batch -> getCouponsByCode(batch)
+                .flatMapIterable(found -> ordered
+                        ? batch.stream().map(found::get).filter(Objects::nonNull).collect(Collectors.toList())
+                        : found.values());
+
+        Flux<Coupon> coupons = ordered
+                ? batches.flatMapSequential(lookup, filterProperties.getConcurrency())
+                : batches.flatMap(lookup, filterProperties.getConcurrency());
+
         return coupons.map(couponMapper::toDto);
     }
 }
@@ -0,0 +1,89 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.mapper.BasketMapper;
+import schwarz.jobs.interview.coupon.core.models.Basket;
+import schwarz.jobs.interview.coupon.web.dto.StackingRequestDTO;
+import schwarz.jobs.interview.coupon.web.dto.StackingResultDTO;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class CouponStackingService {
+
+    private final CouponService couponService;
+
+    private final BasketMapper basketMapper;
+
+    private final CouponStackingSolver solver;
+
+    private final CouponRedemptionLimiter redemptionLimiter;
+
+    private final CouponRedemptionLedger redemptionLedger;
+
+    /**
+     * Applies the subset of the candidate codes that takes the most off the basket. The codes are resolved with a
+     * single lookup; unknown codes and coupons the basket does not qualify for are left out, and every coupon of
+     * the subset must obtain its redemption reservation.
+     */
+    public Mono<StackingResultDTO> applyCoupons(final StackingRequestDTO request) {
+        Set<String> codes = new LinkedHashSet<>(request.getCodes());
+
+        return couponService.getCouponsByCode(codes).map(found -> {
+            Basket basket = basketMapper.toBasket(request.getBasket());
+            long capacity = basket.getValue() - basket.getAppliedDiscount();
+
+            List<Coupon> candidates = codes.stream()
+                    .map(found::get)
+                    .filter(Objects::nonNull)
+                    .filter(coupon -> coupon.getMinBasketValueCents() <= basket.getValue()
+                            && coupon.getDiscountCents() <= capacity
+                            && redemptionLimiter.canReserve(coupon))
+                    .collect(Collectors.toCollection(ArrayList::new));
+
+            List<Coupon> applied = reserve(candidates, capacity);
+            for (Coupon coupon : applied) {
+                basket.applyDiscount(coupon.getDiscountCents());
+                redemptionLedger.record(coupon, basket);
+            }
+
+            return StackingResultDTO.builder()
+                    .codes(applied.stream().map(Coupon::getCode).collect(Collectors.toList()))
+                    .basket(basketMapper.toDto(basket))
+                    .build();
+        });
+    }
+
+    private List<Coupon> reserve(final List<Coupon> candidates, final long capacity) {
+        while (true) {
+            List<Coupon> chosen = solver.solve(candidates, capacity).getCoupons();
+
+            List<Coupon> reserved = new ArrayList<>(chosen.size());
+            Coupon refused = null;
+            for (Coupon coupon : chosen) {
+                if (!redemptionLimiter.tryReserve(coupon)) {
+                    refused = coupon;
+                    break;
+                }
+                reserved.add(coupon);
+            }
+            if (refused == null) {
+                return reserved;
+            }
+
+            // another application took the last redemption in between, solve again without that coupon
+            reserved.forEach(redemptionLimiter::release);
+            candidates.remove(refused);
+        }
+    }
+
+}
@@ -0,0 +1,228 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import schwarz.jobs.interview.coupon.configuration.CouponStackingProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Picks the subset of coupons with the largest total discount that still fits the remaining basket value, a
+ * subset-sum problem. A depth-first branch and bound over the coupons, largest discount first, prunes any branch
+ * whose remaining discounts cannot beat the best subset so far and stops as soon as a subset uses the whole
+ * capacity. It visits at most {@code searchBudget} nodes; past that, small capacities are solved exactly by dynamic
+ * programming over the reachable sums, larger ones keep the best subset the search reached.
+ */
+@Component
+@RequiredArgsConstructor
+public class CouponStackingSolver {
+
+    private final CouponStackingProperties properties;
+
+    /**
+     * Solves for candidates that each fit the capacity on their own; the chosen coupons keep the candidate order.
+     */
+    public Selection solve(final List<Coupon> candidates, final long capacity) {
+        Integer[] order = IntStream.range(0, candidates.size()).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> candidates.get(i).getDiscountCents()).reversed()
+                .thenComparing(i -> candidates.get(i).getCode()));
+
+        long[] discounts = new long[order.length];
+        long unit = 0;
+        for (int i = 0; i < order.length; i++) {
+            discounts[i] = candidates.get(order[i]).getDiscountCents();
+            unit = gcd(unit, discounts[i]);
+        }
+
+        // discounts are mostly round amounts; in units of their common divisor the search knows the largest sum
+        // it can reach, and the dynamic program gets smaller
+        long units = capacity;
+        if (unit > 1) {
+            for (int i = 0; i < discounts.length; i++) {
+                discounts[i] /= unit;
+            }
+            units = capacity / unit;
+        }
+
+        Search search = new Search(discounts, units, properties.getSearchBudget());
+        search.run();
+
+        boolean[] taken = search.best;
+        boolean optimal = !search.exhausted;
+        if (!optimal && units <= properties.getExactCapacityCents()) {
+            taken = exact(discounts, (int) units);
+            optimal = true;
+        }
+
+        boolean[] chosen = new boolean[candidates.size()];
+        long total = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (taken[i]) {
+                chosen[order[i]] = true;
+                total += candidates.get(order[i]).getDiscountCents();
+            }
+        }
+
+        List<Coupon> coupons = new ArrayList<>();
+        for (int i = 0; i < chosen.length; i++) {
+            if (chosen[i]) {
+                coupons.add(candidates.get(i));
+            }
+        }
+        return new Selection(coupons, total, optimal);
+    }
+
+    private static long gcd(final long a, final long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    /**
+     * Records for every reachable sum the first coupon that reached it; following those links back from the best
+     * sum only ever steps to earlier coupons, so each is used at most once.
+     */
+    private static boolean[] exact(final long[] discounts, final int capacity) {
+        int[] reachedBy = new int[capacity + 1];
+        Arrays.fill(reachedBy, -1);
+        reachedBy[0] = discounts.length;
+
+        int highest = 0;
+        for (int i = 0; i < discounts.length; i++) {
+            int discount = (int) discounts[i];
+            for (int sum = Math.min(capacity, highest + discount); sum >= discount; sum--) {
+                if (reachedBy[sum] == -1 && reachedBy[sum - discount] != -1) {
+                    reachedBy[sum] = i;
+                }
+            }
+            highest = Math.min(capacity, highest + discount);
+        }
+
+        int best = capacity;
+        while (reachedBy[best] == -1) {
+            best--;
+        }
+
+        boolean[] taken = new boolean[discounts.length];
+        for (int sum = best; sum > 0; sum -= discounts[reachedBy[sum]]) {
+            taken[reachedBy[sum]] = true;
+        }
+        return taken;
+    }
+
+    @Value
+    public static class Selection {
+
+        List<Coupon> coupons;
+
+        long discountCents;
+
+        /**
+         * Whether no other subset gives a larger discount; false only when the search ran out of budget.
+         */
+        boolean optimal;
+
+    }
+
+    private static final class Search {
+
+        private final long[] discounts;
+
+        private final long[] remaining;
+
+        private final long capacity;
+
+        private final boolean[] taken;
+
+        private boolean[] best;
+
+        private long bestSum = -1;
+
+        private long nodes;
+
+        private final long budget;
+
+        private boolean exhausted;
+
+        private Search(final long[] discounts, final long capacity, final long budget) {
+            this.discounts = discounts;
+            this.capacity = capacity;
+            this.budget = budget;
+            this.taken = new boolean[discounts.length];
+            this.best = new boolean[discounts.length];
+            this.remaining = new long[discounts.length + 1];
+            for (int i = discounts.length - 1; i >= 0; i--) {
+                remaining[i] = remaining[i + 1] + discounts[i];
+            }
+        }
+
+        private void run() {
+            greedy();
+            if (bestSum < capacity && bestSum < remaining[0]) {
+                branch(0, 0);
+            }
+        }
+
+        /**
+         * Seeds the bound with the largest discounts that fit, which is already optimal for most baskets.
+         */
+        private void greedy() {
+            long sum = 0;
+            for (int i = 0; i < discounts.length; i++) {
+                if (sum + discounts[i] <= capacity) {
+                    taken[i] = true;
+                    sum += discounts[i];
+                }
+            }
+            keep(sum);
+            Arrays.fill(taken, false);
+        }
+
+        private boolean branch(final int index, final long sum) {
+            if (++nodes > budget) {
+                exhausted = true;
+                return true;
+            }
+            if (sum + remaining[index] <= capacity) {
+                // everything left fits, no need to branch any further
+                Arrays.fill(taken, index, discounts.length, true);
+                keep(sum + remaining[index]);
+                Arrays.fill(taken, index, discounts.length, false);
+                return bestSum == capacity;
+            }
+            if (sum + remaining[index] <= bestSum) {
+                return false;
+            }
+
+            if (sum + discounts[index] <= capacity) {
+                taken[index] = true;
+                keep(sum + discounts[index]);
+                boolean done = bestSum == capacity || branch(index + 1, sum + discounts[index]);
+                taken[index] = false;
+                if (done) {
+                    return true;
+                }
+            }
+
+            // leaving a coupon out only differs from leaving out an equal one after it if all of them are left out
+            int next = index + 1;
+            while (next < discounts.length && discounts[next] == discounts[index]) {
+                next++;
+            }
+            return next < discounts.length && branch(next, sum);
+        }
+
+        private void keep(final long sum) {
+            if (sum > bestSum) {
+                bestSum = sum;
+                best = taken.clone();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,259 @@
+package schwarz.jobs.interview.coupon.core.snapshot;
+
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+import schwarz.jobs.interview.coupon.core.models.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary image of the coupons table: a 64-byte header followed by one fixed-size 64-byte record per coupon, with
+ * amounts in cents and codes packed by {@link CouponCodes}. The header carries the record count, the highest id
+ * and a CRC32C of all records, so a truncated or corrupted file is rejected before anything is loaded.
+ * <p>
+ * Snapshots are written to a temporary file that replaces the previous snapshot only once it is complete, and are
+ * read through read-only mappings of at most 1 GiB each, released once the snapshot is unreachable.
+ */
+public final class CouponSnapshot {
+
+    static final int RECORD_BYTES = 64;
+
+    static final int HEADER_BYTES = 64;
+
+    private static final long MAGIC = 0x43504E534E415001L; // "CPNSNAP" + format version 1
+
+    private static final int MAPPING_BYTES = 1 << 30;
+
+    private static final int RECORDS_PER_MAPPING = MAPPING_BYTES / RECORD_BYTES;
+
+    private static final int HEADER_MAGIC = 0;
+
+    private static final int HEADER_COUNT = 8;
+
+    private static final int HEADER_MAX_ID = 16;
+
+    private static final int HEADER_CHECKSUM = 24;
+
+    private static final int CODE = 0;
+
+    private static final int ID = 8;
+
+    private static final int DISCOUNT = 16;
+
+    private static final int MIN_BASKET = 24;
+
+    private static final int DISCOUNT_BUDGET = 32;
+
+    private static final int REDEMPTIONS = 40;
+
+    private static final int REDEEMED_DISCOUNT = 48;
+
+    private static final int MAX_REDEMPTIONS = 56;
+
+    private static final int NONE = -1;
+
+    private final MappedByteBuffer[] mappings;
+
+    private final long count;
+
+    private final long maxId;
+
+    private CouponSnapshot(final MappedByteBuffer[] mappings, final long count, final long maxId) {
+        this.mappings = mappings;
+        this.count = count;
+        this.maxId = maxId;
+    }
+
+    /**
+     * Maps the snapshot and verifies its header and checksum.
+     */
+    public static CouponSnapshot open(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the full header
+            }
+            if (header.hasRemaining() || header.getLong(HEADER_MAGIC) != MAGIC) {
+                throw new IOException("Not a coupon snapshot: " + path);
+            }
+
+            long count = header.getLong(HEADER_COUNT);
+            if (count < 0 || channel.size() != HEADER_BYTES + count * RECORD_BYTES) {
+                throw new IOException("Coupon snapshot " + path + " is truncated");
+            }
+
+            MappedByteBuffer[] mappings = new MappedByteBuffer[(int) ((count + RECORDS_PER_MAPPING - 1) / RECORDS_PER_MAPPING)];
+            CRC32C checksum = new CRC32C();
+            for (int i = 0; i < mappings.length; i++) {
+                long first = (long) i * RECORDS_PER_MAPPING;
+                long records = Math.min(RECORDS_PER_MAPPING, count - first);
+                // a mapping stays valid after its channel is closed
+                mappings[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * RECORD_BYTES,
+                        records * RECORD_BYTES);
+                checksum.update(mappings[i].duplicate());
+            }
+            if ((int) checksum.getValue() != header.getInt(HEADER_CHECKSUM)) {
+                throw new IOException("Coupon snapshot " + path + " failed its checksum");
+            }
+
+            return new CouponSnapshot(mappings, count, header.getLong(HEADER_MAX_ID));
+        }
+    }
+
+    /**
+     * Starts a snapshot that replaces {@code path} once {@link Writer#commit()} is called.
+     */
+    public static Writer create(final Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        return new Writer(path);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long maxId() {
+        return maxId;
+    }
+
+    public Coupon get(final long index) {
+        ByteBuffer mapping = mappings[(int) (index / RECORDS_PER_MAPPING)];
+        int offset = (int) (index % RECORDS_PER_MAPPING) * RECORD_BYTES;
+
+        int maxRedemptions = mapping.getInt(offset + MAX_REDEMPTIONS);
+        long discountBudget = mapping.getLong(offset + DISCOUNT_BUDGET);
+
+        return Coupon.builder()
+                .id(mapping.getLong(offset + ID))
+                .code(CouponCodes.unpack(mapping.getLong(offset + CODE)))
+                .discount(Money.toBigDecimal(mapping.getLong(offset + DISCOUNT)))
+                .minBasketValue(Money.toBigDecimal(mapping.getLong(offset + MIN_BASKET)))
+                .maxRedemptions(maxRedemptions != NONE ? maxRedemptions : null)
+                .discountBudget(discountBudget != NONE ? Money.toBigDecimal(discountBudget) : null)
+                .redemptions(mapping.getLong(offset + REDEMPTIONS))
+                .redeemedDiscount(Money.toBigDecimal(mapping.getLong(offset + REDEEMED_DISCOUNT)))
+                .build();
+    }
+
+    /**
+     * Appends coupons to a temporary file next to the target. Not thread-safe.
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path path;
+
+        private final Path temporary;
+
+        private final FileChannel channel;
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 1024);
+
+        private final CRC32C checksum = new CRC32C();
+
+        private long count;
+
+        private long maxId;
+
+        private boolean committed;
+
+        private Writer(final Path path) throws IOException {
+            this.path = path;
+            this.temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            channel.position(HEADER_BYTES);
+        }
+
+        public void append(final List<? extends Coupon> coupons) {
+            for (Coupon coupon : coupons) {
+                append(coupon);
+            }
+        }
+
+        public void append(final Coupon coupon) {
+            long packed = CouponCodes.pack(coupon.getCode());
+            if (packed == CouponCodes.INVALID) {
+                throw new IllegalArgumentException("Not a coupon code: " + coupon.getCode());
+            }
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+
+            int offset = buffer.position();
+            buffer.putLong(offset + CODE, packed)
+                    .putLong(offset + ID, coupon.getId() != null ? coupon.getId() : 0L)
+                    .putLong(offset + DISCOUNT, coupon.getDiscountCents())
+                    .putLong(offset + MIN_BASKET, coupon.getMinBasketValueCents())
+                    .putLong(offset + DISCOUNT_BUDGET, coupon.getDiscountBudget() != null ? Money.toCents(coupon.getDiscountBudget()) : NONE)
+                    .putLong(offset + REDEMPTIONS, coupon.getRedemptions())
+                    .putLong(offset + REDEEMED_DISCOUNT, Money.toCents(coupon.getRedeemedDiscount()))
+                    .putInt(offset + MAX_REDEMPTIONS, coupon.getMaxRedemptions() != null ? coupon.getMaxRedemptions() : NONE)
+                    .putInt(offset + MAX_REDEMPTIONS + Integer.BYTES, 0);
+            buffer.position(offset + RECORD_BYTES);
+
+            count++;
+            if (coupon.getId() != null) {
+                maxId = Math.max(maxId, coupon.getId());
+            }
+        }
+
+        /**
+         * Completes the snapshot, syncs it to disk and moves it over the previous one. Returns the coupon count.
+         */
+        public long commit() throws IOException {
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putLong(HEADER_MAGIC, MAGIC)
+                    .putLong(HEADER_COUNT, count)
+                    .putLong(HEADER_MAX_ID, maxId)
+                    .putInt(HEADER_CHECKSUM, (int) checksum.getValue());
+            channel.write(header, 0);
+            channel.force(true);
+            channel.close();
+
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return count;
+        }
+
+        /**
+         * Discards the temporary file unless the snapshot was committed.
+         */
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                channel.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        private void flush() {
+            buffer.flip();
+            checksum.update(buffer.duplicate());
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            buffer.clear();
+        }
+
+    }
+
+}
@@ -0,0 +1,79 @@
+package schwarz.jobs.interview.coupon.core.snapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import schwarz.jobs.interview.coupon.configuration.CouponSnapshotProperties;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+import schwarz.jobs.interview.coupon.core.services.CouponRedemptionFlusher;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Writes the coupons table to a {@link CouponSnapshot} on demand and, if configured, on shutdown. Pending
+ * redemptions are flushed first so the snapshot carries the current totals.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CouponSnapshotExporter implements DisposableBean {
+
+    private static final int WRITE_BATCH_SIZE = 1024;
+
+    private final CouponStore couponStore;
+
+    private final CouponRedemptionFlusher redemptionFlusher;
+
+    private final CouponSnapshotProperties properties;
+
+    private final AtomicBoolean exporting = new AtomicBoolean();
+
+    /**
+     * Emits the number of coupons exported, or completes empty if an export is already running.
+     */
+    public Mono<Long> export() {
+        return Mono.defer(() -> {
+            if (!exporting.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+
+            long started = System.nanoTime();
+            return redemptionFlusher.flush()
+                    .then(Mono.using(() -> CouponSnapshot.create(properties.getPath()),
+                            writer -> couponStore.findAll()
+                                    .buffer(WRITE_BATCH_SIZE)
+                                    .publishOn(Schedulers.boundedElastic())
+                                    .doOnNext(writer::append)
+                                    .then(Mono.fromCallable(writer::commit)),
+                            writer -> {
+                                try {
+                                    writer.close();
+                                } catch (Exception ex) {
+                                    log.warn("Could not discard incomplete coupon snapshot", ex);
+                                }
+                            }))
+                    .doOnSuccess(count -> log.info("Exported {} coupons to snapshot {} in {} ms", count,
+                            properties.getPath(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)))
+                    .doFinally(signal -> exporting.set(false));
+        });
+    }
+
+    @Override
+    public void destroy() {
+        if (!properties.isEnabled() || !properties.isExportOnShutdown()) {
+            return;
+        }
+
+        export()
+                .onErrorResume(ex -> {
+                    log.error("Coupon snapshot export on shutdown failed", ex);
+                    return Mono.empty();
+                })
+                .block(properties.getShutdownTimeout());
+    }
+
+}
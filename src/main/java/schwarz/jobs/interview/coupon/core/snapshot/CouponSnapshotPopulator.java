@@ -0,0 +1,108 @@
+package schwarz.jobs.interview.coupon.core.snapshot;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.r2dbc.connection.init.DatabasePopulator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads a {@link CouponSnapshot} into the coupons table with multi-row inserts in one transaction, instead of
+ * parsing and executing SQL statement by statement, then moves the id sequence past the highest loaded id.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CouponSnapshotPopulator implements DatabasePopulator {
+
+    private static final String INSERT_COUPONS = "INSERT INTO COUPONS (ID, CODE, DISCOUNT, MIN_BASKET_VALUE, MAX_REDEMPTIONS, "
+            + "DISCOUNT_BUDGET, REDEMPTIONS, REDEEMED_DISCOUNT) VALUES ";
+
+    private static final int COLUMNS = 8;
+
+    private static final String RESTART_IDS = "ALTER TABLE COUPONS ALTER COLUMN ID RESTART WITH ";
+
+    private final Path path;
+
+    private final int batchSize;
+
+    @Override
+    public Mono<Void> populate(final Connection connection) {
+        return Mono.fromCallable(() -> CouponSnapshot.open(path))
+                .flatMap(snapshot -> {
+                    long started = System.nanoTime();
+                    return load(connection, snapshot)
+                            .doOnSuccess(ignored -> log.info("Loaded {} coupons from snapshot {} in {} ms",
+                                    snapshot.count(), path, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)));
+                });
+    }
+
+    private Mono<Void> load(final Connection connection, final CouponSnapshot snapshot) {
+        long batches = (snapshot.count() + batchSize - 1) / batchSize;
+        String fullBatch = insertRows(batchSize);
+
+        return Mono.from(connection.beginTransaction())
+                .thenMany(Flux.range(0, Math.toIntExact(batches))
+                        .concatMap(batch -> {
+                            long from = (long) batch * batchSize;
+                            long to = Math.min(snapshot.count(), from + batchSize);
+                            return insert(connection, to - from == batchSize ? fullBatch : insertRows((int) (to - from)),
+                                    snapshot, from, to);
+                        }))
+                .then(Mono.from(connection.commitTransaction()))
+                .onErrorResume(ex -> Mono.from(connection.rollbackTransaction()).then(Mono.error(ex)))
+                // DDL commits on its own, so the sequence moves only once the rows are in
+                .then(Flux.from(connection.createStatement(RESTART_IDS + (snapshot.maxId() + 1)).execute())
+                        .flatMap(Result::getRowsUpdated)
+                        .then());
+    }
+
+    private Mono<Void> insert(final Connection connection, final String sql, final CouponSnapshot snapshot,
+                              final long from, final long to) {
+        // one multi-row INSERT per batch: H2 runs a single command instead of one per row
+        Statement statement = connection.createStatement(sql);
+        for (long i = from; i < to; i++) {
+            bind(statement, (int) (i - from) * COLUMNS, snapshot.get(i));
+        }
+        return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated).then();
+    }
+
+    private static String insertRows(final int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_COUPONS);
+        for (int row = 0; row < rows; row++) {
+            sql.append(row > 0 ? ", (" : "(");
+            for (int column = 1; column <= COLUMNS; column++) {
+                sql.append(column > 1 ? ", $" : "$").append(row * COLUMNS + column);
+            }
+            sql.append(')');
+        }
+        return sql.toString();
+    }
+
+    private static void bind(final Statement statement, final int offset, final Coupon coupon) {
+        statement.bind("$" + (offset + 1), coupon.getId())
+                .bind("$" + (offset + 2), coupon.getCode())
+                .bind("$" + (offset + 3), coupon.getDiscount())
+                .bind("$" + (offset + 4), coupon.getMinBasketValue())
+                .bind("$" + (offset + 7), coupon.getRedemptions())
+                .bind("$" + (offset + 8), coupon.getRedeemedDiscount());
+        if (coupon.getMaxRedemptions() == null) {
+            statement.bindNull("$" + (offset + 5), Integer.class);
+        } else {
+            statement.bind("$" + (offset + 5), coupon.getMaxRedemptions());
+        }
+        if (coupon.getDiscountBudget() == null) {
+            statement.bindNull("$" + (offset + 6), BigDecimal.class);
+        } else {
+            statement.bind("$" + (offset + 6), coupon.getDiscountBudget());
+        }
+    }
+
+}
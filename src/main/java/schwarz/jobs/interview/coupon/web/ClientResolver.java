@@ -0,0 +1,36 @@
+package schwarz.jobs.interview.coupon.web;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import schwarz.jobs.interview.coupon.configuration.CouponRateLimitProperties;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Identifies the caller of a request: the configured client header when present, otherwise the remote address.
+ * Rate limits and idempotency keys are both held per client.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClientResolver {
+
+    private static final String UNKNOWN_CLIENT = "unknown";
+
+    private final CouponRateLimitProperties properties;
+
+    public String resolve(final ServerHttpRequest request) {
+        if (properties.getClientHeader() != null) {
+            String client = request.getHeaders().getFirst(properties.getClientHeader());
+            if (client != null) {
+                return client;
+            }
+        }
+
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : UNKNOWN_CLIENT;
+    }
+
+}
@@ -6,42 +6,95 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponHttpCacheProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponRecommendationProperties;
+import schwarz.jobs.interview.coupon.core.logging.CouponEventLog;
+import schwarz.jobs.interview.coupon.core.metrics.CouponOutcome;
+import schwarz.jobs.interview.coupon.core.metrics.CouponOutcomeMetrics;
+import schwarz.jobs.interview.coupon.core.services.CouponBulkService;
+import schwarz.jobs.interview.coupon.core.services.CouponImportService;
 import schwarz.jobs.interview.coupon.core.services.CouponService;
+import schwarz.jobs.interview.coupon.core.services.CouponStackingService;
+import schwarz.jobs.interview.coupon.web.codec.CouponJsonCache;
 import schwarz.jobs.interview.coupon.web.dto.ApplicationRequestDTO;
+import schwarz.jobs.interview.coupon.web.dto.ApplicationResultDTO;
 import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
 import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
 import schwarz.jobs.interview.coupon.web.dto.CouponRequestDTO;
+import schwarz.jobs.interview.coupon.web.dto.ImportResultDTO;
+import schwarz.jobs.interview.coupon.web.dto.StackingRequestDTO;
+import schwarz.jobs.interview.coupon.web.dto.StackingResultDTO;
 import schwarz.jobs.interview.coupon.web.errors.ConflictError;
 import schwarz.jobs.interview.coupon.web.errors.DefaultError;
 import schwarz.jobs.interview.coupon.web.errors.NotFoundError;
 import schwarz.jobs.interview.coupon.web.errors.UnprocessableEntityError;
+import schwarz.jobs.interview.coupon.web.idempotency.IdempotencyStore;
+import schwarz.jobs.interview.coupon.web.ratelimit.CouponRateLimiter;
 
 import javax.validation.Valid;
 import java.net.URI;
+import java.util.List;
 
 import static schwarz.jobs.interview.coupon.constants.ApiConstants.API_PREFIX;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_APPLY_BULK_PATH;
 import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_APPLY_PATH;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_APPLY_STACK_PATH;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_BEST_PATH;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_CODE_PATH;
 import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_CREATE_PATH;
 import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_FILTER_PATH;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_IMPORT_PATH;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.IDEMPOTENCY_KEY_HEADER;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.TEXT_CSV_VALUE;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping(API_PREFIX)
 @Tag(name = "Coupon Resource")
-@Slf4j
 public class CouponResource {
 
     private final CouponService couponService;
 
+    private final CouponBulkService couponBulkService;
+
+    private final CouponImportService couponImportService;
+
+    private final CouponStackingService couponStackingService;
+
+    private final CouponOutcomeMetrics outcomeMetrics;
+
+    private final CouponJsonCache couponJsonCache;
+
+    private final CouponHttpCacheProperties httpCacheProperties;
+
+    private final CouponRecommendationProperties recommendationProperties;
+
+    private final IdempotencyStore idempotencyStore;
+
+    private final ClientResolver clientResolver;
+
+    private final CouponRateLimiter rateLimiter;
+
+    private final CouponEventLog eventLog;
+
     @PutMapping(COUPON_APPLY_PATH)
     @Operation(summary = "Apply discount coupon to a specific basket")
     @ApiResponse(responseCode = "200", description = "Success",
@@ -49,7 +102,7 @@ public class CouponResource {
                     schema = @Schema(implementation = CouponDTO.class)))
     @ApiResponse(responseCode = "404", description = "Coupon code not exists",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = NotFoundError.class)))
-    @ApiResponse(responseCode = "409", description = "Conflict - Invalid discount",
+    @ApiResponse(responseCode = "409", description = "Conflict - Invalid discount or redemption limit reached",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ConflictError.class)))
     @ApiResponse(responseCode = "422", description = "Unprocessable entity",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = UnprocessableEntityError.class)))
@@ -58,15 +111,86 @@ public class CouponResource {
     @ApiResponse(responseCode = "500", description = "Unexpected Error",
             content = @Content(schema = @Schema(implementation = DefaultError.class)))
     public ResponseEntity<Mono<BasketDTO>> apply(
-            @RequestBody @Valid final ApplicationRequestDTO applicationRequestDTO) {
+            @RequestBody @Valid final ApplicationRequestDTO applicationRequestDTO,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) final String idempotencyKey,
+            final ServerWebExchange exchange) {
 
-        Mono<BasketDTO> basket = couponService.applyCoupon(applicationRequestDTO)
-                .doOnSuccess(basketDTO ->
-                        log.info("Discount applied to basket: {}", basketDTO.toString()));
+        Mono<BasketDTO> basket = idempotencyStore.execute(COUPON_APPLY_PATH, clientResolver.resolve(exchange.getRequest()),
+                idempotencyKey, applicationRequestDTO,
+                () -> couponService.applyCoupon(applicationRequestDTO)
+                        .doOnSuccess(basketDTO -> {
+                            outcomeMetrics.record(CouponOutcome.APPLIED);
+                            eventLog.applied(applicationRequestDTO.getCode(), basketDTO.getValue(), basketDTO.getAppliedDiscount());
+                        }));
 
         return ResponseEntity.ok(basket);
     }
 
+    @PutMapping(value = COUPON_APPLY_BULK_PATH,
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Apply discount coupons to a stream of baskets, one result per request item")
+    @ApiResponse(responseCode = "200", description = "Success - item errors, including items over the rate limit, are reported inline",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = ApplicationResultDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Bad Request",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DefaultError.class)))
+    @ApiResponse(responseCode = "500", description = "Unexpected Error",
+            content = @Content(schema = @Schema(implementation = DefaultError.class)))
+    public Flux<ApplicationResultDTO> applyBulk(@RequestBody final Flux<ApplicationRequestDTO> applicationRequests,
+                                                final ServerWebExchange exchange) {
+        String client = clientResolver.resolve(exchange.getRequest());
+        return couponBulkService.applyCoupons(applicationRequests, () -> rateLimiter.tryAcquireItem(client));
+    }
+
+    @PutMapping(COUPON_APPLY_STACK_PATH)
+    @Operation(summary = "Apply the combination of candidate coupons that gives a basket the largest discount")
+    @ApiResponse(responseCode = "200", description = "Success - no codes are applied when none of the candidates applies",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = StackingResultDTO.class)))
+    @ApiResponse(responseCode = "422", description = "Unprocessable entity",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UnprocessableEntityError.class)))
+    @ApiResponse(responseCode = "400", description = "Bad Request",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DefaultError.class)))
+    @ApiResponse(responseCode = "500", description = "Unexpected Error",
+            content = @Content(schema = @Schema(implementation = DefaultError.class)))
+    public ResponseEntity<Mono<StackingResultDTO>> applyStack(
+            @RequestBody @Valid final StackingRequestDTO stackingRequestDTO,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) final String idempotencyKey,
+            final ServerWebExchange exchange) {
+
+        Mono<StackingResultDTO> result = idempotencyStore.execute(COUPON_APPLY_STACK_PATH,
+                clientResolver.resolve(exchange.getRequest()), idempotencyKey, stackingRequestDTO,
+                () -> couponStackingService.applyCoupons(stackingRequestDTO)
+                        .doOnSuccess(stacked -> stacked.getCodes().forEach(code -> {
+                            outcomeMetrics.record(CouponOutcome.APPLIED);
+                            eventLog.applied(code, stacked.getBasket().getValue(), stacked.getBasket().getAppliedDiscount());
+                        })));
+
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(COUPON_BEST_PATH)
+    @Operation(summary = "Find the coupons a basket qualifies for, highest discount first")
+    @ApiResponse(responseCode = "200", description = "Success - empty when no coupon applies",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = CouponDTO.class)))
+    @ApiResponse(responseCode = "422", description = "Unprocessable entity",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UnprocessableEntityError.class)))
+    @ApiResponse(responseCode = "400", description = "Bad Request",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DefaultError.class)))
+    @ApiResponse(responseCode = "500", description = "Unexpected Error",
+            content = @Content(schema = @Schema(implementation = DefaultError.class)))
+    public Flux<CouponDTO> best(
+            @RequestBody @Valid final BasketDTO basketDTO,
+            @RequestParam(name = "limit", required = false) final Integer limit) {
+
+        int effectiveLimit = limit != null
+                ? Math.max(1, Math.min(limit, recommendationProperties.getMaxLimit()))
+                : recommendationProperties.getDefaultLimit();
+        return couponService.recommendCoupons(basketDTO, effectiveLimit);
+    }
+
     @PostMapping(COUPON_CREATE_PATH)
     @Operation(summary = "Create a new coupon")
     @ApiResponse(responseCode = "201", description = "Success",
@@ -80,33 +204,126 @@ public class CouponResource {
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = DefaultError.class)))
     @ApiResponse(responseCode = "500", description = "Unexpected Error",
             content = @Content(schema = @Schema(implementation = DefaultError.class)))
-    public ResponseEntity<Mono<CouponDTO>> create(@RequestBody @Valid final CouponDTO couponDTO) {
+    public ResponseEntity<Mono<CouponDTO>> create(
+            @RequestBody @Valid final CouponDTO couponDTO,
+            @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) final String idempotencyKey,
+            final ServerWebExchange exchange) {
 
-        Mono<CouponDTO> savedCoupon = couponService.createCoupon(couponDTO)
-                .doOnSuccess(savedCouponDTO ->
-                        log.info("New coupon created: {}", savedCouponDTO.toString()));
+        Mono<CouponDTO> savedCoupon = idempotencyStore.execute(COUPON_CREATE_PATH, clientResolver.resolve(exchange.getRequest()),
+                idempotencyKey, couponDTO,
+                () -> couponService.createCoupon(couponDTO)
+                        .doOnSuccess(savedCouponDTO -> {
+                            couponJsonCache.invalidate(savedCouponDTO.getCode());
+                            outcomeMetrics.record(CouponOutcome.CREATED);
+                            eventLog.created(savedCouponDTO.getCode(), savedCouponDTO.getDiscount(), savedCouponDTO.getMinBasketValue());
+                        }));
 
-        URI location = URI.create(API_PREFIX.concat(COUPON_CREATE_PATH).concat(String.format("/%s", couponDTO.getCode())));
+        URI location = UriComponentsBuilder.fromPath(API_PREFIX.concat(COUPON_CODE_PATH))
+                .buildAndExpand(couponDTO.getCode())
+                .encode()
+                .toUri();
         return ResponseEntity.created(location).body(savedCoupon);
     }
 
-    @PostMapping(COUPON_FILTER_PATH)
-    @Operation(summary = "Filter coupons based on a code list request")
+    @GetMapping(value = COUPON_CODE_PATH, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get a coupon by code, honouring If-None-Match")
     @ApiResponse(responseCode = "200", description = "Success",
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = CouponDTO.class)))
+    @ApiResponse(responseCode = "304", description = "Not Modified - the ETag in If-None-Match is still current")
+    @ApiResponse(responseCode = "404", description = "Coupon code not exists",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = NotFoundError.class)))
+    @ApiResponse(responseCode = "500", description = "Unexpected Error",
+            content = @Content(schema = @Schema(implementation = DefaultError.class)))
+    public Mono<ResponseEntity<byte[]>> getCoupon(@PathVariable final String code) {
+        // the entity tag and cache headers are checked against If-None-Match by the result handler, answering 304
+        return couponService.findCoupon(code)
+                .map(coupon -> ResponseEntity.ok()
+                        .eTag(couponJsonCache.etag(coupon))
+                        .cacheControl(cacheControl())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(couponJsonCache.encode(coupon)));
+    }
+
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(httpCacheProperties.getMaxAge())
+                .sMaxAge(httpCacheProperties.getSharedMaxAge())
+                .cachePublic();
+    }
+
+    @PostMapping(value = COUPON_IMPORT_PATH,
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import a stream of coupons, one result per row")
+    @ApiResponse(responseCode = "200", description = "Success - row errors are reported inline",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = ImportResultDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Bad Request",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DefaultError.class)))
+    @ApiResponse(responseCode = "500", description = "Unexpected Error",
+            content = @Content(schema = @Schema(implementation = DefaultError.class)))
+    public Flux<ImportResultDTO> importCoupons(@RequestBody final Flux<CouponDTO> coupons) {
+        return couponImportService.importCoupons(coupons)
+                .doOnNext(this::invalidateImported);
+    }
+
+    @PostMapping(value = COUPON_IMPORT_PATH,
+            consumes = TEXT_CSV_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import coupons from CSV lines (code,discount,minBasketValue), one result per row")
+    @ApiResponse(responseCode = "200", description = "Success - row errors are reported inline",
+            content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                    schema = @Schema(implementation = ImportResultDTO.class)))
+    @ApiResponse(responseCode = "400", description = "Bad Request",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = DefaultError.class)))
+    @ApiResponse(responseCode = "500", description = "Unexpected Error",
+            content = @Content(schema = @Schema(implementation = DefaultError.class)))
+    public Flux<ImportResultDTO> importCsv(@RequestBody final Flux<String> lines) {
+        return couponImportService.importCsv(lines)
+                .doOnNext(this::invalidateImported);
+    }
+
+    private void invalidateImported(final ImportResultDTO result) {
+        if (result.getResult() == ImportResultDTO.Result.CREATED) {
+            couponJsonCache.invalidate(result.getCode());
+        }
+    }
+
+    @PostMapping(value = COUPON_FILTER_PATH,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Filter coupons based on a code list request")
+    @ApiResponse(responseCode = "200", description = "Success",
+            content = {@Content(mediaType = "application/json",
+                    schema = @Schema(implementation = CouponDTO.class)),
+                    @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                            schema = @Schema(implementation = CouponDTO.class))})
     @ApiResponse(responseCode = "422", description = "Unprocessable entity",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = UnprocessableEntityError.class)))
     @ApiResponse(responseCode = "400", description = "Bad Request",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = DefaultError.class)))
     @ApiResponse(responseCode = "500", description = "Unexpected Error",
             content = @Content(schema = @Schema(implementation = DefaultError.class)))
-    public ResponseEntity<Flux<CouponDTO>> getCoupons(
-            @RequestBody @Valid final CouponRequestDTO couponRequestDTO) {
+    public ResponseEntity<Flux<DataBuffer>> getCoupons(
+            @RequestBody @Valid final CouponRequestDTO couponRequestDTO,
+            final ServerWebExchange exchange) {
 
         Flux<CouponDTO> coupons = couponService.getCoupons(couponRequestDTO);
+        DataBufferFactory bufferFactory = exchange.getResponse().bufferFactory();
+
+        if (acceptsNdjson(exchange.getRequest().getHeaders().getAccept())) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(couponJsonCache.ndjson(coupons, bufferFactory));
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(couponJsonCache.jsonArray(coupons, bufferFactory));
+    }
 
-        return ResponseEntity.ok(coupons);
+    private static boolean acceptsNdjson(final List<MediaType> accept) {
+        return accept.stream().anyMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype)
+                && accept.stream().noneMatch(MediaType.APPLICATION_JSON::equalsTypeAndSubtype);
     }
 
 }
@@ -0,0 +1,34 @@
+package schwarz.jobs.interview.coupon.web.actuator;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.core.cache.CouponCodeFilter;
+
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "couponcodefilter")
+public class CouponCodeFilterEndpoint {
+
+    private final CouponCodeFilter codeFilter;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return Map.of(
+                "ready", codeFilter.isReady(),
+                "rejected", codeFilter.rejected());
+    }
+
+    @WriteOperation
+    public Mono<Map<String, Object>> rebuild() {
+        return codeFilter.rebuild()
+                .map(codes -> Map.<String, Object>of("codes", codes))
+                .defaultIfEmpty(Map.of("codes", "rebuild already running or filter disabled"));
+    }
+
+}
@@ -0,0 +1,41 @@
+package schwarz.jobs.interview.coupon.web.actuator;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponSnapshotProperties;
+import schwarz.jobs.interview.coupon.core.snapshot.CouponSnapshotExporter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "couponsnapshot")
+public class CouponSnapshotEndpoint {
+
+    private final CouponSnapshotExporter exporter;
+
+    private final CouponSnapshotProperties properties;
+
+    @ReadOperation
+    public Map<String, Object> status() throws IOException {
+        boolean exists = Files.isRegularFile(properties.getPath());
+        return Map.of(
+                "path", properties.getPath().toString(),
+                "loadOnStartup", properties.isEnabled(),
+                "bytes", exists ? Files.size(properties.getPath()) : 0L);
+    }
+
+    @WriteOperation
+    public Mono<Map<String, Object>> export() {
+        return exporter.export()
+                .map(coupons -> Map.<String, Object>of("coupons", coupons))
+                .defaultIfEmpty(Map.of("coupons", "export already running"));
+    }
+
+}
@@ -0,0 +1,143 @@
+package schwarz.jobs.interview.coupon.web.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponJsonCacheProperties;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pre-encoded JSON of each {@link CouponDTO} by code. Coupons are immutable once created, so a coupon is serialized
+ * once and later responses are assembled from the cached fragments, wrapped into buffers without copying.
+ * Entries are dropped when a coupon with that code is (re)created. Each fragment carries a strong entity tag derived
+ * from its bytes, so conditional reads never re-serialize or re-hash.
+ */
+@Component
+public class CouponJsonCache implements MeterBinder {
+
+    private static final String CACHE_NAME = "coupon-json";
+
+    private static final byte[] ARRAY_START = "[".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] ARRAY_SEPARATOR = ",".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] ARRAY_END = "]".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] EMPTY_ARRAY = "[]".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] LINE_END = "\n".getBytes(StandardCharsets.UTF_8);
+
+    private static final int ETAG_BYTES = 16;
+
+    private final Cache<String, EncodedCoupon> cache;
+
+    private final ObjectWriter writer;
+
+    public CouponJsonCache(final ObjectMapper objectMapper, final CouponJsonCacheProperties properties) {
+        this.writer = objectMapper.writerFor(CouponDTO.class);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .recordStats()
+                .build();
+    }
+
+    public byte[] encode(final CouponDTO coupon) {
+        return encoded(coupon).getJson();
+    }
+
+    /**
+     * Quoted strong entity tag: a truncated SHA-256 of the encoded JSON, identical for byte-identical representations.
+     */
+    public String etag(final CouponDTO coupon) {
+        return encoded(coupon).getEtag();
+    }
+
+    public void invalidate(final String code) {
+        cache.invalidate(code);
+    }
+
+    public DataBuffer json(final CouponDTO coupon, final DataBufferFactory bufferFactory) {
+        return bufferFactory.wrap(encode(coupon));
+    }
+
+    /**
+     * The opening bracket travels with the first element, so an error before any coupon is found still reaches the
+     * client as an error status instead of a truncated 200.
+     */
+    public Flux<DataBuffer> jsonArray(final Flux<CouponDTO> coupons, final DataBufferFactory bufferFactory) {
+        return Flux.defer(() -> {
+            AtomicBoolean empty = new AtomicBoolean(true);
+
+            Flux<DataBuffer> elements = coupons.index()
+                    .doOnNext(element -> empty.lazySet(false))
+                    .concatMapIterable(element -> List.of(
+                            bufferFactory.wrap(element.getT1() == 0 ? ARRAY_START : ARRAY_SEPARATOR),
+                            json(element.getT2(), bufferFactory)));
+
+            return elements.concatWith(Mono.fromSupplier(() -> bufferFactory.wrap(empty.get() ? EMPTY_ARRAY : ARRAY_END)));
+        });
+    }
+
+    public Flux<DataBuffer> ndjson(final Flux<CouponDTO> coupons, final DataBufferFactory bufferFactory) {
+        return coupons.concatMapIterable(coupon -> List.of(
+                json(coupon, bufferFactory),
+                bufferFactory.wrap(LINE_END)));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    private EncodedCoupon encoded(final CouponDTO coupon) {
+        return cache.get(coupon.getCode(), code -> serialize(coupon));
+    }
+
+    private EncodedCoupon serialize(final CouponDTO coupon) {
+        try {
+            byte[] json = writer.writeValueAsBytes(coupon);
+            return new EncodedCoupon(json, etagOf(json));
+        } catch (JsonProcessingException e) {
+            throw new EncodingException("Could not encode coupon " + coupon.getCode(), e);
+        }
+    }
+
+    private static String etagOf(final byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, ETAG_BYTES)) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Value
+    private static class EncodedCoupon {
+
+        byte[] json;
+
+        String etag;
+
+    }
+
+}
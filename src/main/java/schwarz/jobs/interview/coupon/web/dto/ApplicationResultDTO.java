@@ -0,0 +1,31 @@
+package schwarz.jobs.interview.coupon.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import schwarz.jobs.interview.coupon.web.errors.BaseError;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(name = "ApplicationResultDTO", description = "Outcome of a single coupon application within a bulk request")
+public class ApplicationResultDTO {
+
+    @Schema(description = "Coupon code of the originating request item", example = "DISC2024")
+    private String code;
+
+    @Schema(description = "HTTP status the item would have produced on the single apply endpoint", example = "200")
+    private int status;
+
+    @Schema(description = "Resulting basket, present when the coupon was applied")
+    private BasketDTO basket;
+
+    @Schema(description = "Item error, present when the coupon could not be applied")
+    private BaseError error;
+
+}
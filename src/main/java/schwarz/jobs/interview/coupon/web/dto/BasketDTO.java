@@ -24,13 +24,13 @@ public class BasketDTO {
     @NotNull(message = "Basket value cannot be null")
     @PositiveOrZero(message = "Basket value must be zero or positive")
     @Digits(integer = 8, fraction = 2, message = "Maximum 8 integer digits and 2 decimal places")
-    @Schema(description = "Basket value with up to 2 decimal places", example = "100.25")
+    @Schema(description = "Basket value with up to 2 decimal places, always 2 in responses", example = "100.25")
     private BigDecimal value;
 
     @NotNull(message = "Applied discount value cannot be null")
     @PositiveOrZero(message = "Applied discount must be zero or positive")
     @Digits(integer = 8, fraction = 2, message = "Maximum 8 integer digits and 2 decimal places")
-    @Schema(description = "Applied discount with up to 2 decimal places", example = "10.50")
+    @Schema(description = "Applied discount with up to 2 decimal places, always 2 in responses", example = "10.50")
     private BigDecimal appliedDiscount;
 
     @AssertFalse(message = "A coupon has already been applied to this basket. No further applications are allowed.")
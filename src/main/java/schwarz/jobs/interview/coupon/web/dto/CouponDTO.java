@@ -1,5 +1,6 @@
 package schwarz.jobs.interview.coupon.web.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -38,4 +39,15 @@ public class CouponDTO {
     @Digits(integer = 8, fraction = 2, message = "Maximum 8 integer digits and 2 decimal places")
     @Schema(description = "Minimum purchase amount required to apply the coupon", example = "50.00")
     private BigDecimal minBasketValue;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Positive(message = "Maximum redemptions must be a positive number")
+    @Schema(description = "Optional number of times the coupon can be applied", example = "100")
+    private Integer maxRedemptions;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Positive(message = "Discount budget must be a positive number")
+    @Digits(integer = 10, fraction = 2, message = "Maximum 10 integer digits and 2 decimal places")
+    @Schema(description = "Optional total discount that can be granted across all applications", example = "5000.00")
+    private BigDecimal discountBudget;
 }
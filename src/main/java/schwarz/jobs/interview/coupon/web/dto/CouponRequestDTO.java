@@ -20,4 +20,8 @@ public class CouponRequestDTO {
     @Schema(description = "List of 8-character alphanumeric coupon codes", example = "[\"DISC2024\", \"SUMMER24\"]")
     private List<@NotNull String> codes;
 
+    @Schema(description = "Return coupons in request order (true) or as batches complete (false); server default when omitted",
+            example = "true")
+    private Boolean ordered;
+
 }
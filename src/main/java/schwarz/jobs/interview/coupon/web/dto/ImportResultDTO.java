@@ -0,0 +1,35 @@
+package schwarz.jobs.interview.coupon.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import schwarz.jobs.interview.coupon.web.errors.BaseError;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(name = "ImportResultDTO", description = "Outcome of a single row within a bulk coupon import")
+public class ImportResultDTO {
+
+    public enum Result {
+        CREATED, DUPLICATE, INVALID
+    }
+
+    @Schema(description = "1-based line number of the row in a CSV upload, or position of the coupon in an NDJSON upload", example = "1")
+    private long row;
+
+    @Schema(description = "Coupon code of the row, when present", example = "DISC2024")
+    private String code;
+
+    @Schema(description = "Row outcome", example = "CREATED")
+    private Result result;
+
+    @Schema(description = "Row error, present when the coupon was not created")
+    private BaseError error;
+
+}
@@ -0,0 +1,33 @@
+package schwarz.jobs.interview.coupon.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "StackingRequestDTO", description = "Basket and the coupon codes that may be stacked on it")
+public class StackingRequestDTO {
+
+    @NotEmpty(message = "Code list cannot be empty")
+    @Size(max = 100, message = "At most 100 coupon codes can be stacked in one request")
+    @Schema(description = "Candidate 8-character alphanumeric coupon codes", example = "[\"DISC2024\", \"SUMMER24\"]")
+    private List<@NotNull @Pattern(regexp = "^[a-zA-Z0-9]{8}$",
+            message = "Code must be exactly 8 alphanumeric characters") String> codes;
+
+    @NotNull(message = "Basket cannot be null")
+    @Valid
+    private BasketDTO basket;
+
+}
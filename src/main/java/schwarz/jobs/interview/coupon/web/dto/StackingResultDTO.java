@@ -0,0 +1,25 @@
+package schwarz.jobs.interview.coupon.web.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(name = "StackingResultDTO", description = "Coupons stacked on a basket and the resulting basket")
+public class StackingResultDTO {
+
+    @Schema(description = "Applied coupon codes, in request order; empty when none of the candidates applies",
+            example = "[\"DISC2024\"]")
+    private List<String> codes;
+
+    @Schema(description = "Resulting basket")
+    private BasketDTO basket;
+
+}
@@ -0,0 +1,9 @@
+package schwarz.jobs.interview.coupon.web.errors;
+
+import lombok.AllArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@AllArgsConstructor
+public class TooManyRequestsError extends BaseError {
+}
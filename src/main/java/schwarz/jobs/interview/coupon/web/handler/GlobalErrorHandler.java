@@ -1,5 +1,6 @@
 package schwarz.jobs.interview.coupon.web.handler;
 
+import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -9,8 +10,11 @@ import org.springframework.web.bind.support.WebExchangeBindException;
 import reactor.core.publisher.Mono;
 import schwarz.jobs.interview.coupon.core.exception.CouponCodeAlreadyExistsException;
 import schwarz.jobs.interview.coupon.core.exception.CouponNotFoundException;
+import schwarz.jobs.interview.coupon.core.exception.CouponRedemptionLimitReachedException;
+import schwarz.jobs.interview.coupon.core.exception.IdempotencyKeyReusedException;
 import schwarz.jobs.interview.coupon.core.exception.InsufficientBasketValueException;
 import schwarz.jobs.interview.coupon.core.exception.InvalidDiscountException;
+import schwarz.jobs.interview.coupon.core.metrics.CouponOutcomeMetrics;
 import schwarz.jobs.interview.coupon.web.errors.ConflictError;
 import schwarz.jobs.interview.coupon.web.errors.NotFoundError;
 import schwarz.jobs.interview.coupon.web.errors.UnprocessableEntityError;
@@ -19,22 +23,37 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.IDEMPOTENCY_KEY_HEADER;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.COUPON_CODE_ALREADY_EXISTS;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.COUPON_CODE_NOT_EXISTS;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.IDEMPOTENCY_KEY_REUSED;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.INSUFFICIENT_BASKET_VALUE;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.INVALID_DISCOUNT;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.MESSAGE_UNAVAILABLE;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.REDEMPTION_LIMIT_REACHED;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.VALIDATION_ERROR;
+
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalErrorHandler {
 
+    private final CouponOutcomeMetrics outcomeMetrics;
+
     @ExceptionHandler(WebExchangeBindException.class)
     @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
     public Mono<UnprocessableEntityError> handleValidationExceptions(WebExchangeBindException ex) {
 
+        outcomeMetrics.record(ex);
+
         Map<String, String> errors = ex.getFieldErrors().stream()
                 .collect(Collectors.toMap(
                         FieldError::getField,
-                        fieldError -> Optional.ofNullable(fieldError.getDefaultMessage()).orElse("Message unavailable"),
+                        fieldError -> Optional.ofNullable(fieldError.getDefaultMessage()).orElse(MESSAGE_UNAVAILABLE),
                         (existing, replacement) -> existing
                 ));
 
         UnprocessableEntityError errorResponse = UnprocessableEntityError.builder()
-                .message("Validation error")
+                .message(VALIDATION_ERROR)
                 .errors(errors)
                 .build();
 
@@ -43,10 +62,12 @@ public class GlobalErrorHandler {
 
     @ExceptionHandler(CouponCodeAlreadyExistsException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
-    public Mono<ConflictError> handleCouponCodeAlreadyExistsException() {
+    public Mono<ConflictError> handleCouponCodeAlreadyExistsException(CouponCodeAlreadyExistsException ex) {
+
+        outcomeMetrics.record(ex);
 
         ConflictError errorResponse = ConflictError.builder()
-                .message("Coupon code already exists")
+                .message(COUPON_CODE_ALREADY_EXISTS)
                 .build();
 
         return Mono.just(errorResponse);
@@ -54,10 +75,12 @@ public class GlobalErrorHandler {
 
     @ExceptionHandler(CouponNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
-    public Mono<NotFoundError> handleCouponNotExistsException() {
+    public Mono<NotFoundError> handleCouponNotExistsException(CouponNotFoundException ex) {
+
+        outcomeMetrics.record(ex);
 
         NotFoundError errorResponse = NotFoundError.builder()
-                .message("Coupon code not exists")
+                .message(COUPON_CODE_NOT_EXISTS)
                 .build();
 
         return Mono.just(errorResponse);
@@ -65,10 +88,12 @@ public class GlobalErrorHandler {
 
     @ExceptionHandler(InsufficientBasketValueException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
-    public Mono<ConflictError> handleCouponCodeNotApplicableException() {
+    public Mono<ConflictError> handleCouponCodeNotApplicableException(InsufficientBasketValueException ex) {
+
+        outcomeMetrics.record(ex);
 
         ConflictError errorResponse = ConflictError.builder()
-                .message("Insufficient basket value to apply coupon")
+                .message(INSUFFICIENT_BASKET_VALUE)
                 .build();
 
         return Mono.just(errorResponse);
@@ -76,10 +101,39 @@ public class GlobalErrorHandler {
 
     @ExceptionHandler(InvalidDiscountException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
-    public Mono<ConflictError> handleInvalidDiscountException() {
+    public Mono<ConflictError> handleInvalidDiscountException(InvalidDiscountException ex) {
+
+        outcomeMetrics.record(ex);
 
         ConflictError errorResponse = ConflictError.builder()
-                .message("Invalid discount exceeding basket value")
+                .message(INVALID_DISCOUNT)
+                .build();
+
+        return Mono.just(errorResponse);
+    }
+
+    @ExceptionHandler(CouponRedemptionLimitReachedException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Mono<ConflictError> handleCouponRedemptionLimitReachedException(CouponRedemptionLimitReachedException ex) {
+
+        outcomeMetrics.record(ex);
+
+        ConflictError errorResponse = ConflictError.builder()
+                .message(REDEMPTION_LIMIT_REACHED)
+                .build();
+
+        return Mono.just(errorResponse);
+    }
+
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public Mono<UnprocessableEntityError> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+
+        outcomeMetrics.record(ex);
+
+        UnprocessableEntityError errorResponse = UnprocessableEntityError.builder()
+                .message(IDEMPOTENCY_KEY_REUSED)
+                .errors(Map.of(IDEMPOTENCY_KEY_HEADER, ex.getMessage()))
                 .build();
 
         return Mono.just(errorResponse);
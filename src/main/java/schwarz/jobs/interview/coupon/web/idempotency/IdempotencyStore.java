@@ -0,0 +1,143 @@
+package schwarz.jobs.interview.coupon.web.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponIdempotencyProperties;
+import schwarz.jobs.interview.coupon.core.exception.IdempotencyKeyReusedException;
+import schwarz.jobs.interview.coupon.core.metrics.CouponOutcome;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Executions keyed by client and {@code Idempotency-Key}, bounded in size and expiring after write. The first
+ * request with a key runs the operation; retries with the same key and request replay its outcome, joining it while it is still
+ * running. Domain outcomes (success or a coupon error) are kept, so a retry maps to the same status and body;
+ * unexpected errors evict the entry and leave the next retry free to run again. Requests are compared as JSON
+ * trees with amounts stripped of trailing zeros, so {@code 10.0} and {@code 10.00} are the same request.
+ */
+@Component
+public class IdempotencyStore implements MeterBinder {
+
+    private static final String CACHE_NAME = "idempotency";
+
+    private final Cache<ExecutionKey, Execution> executions;
+
+    private final ObjectMapper canonicalMapper;
+
+    private final LongAdder attached = new LongAdder();
+
+    private final LongAdder replayed = new LongAdder();
+
+    public IdempotencyStore(final CouponIdempotencyProperties properties, final ObjectMapper objectMapper) {
+        this.canonicalMapper = objectMapper.copy().setNodeFactory(JsonNodeFactory.withExactBigDecimals(false));
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Runs {@code operation} once per {@code scope}, {@code client} and {@code key}. Without a key the operation
+     * simply runs; a key reused with a different {@code request} is rejected with
+     * {@link IdempotencyKeyReusedException}.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(final String scope, final String client, final String key, final Object request,
+                               final Supplier<Mono<T>> operation) {
+        if (key == null) {
+            return Mono.defer(operation);
+        }
+
+        return Mono.defer(() -> {
+            ExecutionKey id = new ExecutionKey(scope, client, key);
+            JsonNode canonicalRequest = canonicalMapper.valueToTree(request);
+            AtomicReference<Execution> created = new AtomicReference<>();
+            Execution execution = executions.get(id, ignored -> {
+                created.set(start(id, canonicalRequest, operation));
+                return created.get();
+            });
+
+            if (created.get() == null) {
+                if (!Objects.equals(execution.request, canonicalRequest)) {
+                    return Mono.error(new IdempotencyKeyReusedException(key));
+                }
+                (execution.done ? replayed : attached).increment();
+            }
+
+            return (Mono<T>) execution.result;
+        });
+    }
+
+    public long size() {
+        return executions.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return executions.stats();
+    }
+
+    private <T> Execution start(final ExecutionKey id, final JsonNode request, final Supplier<Mono<T>> operation) {
+        Execution execution = new Execution(request);
+        execution.result = Mono.defer(operation)
+                .doOnError(error -> {
+                    if (CouponOutcome.of(error) == CouponOutcome.ERROR) {
+                        executions.asMap().remove(id, execution);
+                    }
+                })
+                .doOnTerminate(() -> execution.done = true)
+                .cache();
+        return execution;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, executions, CACHE_NAME);
+        FunctionCounter.builder("coupon.idempotency.attached", attached, LongAdder::doubleValue)
+                .description("Retries that joined an execution still in flight")
+                .register(registry);
+        FunctionCounter.builder("coupon.idempotency.replayed", replayed, LongAdder::doubleValue)
+                .description("Retries answered from a completed execution")
+                .register(registry);
+    }
+
+    @Value
+    private static class ExecutionKey {
+
+        String scope;
+
+        String client;
+
+        String key;
+
+    }
+
+    private static final class Execution {
+
+        private final JsonNode request;
+
+        private Mono<?> result;
+
+        private volatile boolean done;
+
+        private Execution(final JsonNode request) {
+            this.request = request;
+        }
+
+    }
+
+}
@@ -0,0 +1,169 @@
+package schwarz.jobs.interview.coupon.web.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import schwarz.jobs.interview.coupon.configuration.CouponRateLimitProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponRateLimitProperties.Limit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_APPLY_BULK_PATH;
+
+/**
+ * Token buckets per client and route, in their single-word form (GCRA): each bucket is the theoretical arrival time
+ * of the next request, advanced by one emission interval per accepted request with a compare-and-set. A request
+ * is accepted while that time stays within {@code capacity} intervals of now, which is a bucket of
+ * {@code capacity} tokens refilled at {@code refillPerSecond}. Clients live in a bounded map that forgets them after
+ * a period without requests. The bulk apply route is charged per streamed item rather than per request.
+ */
+@Component
+public class CouponRateLimiter implements MeterBinder {
+
+    public static final int UNLIMITED = -1;
+
+    private static final String CACHE_NAME = "rate-limit-clients";
+
+    private static final String DEFAULT_ROUTE = "*";
+
+    // a refill slower than once a day is as good as none; both caps keep the bucket arithmetic from overflowing
+    private static final long MAX_INTERVAL_NANOS = TimeUnit.DAYS.toNanos(1);
+
+    private static final long MAX_BURST_NANOS = Long.MAX_VALUE / 2;
+
+    private final Map<String, Integer> routeIndex = new HashMap<>();
+
+    private final List<String> routes = new ArrayList<>();
+
+    private final int defaultRoute;
+
+    private final int bulkItemRoute;
+
+    private final boolean enabled;
+
+    private final long[] intervalNanos;
+
+    private final long[] burstNanos;
+
+    private final LongAdder[] allowed;
+
+    private final LongAdder[] rejected;
+
+    private final Cache<String, AtomicLongArray> clients;
+
+    private final long origin = System.nanoTime();
+
+    public CouponRateLimiter(final CouponRateLimitProperties properties) {
+        List<Limit> limits = new ArrayList<>();
+        properties.getRoutes().forEach((route, limit) -> {
+            routeIndex.put(route, routes.size());
+            routes.add(route);
+            limits.add(limit);
+        });
+        if (properties.getDefaultLimit() != null) {
+            routes.add(DEFAULT_ROUTE);
+            limits.add(properties.getDefaultLimit());
+        }
+        this.defaultRoute = properties.getDefaultLimit() != null ? routes.size() - 1 : UNLIMITED;
+        this.bulkItemRoute = route(COUPON_APPLY_BULK_PATH);
+        this.enabled = properties.isEnabled();
+
+        int size = limits.size();
+        this.intervalNanos = new long[size];
+        this.burstNanos = new long[size];
+        this.allowed = new LongAdder[size];
+        this.rejected = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            Limit limit = limits.get(i);
+            intervalNanos[i] = (long) Math.min(MAX_INTERVAL_NANOS, TimeUnit.SECONDS.toNanos(1) / limit.getRefillPerSecond());
+            burstNanos[i] = intervalNanos[i] > MAX_BURST_NANOS / limit.getCapacity()
+                    ? MAX_BURST_NANOS
+                    : intervalNanos[i] * limit.getCapacity();
+            allowed[i] = new LongAdder();
+            rejected[i] = new LongAdder();
+        }
+
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumClients())
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Index of the limit that applies to a route below the API prefix, or {@link #UNLIMITED}. A trailing slash
+     * is ignored, as the controller mappings ignore it.
+     */
+    public int route(final String route) {
+        return routeIndex.getOrDefault(normalize(route), defaultRoute);
+    }
+
+    /**
+     * Whether requests to a route are charged per streamed item by their handler instead of once per request.
+     */
+    public boolean chargedPerItem(final String route) {
+        return COUPON_APPLY_BULK_PATH.equals(normalize(route));
+    }
+
+    /**
+     * Takes one token of the bulk apply limit for an item of a bulk request. Always succeeds when rate limiting is
+     * disabled or the route is unlimited.
+     */
+    public boolean tryAcquireItem(final String client) {
+        return !enabled || bulkItemRoute == UNLIMITED || tryAcquire(client, bulkItemRoute) == 0;
+    }
+
+    /**
+     * Takes one token and returns 0, or returns how many nanoseconds remain until the next token without taking it.
+     */
+    public long tryAcquire(final String client, final int route) {
+        AtomicLongArray buckets = clients.get(client, key -> new AtomicLongArray(routes.size()));
+        long now = System.nanoTime() - origin;
+
+        while (true) {
+            long arrival = buckets.get(route);
+            long next = Math.max(arrival, now) + intervalNanos[route];
+            long wait = next - now - burstNanos[route];
+            if (wait > 0) {
+                rejected[route].increment();
+                return wait;
+            }
+            if (buckets.compareAndSet(route, arrival, next)) {
+                allowed[route].increment();
+                return 0;
+            }
+        }
+    }
+
+    private static String normalize(final String route) {
+        return route.length() > 1 && route.endsWith("/") ? route.substring(0, route.length() - 1) : route;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, clients, CACHE_NAME);
+        for (int i = 0; i < routes.size(); i++) {
+            FunctionCounter.builder("coupon.ratelimit.requests", allowed[i], LongAdder::doubleValue)
+                    .description("Requests checked against a rate limit")
+                    .tag("route", routes.get(i))
+                    .tag("result", "allowed")
+                    .register(registry);
+            FunctionCounter.builder("coupon.ratelimit.requests", rejected[i], LongAdder::doubleValue)
+                    .description("Requests checked against a rate limit")
+                    .tag("route", routes.get(i))
+                    .tag("result", "rejected")
+                    .register(registry);
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package schwarz.jobs.interview.coupon.web.ratelimit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponRateLimitProperties;
+import schwarz.jobs.interview.coupon.core.metrics.CouponOutcome;
+import schwarz.jobs.interview.coupon.core.metrics.CouponOutcomeMetrics;
+import schwarz.jobs.interview.coupon.web.ClientResolver;
+import schwarz.jobs.interview.coupon.web.errors.TooManyRequestsError;
+
+import java.util.concurrent.TimeUnit;
+
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.API_PREFIX;
+import static schwarz.jobs.interview.coupon.constants.ErrorMessages.RATE_LIMIT_EXCEEDED;
+
+/**
+ * Applies {@link CouponRateLimiter} to the coupon API before the request body is read. Rejected requests get the
+ * same error body as the controller errors, a 429 status and a {@code Retry-After} header. Routes charged per
+ * streamed item are passed through to their handler.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitWebFilter implements WebFilter {
+
+    private final CouponRateLimiter rateLimiter;
+
+    private final ClientResolver clientResolver;
+
+    private final CouponRateLimitProperties properties;
+
+    private final CouponOutcomeMetrics outcomeMetrics;
+
+    private final byte[] errorBody;
+
+    public RateLimitWebFilter(final CouponRateLimiter rateLimiter,
+                              final ClientResolver clientResolver,
+                              final CouponRateLimitProperties properties,
+                              final CouponOutcomeMetrics outcomeMetrics,
+                              final ObjectMapper objectMapper) throws JsonProcessingException {
+        this.rateLimiter = rateLimiter;
+        this.clientResolver = clientResolver;
+        this.properties = properties;
+        this.outcomeMetrics = outcomeMetrics;
+        this.errorBody = objectMapper.writeValueAsBytes(TooManyRequestsError.builder()
+                .message(RATE_LIMIT_EXCEEDED)
+                .build());
+    }
+
+    @Override
+    public Mono<Void> filter(final ServerWebExchange exchange, final WebFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!path.startsWith(API_PREFIX)) {
+            return chain.filter(exchange);
+        }
+
+        String apiRoute = path.substring(API_PREFIX.length());
+        if (rateLimiter.chargedPerItem(apiRoute)) {
+            return chain.filter(exchange);
+        }
+
+        int route = rateLimiter.route(apiRoute);
+        if (route == CouponRateLimiter.UNLIMITED) {
+            return chain.filter(exchange);
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(clientResolver.resolve(exchange.getRequest()), route);
+        if (waitNanos == 0) {
+            return chain.filter(exchange);
+        }
+
+        outcomeMetrics.record(CouponOutcome.RATE_LIMITED);
+        return reject(exchange.getResponse(), waitNanos);
+    }
+
+    private Mono<Void> reject(final ServerHttpResponse response, final long waitNanos) {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(errorBody)));
+    }
+
+}
@@ -0,0 +1,27 @@
+DROP TABLE IF EXISTS coupon_redemptions;
+DROP TABLE IF EXISTS coupons;
+
+CREATE TABLE coupons
+(
+    ID                BIGINT AUTO_INCREMENT PRIMARY KEY,
+    CODE              VARCHAR(8) UNIQUE NOT NULL,
+    DISCOUNT          DECIMAL(10, 2)      NOT NULL,
+    MIN_BASKET_VALUE  DECIMAL(10, 2)      NOT NULL,
+    MAX_REDEMPTIONS   INT,
+    DISCOUNT_BUDGET   DECIMAL(12, 2),
+    REDEMPTIONS       BIGINT DEFAULT 0    NOT NULL,
+    REDEEMED_DISCOUNT DECIMAL(18, 2) DEFAULT 0 NOT NULL
+);
+
+CREATE UNIQUE INDEX idx_coupon_code ON coupons (CODE);
+
+CREATE TABLE coupon_redemptions
+(
+    ID           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    CODE         VARCHAR(8)               NOT NULL,
+    BASKET_VALUE DECIMAL(10, 2)           NOT NULL,
+    DISCOUNT     DECIMAL(10, 2)           NOT NULL,
+    REDEEMED_AT  TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_coupon_redemptions_code ON coupon_redemptions (CODE);
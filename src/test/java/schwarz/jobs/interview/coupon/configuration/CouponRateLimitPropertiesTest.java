@@ -0,0 +1,31 @@
+package schwarz.jobs.interview.coupon.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponRateLimitPropertiesTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void limits_should_require_a_positive_capacity_and_refill() {
+        CouponRateLimitProperties.Limit noRefill = new CouponRateLimitProperties.Limit();
+        noRefill.setCapacity(10);
+
+        CouponRateLimitProperties.Limit noCapacity = new CouponRateLimitProperties.Limit();
+        noCapacity.setRefillPerSecond(1);
+
+        CouponRateLimitProperties properties = new CouponRateLimitProperties();
+        properties.getRoutes().put("/apply", noRefill);
+        properties.setDefaultLimit(noCapacity);
+
+        assertThat(validator.validate(properties))
+                .extracting(violation -> violation.getPropertyPath().toString())
+                .containsExactlyInAnyOrder("routes[/apply].refillPerSecond", "defaultLimit.capacity");
+    }
+
+}
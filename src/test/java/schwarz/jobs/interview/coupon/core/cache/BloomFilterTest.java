@@ -0,0 +1,34 @@
+package schwarz.jobs.interview.coupon.core.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void should_never_report_false_negatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        IntStream.range(0, 10_000).forEach(i -> filter.put(String.format("CODE%04d", i)));
+
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> filter.mightContain(String.format("CODE%04d", i))))
+                .isTrue();
+    }
+
+    @Test
+    void should_keep_false_positive_rate_near_configured_probability() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+
+        IntStream.range(0, 10_000).forEach(i -> filter.put(String.format("KNOWN%03d", i)));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain(String.format("U%07d", i)))
+                .count();
+
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+}
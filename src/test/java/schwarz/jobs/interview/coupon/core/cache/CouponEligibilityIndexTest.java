@@ -0,0 +1,115 @@
+package schwarz.jobs.interview.coupon.core.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.configuration.CouponRecommendationProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+import schwarz.jobs.interview.coupon.core.models.Money;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CouponEligibilityIndexTest {
+
+    private final CouponStore couponStore;
+
+    private final CouponEligibilityIndex index;
+
+    CouponEligibilityIndexTest(@Mock CouponStore couponStore) {
+        this.couponStore = couponStore;
+        this.index = new CouponEligibilityIndex(couponStore, new CouponRecommendationProperties(),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void best_should_match_a_full_scan_for_random_baskets() {
+        Random random = new Random(42);
+        List<Coupon> coupons = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            // few distinct discounts, so ties are broken by code
+            Coupon coupon = coupon(CouponCodes.unpack(random.nextInt(1 << 30)), 100 * (1 + random.nextInt(50)),
+                    random.nextInt(20_000));
+            coupons.add(coupon);
+            index.add(coupon);
+            index.add(coupon);
+        }
+        long distinct = coupons.stream().map(Coupon::getCode).distinct().count();
+        assertThat(index.size()).isEqualTo(distinct);
+
+        for (int query = 0; query < 500; query++) {
+            long basketValue = random.nextInt(25_000);
+            long maxDiscount = basketValue - random.nextInt(1_000);
+            int limit = 1 + random.nextInt(10);
+
+            List<String> expected = coupons.stream()
+                    .filter(coupon -> coupon.getMinBasketValueCents() <= basketValue
+                            && coupon.getDiscountCents() <= maxDiscount)
+                    .sorted(Comparator.comparingLong(Coupon::getDiscountCents).reversed()
+                            .thenComparing(Coupon::getCode))
+                    .map(Coupon::getCode)
+                    .distinct()
+                    .limit(limit)
+                    .collect(Collectors.toList());
+
+            assertThat(codes(index.best(basketValue, maxDiscount, limit, coupon -> true)))
+                    .as("basket %d, max discount %d, limit %d", basketValue, maxDiscount, limit)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void best_should_pass_over_unavailable_limited_coupons() {
+        Coupon exhausted = Coupon.builder()
+                .code("LIMITED1")
+                .discount(new BigDecimal("9.00"))
+                .minBasketValue(BigDecimal.ZERO)
+                .maxRedemptions(1)
+                .build();
+        index.add(exhausted);
+        index.add(coupon("PLAIN001", 800, 0));
+        index.add(coupon("PLAIN002", 700, 0));
+
+        List<Coupon> best = index.best(10_000, 10_000, 2, coupon -> !coupon.getCode().equals("LIMITED1"));
+
+        assertThat(codes(best)).containsExactly("PLAIN001", "PLAIN002");
+    }
+
+    @Test
+    void load_should_index_every_coupon() {
+        when(couponStore.findAll()).thenReturn(Flux.just(coupon("FIRST001", 500, 1000), coupon("SECOND01", 700, 0)));
+
+        StepVerifier.create(index.load())
+                .expectNext(2L)
+                .verifyComplete();
+
+        assertThat(codes(index.best(999, 999, 5, coupon -> true))).containsExactly("SECOND01");
+    }
+
+    private static List<String> codes(final List<Coupon> coupons) {
+        return coupons.stream().map(Coupon::getCode).collect(Collectors.toList());
+    }
+
+    private static Coupon coupon(final String code, final long discountCents, final long minBasketCents) {
+        return Coupon.builder()
+                .code(code)
+                .discount(Money.toBigDecimal(discountCents))
+                .minBasketValue(Money.toBigDecimal(minBasketCents))
+                .build();
+    }
+
+}
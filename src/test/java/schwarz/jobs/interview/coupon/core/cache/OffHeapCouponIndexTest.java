@@ -0,0 +1,170 @@
+package schwarz.jobs.interview.coupon.core.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.configuration.CouponIndexProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OffHeapCouponIndexTest {
+
+    private final CouponStore couponStore;
+
+    private final CouponIndexProperties properties = new CouponIndexProperties();
+
+    OffHeapCouponIndexTest(@Mock CouponStore couponStore) {
+        this.couponStore = couponStore;
+        properties.setExpectedEntries(100_000);
+    }
+
+    @Test
+    void get_should_rebuild_the_coupon_from_its_slot() {
+        OffHeapCouponIndex index = index();
+
+        assertThat(index.put(coupon(7L, "SUMMER24", "12.34", "99999999.99"))).isTrue();
+
+        Coupon found = index.get("SUMMER24");
+        assertThat(found.getId()).isEqualTo(7L);
+        assertThat(found.getCode()).isEqualTo("SUMMER24");
+        assertThat(found.getDiscount()).isEqualTo(new BigDecimal("12.34"));
+        assertThat(found.getMinBasketValue()).isEqualTo(new BigDecimal("99999999.99"));
+        assertThat(found.getDiscountCents()).isEqualTo(1_234L);
+        assertThat(found.getMinBasketValueCents()).isEqualTo(9_999_999_999L);
+        assertThat(found.isRedemptionLimited()).isFalse();
+        assertThat(index.get("SUMMER25")).isNull();
+        assertThat(index.get("bad code")).isNull();
+    }
+
+    @Test
+    void put_should_refuse_coupons_with_redemption_limits() {
+        OffHeapCouponIndex index = index();
+        Coupon limited = Coupon.builder()
+                .code("LIMITED1")
+                .discount(BigDecimal.ONE)
+                .minBasketValue(BigDecimal.TEN)
+                .maxRedemptions(5)
+                .build();
+
+        assertThat(index.put(limited)).isFalse();
+        assertThat(index.get("LIMITED1")).isNull();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void put_should_keep_the_first_copy_of_a_code() {
+        OffHeapCouponIndex index = index();
+
+        assertThat(index.put(coupon(1L, "SUMMER24", "1.00", "10.00"))).isTrue();
+        assertThat(index.put(coupon(2L, "SUMMER24", "2.00", "20.00"))).isTrue();
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.get("SUMMER24").getDiscount()).isEqualTo(new BigDecimal("1.00"));
+    }
+
+    @Test
+    void put_should_refuse_coupons_once_full() {
+        properties.setExpectedEntries(1);
+        OffHeapCouponIndex index = index();
+
+        long accepted = IntStream.range(0, (int) index.capacity() + 10)
+                .filter(i -> index.put(coupon((long) i, CouponCodes.unpack(i), "1.00", "10.00")))
+                .count();
+
+        assertThat(accepted).isEqualTo(index.capacity());
+        assertThat(index.get(CouponCodes.unpack(0))).isNotNull();
+    }
+
+    @Test
+    void disabled_index_should_hold_nothing() {
+        properties.setEnabled(false);
+        OffHeapCouponIndex index = index();
+
+        assertThat(index.put(coupon(1L, "SUMMER24", "1.00", "10.00"))).isFalse();
+        assertThat(index.get("SUMMER24")).isNull();
+        assertThat(index.memoryBytes()).isZero();
+    }
+
+    @Test
+    void load_should_index_the_coupons_table() {
+        List<Coupon> coupons = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            coupons.add(coupon((long) i + 1, CouponCodes.unpack(i * 7919L), "5.00", "20.00"));
+        }
+        coupons.add(Coupon.builder().code("LIMITED1").discount(BigDecimal.ONE).minBasketValue(BigDecimal.TEN)
+                .discountBudget(BigDecimal.TEN).build());
+        when(couponStore.findAll()).thenReturn(Flux.fromIterable(coupons));
+
+        OffHeapCouponIndex index = index();
+
+        StepVerifier.create(index.load()).expectNext(50_000L).verifyComplete();
+
+        for (Coupon coupon : coupons.subList(0, 50_000)) {
+            assertThat(index.get(coupon.getCode()).getId()).isEqualTo(coupon.getId());
+        }
+        assertThat(index.memoryBytes()).isGreaterThanOrEqualTo(50_000L * OffHeapCouponIndex.SLOT_BYTES);
+    }
+
+    @Test
+    void readers_should_see_complete_slots_while_writing() throws Exception {
+        OffHeapCouponIndex index = index();
+        int count = 50_000;
+        ExecutorService readers = Executors.newFixedThreadPool(3);
+
+        try {
+            List<CompletableFuture<Void>> reads = new ArrayList<>();
+            for (int r = 0; r < 3; r++) {
+                reads.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < count; i++) {
+                        Coupon found = index.get(CouponCodes.unpack(i));
+                        if (found != null) {
+                            assertThat(found.getId()).isEqualTo(i + 1L);
+                            assertThat(found.getDiscountCents()).isEqualTo(i);
+                        }
+                    }
+                }, readers));
+            }
+
+            for (int i = 0; i < count; i++) {
+                index.put(coupon(i + 1L, CouponCodes.unpack(i), BigDecimal.valueOf(i, 2).toPlainString(), "0.00"));
+            }
+
+            CompletableFuture.allOf(reads.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            readers.shutdownNow();
+        }
+
+        assertThat(index.size()).isEqualTo(count);
+    }
+
+    private OffHeapCouponIndex index() {
+        return new OffHeapCouponIndex(couponStore, properties, new SimpleMeterRegistry());
+    }
+
+    private static Coupon coupon(final Long id, final String code, final String discount, final String minBasketValue) {
+        return Coupon.builder()
+                .id(id)
+                .code(code)
+                .discount(new BigDecimal(discount))
+                .minBasketValue(new BigDecimal(minBasketValue))
+                .build();
+    }
+
+}
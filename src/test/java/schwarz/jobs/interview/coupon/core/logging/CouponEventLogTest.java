@@ -0,0 +1,108 @@
+package schwarz.jobs.interview.coupon.core.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponEventLogProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponEventLogTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger("coupon.events");
+
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+
+    @BeforeEach
+    void attachAppender() {
+        appender.start();
+        logger.addAppender(appender);
+    }
+
+    @AfterEach
+    void detachAppender() {
+        logger.detachAppender(appender);
+    }
+
+    @Test
+    void drain_should_write_events_in_order_as_key_value_lines() {
+        CouponEventLog eventLog = new CouponEventLog(new CouponEventLogProperties());
+
+        eventLog.created("SUMMER24", new BigDecimal("10.00"), new BigDecimal("50.00"));
+        eventLog.applied("SUMMER24", new BigDecimal("60.00"), new BigDecimal("10.00"));
+
+        assertThat(appender.list).isEmpty();
+        assertThat(eventLog.drain()).isEqualTo(2);
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+                .satisfiesExactly(
+                        line -> assertThat(line).startsWith("event=coupon_created code=SUMMER24 min_basket_value=50.00 discount=10.00 at="),
+                        line -> assertThat(line).startsWith("event=coupon_applied code=SUMMER24 basket_value=60.00 applied_discount=10.00 at="));
+    }
+
+    @Test
+    void full_buffer_should_drop_and_count_events() {
+        CouponEventLogProperties properties = new CouponEventLogProperties();
+        properties.setBufferSize(4);
+        CouponEventLog eventLog = new CouponEventLog(properties);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        eventLog.bindTo(registry);
+
+        for (int i = 0; i < 6; i++) {
+            eventLog.applied("SUMMER24", BigDecimal.TEN, BigDecimal.ONE);
+        }
+
+        assertThat(eventLog.drain()).isEqualTo(4);
+        assertThat(registry.get("coupon.events.dropped").tag("reason", "buffer_full").functionCounter().count()).isEqualTo(2);
+
+        eventLog.applied("SUMMER24", BigDecimal.TEN, BigDecimal.ONE);
+        assertThat(eventLog.drain()).isEqualTo(1);
+    }
+
+    @Test
+    void sampled_out_events_should_never_reach_the_buffer() {
+        CouponEventLogProperties properties = new CouponEventLogProperties();
+        properties.setSampleRate(0);
+        CouponEventLog eventLog = new CouponEventLog(properties);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        eventLog.bindTo(registry);
+
+        eventLog.applied("SUMMER24", BigDecimal.TEN, BigDecimal.ONE);
+
+        assertThat(eventLog.drain()).isZero();
+        assertThat(registry.get("coupon.events.dropped").tag("reason", "sampled_out").functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("coupon.events.published").functionCounter().count()).isZero();
+    }
+
+    @Test
+    void publish_should_wake_an_idle_writer() throws Exception {
+        CouponEventLogProperties properties = new CouponEventLogProperties();
+        properties.setIdleWait(Duration.ofHours(1));
+        CouponEventLog eventLog = new CouponEventLog(properties);
+        eventLog.onApplicationReady();
+
+        try {
+            // let the writer find the buffer empty and park
+            Thread.sleep(50);
+            eventLog.applied("SUMMER24", BigDecimal.TEN, BigDecimal.ONE);
+
+            Integer written = Mono.fromCallable(() -> appender.list.size())
+                    .filter(size -> size == 1)
+                    .repeatWhenEmpty(40, attempts -> attempts.delayElements(Duration.ofMillis(50)))
+                    .block();
+            assertThat(written).isEqualTo(1);
+        } finally {
+            eventLog.destroy();
+        }
+    }
+
+}
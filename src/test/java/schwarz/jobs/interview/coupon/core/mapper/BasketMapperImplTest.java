@@ -23,15 +23,15 @@ class BasketMapperImplTest {
     @Test
     void should_map_basket_to_dto() {
         Basket basket = Basket.builder()
-                .value(BigDecimal.TEN)
-                .appliedDiscount(BigDecimal.ONE)
+                .value(1000L)
+                .appliedDiscount(100L)
                 .applicationSuccessful(Boolean.TRUE)
                 .build();
 
         BasketDTO dto = basketMapper.toDto(basket);
 
-        assertThat(dto.getValue()).isEqualTo(BigDecimal.TEN);
-        assertThat(dto.getAppliedDiscount()).isEqualTo(BigDecimal.ONE);
+        assertThat(dto.getValue()).isEqualTo(new BigDecimal("10.00"));
+        assertThat(dto.getAppliedDiscount()).isEqualTo(new BigDecimal("1.00"));
         assertThat(dto.isApplicationSuccessful()).isEqualTo(Boolean.TRUE);
     }
 
@@ -45,8 +45,8 @@ class BasketMapperImplTest {
 
         Basket basket = basketMapper.toBasket(dto);
 
-        assertThat(basket.getValue()).isEqualTo(BigDecimal.TEN);
-        assertThat(basket.getAppliedDiscount()).isEqualTo(BigDecimal.ONE);
+        assertThat(basket.getValue()).isEqualTo(1000L);
+        assertThat(basket.getAppliedDiscount()).isEqualTo(100L);
         assertThat(basket.isApplicationSuccessful()).isEqualTo(Boolean.TRUE);
     }
 
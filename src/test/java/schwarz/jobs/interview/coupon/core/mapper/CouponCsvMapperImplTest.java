@@ -0,0 +1,51 @@
+package schwarz.jobs.interview.coupon.core.mapper;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import schwarz.jobs.interview.coupon.core.mapper.impl.CouponCsvMapperImpl;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class CouponCsvMapperImplTest {
+
+    private final CouponCsvMapperImpl csvMapper;
+
+    CouponCsvMapperImplTest() {
+        this.csvMapper = new CouponCsvMapperImpl();
+    }
+
+    @Test
+    void should_map_csv_line_to_dto() {
+        Map<String, String> errors = new HashMap<>();
+
+        CouponDTO dto = csvMapper.toDto("SUMMER24, 10.50 ,50", errors);
+
+        assertThat(errors).isEmpty();
+        assertThat(dto.getCode()).isEqualTo("SUMMER24");
+        assertThat(dto.getDiscount()).isEqualTo(new BigDecimal("10.50"));
+        assertThat(dto.getMinBasketValue()).isEqualTo(BigDecimal.valueOf(50));
+    }
+
+    @Test
+    void should_report_malformed_lines_and_numbers() {
+        Map<String, String> columns = new HashMap<>();
+        Map<String, String> numbers = new HashMap<>();
+
+        csvMapper.toDto("SUMMER24,10", columns);
+        CouponDTO dto = csvMapper.toDto("SUMMER24,ten,50", numbers);
+
+        assertThat(columns).containsOnlyKeys("row");
+        assertThat(numbers).containsOnlyKeys("discount");
+        assertThat(dto.getCode()).isEqualTo("SUMMER24");
+        assertThat(csvMapper.isHeader("Code,Discount,MinBasketValue")).isTrue();
+        assertThat(csvMapper.isHeader("SUMMER24,10,50")).isFalse();
+    }
+
+}
@@ -0,0 +1,59 @@
+package schwarz.jobs.interview.coupon.core.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RepositoryMetricsPostProcessorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void queries_should_be_timed_per_method_on_termination(@Mock CouponStore couponStore,
+                                                           @Mock ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        when(meterRegistryProvider.getObject()).thenReturn(meterRegistry);
+        when(couponStore.findByCode("SUMMER24")).thenReturn(Mono.just(Coupon.builder().code("SUMMER24").build()));
+        when(couponStore.findByCodeIn(List.of("SUMMER24"))).thenReturn(Flux.error(new IllegalStateException()));
+
+        CouponStore timed = (CouponStore) new RepositoryMetricsPostProcessor(meterRegistryProvider)
+                .postProcessAfterInitialization(couponStore, "couponStore");
+
+        Mono<Coupon> lookup = timed.findByCode("SUMMER24");
+        assertThat(meterRegistry.find("coupon.repository.query").timers()).isEmpty();
+
+        StepVerifier.create(lookup).expectNextCount(1).verifyComplete();
+        StepVerifier.create(timed.findByCodeIn(List.of("SUMMER24"))).verifyError(IllegalStateException.class);
+
+        Timer findByCode = meterRegistry.get("coupon.repository.query")
+                .tag("method", "findByCode").tag("signal", "on_complete").timer();
+        Timer findByCodeIn = meterRegistry.get("coupon.repository.query")
+                .tag("method", "findByCodeIn").tag("signal", "on_error").timer();
+        assertThat(findByCode.count()).isEqualTo(1);
+        assertThat(findByCodeIn.count()).isEqualTo(1);
+    }
+
+    @Test
+    void other_beans_should_pass_through_unchanged(@Mock ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        Object bean = new Object();
+
+        assertThat(new RepositoryMetricsPostProcessor(meterRegistryProvider)
+                .postProcessAfterInitialization(bean, "bean")).isSameAs(bean);
+    }
+
+}
@@ -0,0 +1,41 @@
+package schwarz.jobs.interview.coupon.core.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TimedConnectionFactoryTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void acquire_should_be_timed_and_pool_stay_reachable(@Mock ConnectionFactory pool,
+                                                         @Mock Connection connection,
+                                                         @Mock ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        when(meterRegistryProvider.getObject()).thenReturn(meterRegistry);
+        doReturn(Mono.just(connection)).when(pool).create();
+
+        TimedConnectionFactory connectionFactory = new TimedConnectionFactory(pool, "connectionFactory", meterRegistryProvider);
+
+        StepVerifier.create(Mono.<Connection>from(connectionFactory.create())).expectNext(connection).verifyComplete();
+        StepVerifier.create(Mono.<Connection>from(connectionFactory.create())).expectNext(connection).verifyComplete();
+
+        assertThat(meterRegistry.get("r2dbc.pool.acquire").tag("name", "connectionFactory").timer().count())
+                .isEqualTo(2);
+        assertThat(connectionFactory.unwrap()).isSameAs(pool);
+    }
+
+}
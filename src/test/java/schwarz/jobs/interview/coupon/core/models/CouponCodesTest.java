@@ -0,0 +1,41 @@
+package schwarz.jobs.interview.coupon.core.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponCodesTest {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    @Test
+    void should_pack_every_code_into_48_bits() {
+        assertThat(CouponCodes.pack("00000000")).isZero();
+        assertThat(CouponCodes.pack("zzzzzzzz")).isLessThan(1L << 48);
+        assertThat(CouponCodes.unpack(CouponCodes.pack("zzzzzzzz"))).isEqualTo("zzzzzzzz");
+    }
+
+    @Test
+    void should_round_trip_random_codes() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            StringBuilder code = new StringBuilder();
+            for (int c = 0; c < CouponCodes.LENGTH; c++) {
+                code.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            assertThat(CouponCodes.unpack(CouponCodes.pack(code.toString()))).isEqualTo(code.toString());
+        }
+    }
+
+    @Test
+    void should_reject_malformed_codes() {
+        assertThat(CouponCodes.pack(null)).isEqualTo(CouponCodes.INVALID);
+        assertThat(CouponCodes.pack("SHORT")).isEqualTo(CouponCodes.INVALID);
+        assertThat(CouponCodes.pack("TOOLONG12")).isEqualTo(CouponCodes.INVALID);
+        assertThat(CouponCodes.pack("BAD-CODE")).isEqualTo(CouponCodes.INVALID);
+    }
+
+}
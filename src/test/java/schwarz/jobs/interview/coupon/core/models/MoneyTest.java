@@ -0,0 +1,38 @@
+package schwarz.jobs.interview.coupon.core.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void should_convert_amounts_to_cents_exactly() {
+        assertThat(Money.toCents(new BigDecimal("10"))).isEqualTo(1000L);
+        assertThat(Money.toCents(new BigDecimal("10.5"))).isEqualTo(1050L);
+        assertThat(Money.toCents(new BigDecimal("0.01"))).isEqualTo(1L);
+        assertThat(Money.toCents(new BigDecimal("99999999.99"))).isEqualTo(9_999_999_999L);
+        assertThat(Money.toCents(new BigDecimal("1E+2"))).isEqualTo(10_000L);
+    }
+
+    @Test
+    void should_reject_sub_cent_precision() {
+        assertThatThrownBy(() -> Money.toCents(new BigDecimal("0.001")))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void should_round_trip_every_two_decimal_amount() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong() % 10_000_000_000L, 2);
+            assertThat(Money.toBigDecimal(Money.toCents(amount))).isEqualTo(amount.setScale(2));
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package schwarz.jobs.interview.coupon.core.repository.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CouponJournalTest {
+
+    private static final long REGION_SIZE = 10L * CouponJournal.RECORD_BYTES;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopen_should_replay_every_record_across_regions() throws IOException {
+        Path path = directory.resolve("coupons.journal");
+
+        try (CouponJournal journal = CouponJournal.open(path, REGION_SIZE, (coupon, position) -> { })) {
+            for (int i = 0; i < 25; i++) {
+                journal.append(coupon(i));
+            }
+            journal.append(Coupon.builder()
+                    .id(26L)
+                    .code("LIMITED1")
+                    .discount(new BigDecimal("2.50"))
+                    .minBasketValue(BigDecimal.ZERO)
+                    .maxRedemptions(100)
+                    .discountBudget(new BigDecimal("500.00"))
+                    .redemptions(7)
+                    .redeemedDiscount(new BigDecimal("17.50"))
+                    .build());
+        }
+
+        List<Coupon> replayed = replay(path);
+
+        assertThat(replayed).hasSize(26);
+        assertThat(replayed.get(3)).isEqualTo(coupon(3));
+        assertThat(replayed.get(25).getMaxRedemptions()).isEqualTo(100);
+        assertThat(replayed.get(25).getDiscountBudget()).isEqualTo(new BigDecimal("500.00"));
+        assertThat(replayed.get(25).getRedemptions()).isEqualTo(7);
+        assertThat(replayed.get(25).getRedeemedDiscount()).isEqualTo(new BigDecimal("17.50"));
+        assertThat(Files.size(path)).isEqualTo(3 * REGION_SIZE);
+    }
+
+    @Test
+    void recovery_should_stop_at_a_torn_record_and_discard_the_tail() throws IOException {
+        Path path = directory.resolve("coupons.journal");
+
+        try (CouponJournal journal = CouponJournal.open(path, REGION_SIZE, (coupon, position) -> { })) {
+            for (int i = 0; i < 5; i++) {
+                journal.append(coupon(i));
+            }
+        }
+
+        // a crash left the third record half written
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(2L * CouponJournal.RECORD_BYTES + 30);
+            file.write(0x7f);
+        }
+
+        try (CouponJournal journal = CouponJournal.open(path, REGION_SIZE, (coupon, position) -> { })) {
+            assertThat(journal.end()).isEqualTo(2L * CouponJournal.RECORD_BYTES);
+            journal.append(coupon(9));
+        }
+
+        assertThat(replay(path)).containsExactly(coupon(0), coupon(1), coupon(9));
+    }
+
+    @Test
+    void open_should_reject_region_sizes_that_split_records() {
+        Path path = directory.resolve("coupons.journal");
+
+        assertThatThrownBy(() -> CouponJournal.open(path, 100, (coupon, position) -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Coupon> replay(final Path path) throws IOException {
+        List<Coupon> replayed = new ArrayList<>();
+        CouponJournal.open(path, REGION_SIZE, (coupon, position) -> replayed.add(coupon)).close();
+        return replayed;
+    }
+
+    private static Coupon coupon(final int i) {
+        return Coupon.builder()
+                .id(i + 1L)
+                .code(CouponCodes.unpack(1_000_000L + i))
+                .discount(BigDecimal.valueOf(i, 2))
+                .minBasketValue(BigDecimal.valueOf(1000 + i, 2))
+                .redeemedDiscount(new BigDecimal("0.00"))
+                .build();
+    }
+
+}
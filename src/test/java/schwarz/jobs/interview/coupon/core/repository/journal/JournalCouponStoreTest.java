@@ -0,0 +1,197 @@
+package schwarz.jobs.interview.coupon.core.repository.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.configuration.CouponStorageProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.RedemptionDelta;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalCouponStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private JournalCouponStore store;
+
+    @AfterEach
+    void close() throws Exception {
+        if (store != null) {
+            store.destroy();
+        }
+    }
+
+    @Test
+    void save_should_assign_ids_and_reject_duplicate_codes() throws Exception {
+        store = open();
+
+        Coupon summer = coupon("SUMMER24");
+        StepVerifier.create(store.save(summer))
+                .assertNext(saved -> assertThat(saved.getId()).isEqualTo(1L))
+                .verifyComplete();
+        assertThat(summer.getId()).isNull();
+        StepVerifier.create(store.save(coupon("WINTER24")))
+                .assertNext(saved -> assertThat(saved.getId()).isEqualTo(2L))
+                .verifyComplete();
+        StepVerifier.create(store.save(coupon("SUMMER24")))
+                .expectError(DuplicateKeyException.class)
+                .verify();
+
+        StepVerifier.create(store.findByCode("SUMMER24"))
+                .assertNext(found -> assertThat(found.getDiscount()).isEqualTo(new BigDecimal("5.00")))
+                .verifyComplete();
+        StepVerifier.create(store.findByCode("UNKNOWN1")).verifyComplete();
+        StepVerifier.create(store.findByCodeIn(List.of("WINTER24", "UNKNOWN1", "WINTER24")).map(Coupon::getCode))
+                .expectNext("WINTER24")
+                .verifyComplete();
+    }
+
+    @Test
+    void reopen_should_recover_the_latest_state_of_every_coupon() throws Exception {
+        store = open();
+        store.save(coupon("SUMMER24")).block();
+        store.save(Coupon.builder()
+                .code("LIMITED1")
+                .discount(BigDecimal.ONE)
+                .minBasketValue(BigDecimal.ZERO)
+                .maxRedemptions(10)
+                .build()).block();
+
+        StepVerifier.create(store.addRedemptions(List.of(
+                        RedemptionDelta.builder().code("LIMITED1").redemptions(3).discountCents(300).build(),
+                        RedemptionDelta.builder().code("UNKNOWN1").redemptions(1).discountCents(100).build())))
+                .expectNext(1L)
+                .verifyComplete();
+        store.destroy();
+
+        store = open();
+
+        assertThat(store.size()).isEqualTo(2);
+        StepVerifier.create(store.findByCode("LIMITED1"))
+                .assertNext(found -> {
+                    assertThat(found.getId()).isEqualTo(2L);
+                    assertThat(found.getRedemptions()).isEqualTo(3);
+                    assertThat(found.getRedeemedDiscount()).isEqualTo(new BigDecimal("3.00"));
+                })
+                .verifyComplete();
+        StepVerifier.create(store.findAllCodes().sort())
+                .expectNext("LIMITED1", "SUMMER24")
+                .verifyComplete();
+        StepVerifier.create(store.save(coupon("THIRD001")))
+                .assertNext(saved -> assertThat(saved.getId()).isEqualTo(3L))
+                .verifyComplete();
+    }
+
+    @Test
+    void concurrent_saves_should_share_syncs() throws Exception {
+        store = open();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+
+        StepVerifier.create(Flux.range(0, 500)
+                        .flatMap(i -> store.save(coupon(String.format("GROUP%03d", i))), 64)
+                        .count())
+                .expectNext(500L)
+                .verifyComplete();
+
+        assertThat(registry.get("coupon.journal.commits").functionCounter().count()).isEqualTo(500);
+        assertThat(registry.get("coupon.journal.syncs").functionCounter().count()).isLessThan(500);
+        StepVerifier.create(store.findAll().count()).expectNext(500L).verifyComplete();
+    }
+
+    @Test
+    void compact_should_keep_only_the_latest_record_of_every_coupon() throws Exception {
+        store = open();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+        store.save(coupon("SUMMER24")).block();
+        store.save(coupon("WINTER24")).block();
+        for (int i = 0; i < 100; i++) {
+            store.addRedemptions(List.of(redemption("SUMMER24"))).block();
+        }
+        assertThat(registry.get("coupon.journal.size").gauge().value()).isEqualTo(102 * 64);
+
+        store.compact();
+
+        assertThat(registry.get("coupon.journal.size").gauge().value()).isEqualTo(2 * 64);
+        assertThat(registry.get("coupon.journal.compactions").functionCounter().count()).isEqualTo(1);
+        StepVerifier.create(store.addRedemptions(List.of(redemption("SUMMER24"))))
+                .expectNext(1L)
+                .verifyComplete();
+        store.destroy();
+
+        store = open();
+
+        StepVerifier.create(store.findByCode("SUMMER24"))
+                .assertNext(found -> {
+                    assertThat(found.getId()).isEqualTo(1L);
+                    assertThat(found.getRedemptions()).isEqualTo(101);
+                })
+                .verifyComplete();
+        StepVerifier.create(store.findAllCodes().sort())
+                .expectNext("SUMMER24", "WINTER24")
+                .verifyComplete();
+    }
+
+    @Test
+    void writes_should_compact_the_journal_once_it_outgrows_its_live_records() throws Exception {
+        store = open(DataSize.ofKilobytes(4));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+        store.save(coupon("SUMMER24")).block();
+
+        for (int i = 0; i < 200; i++) {
+            store.addRedemptions(List.of(redemption("SUMMER24"))).block();
+        }
+
+        // compaction runs in the background, so wait until one completed
+        StepVerifier.create(Mono.fromSupplier(() -> registry.get("coupon.journal.compactions").functionCounter().count())
+                        .filter(compactions -> compactions > 0)
+                        .repeatWhenEmpty(50, attempts -> attempts.delayElements(Duration.ofMillis(100))))
+                .expectNextCount(1)
+                .verifyComplete();
+        assertThat(registry.get("coupon.journal.size").gauge().value()).isLessThan(201 * 64);
+        StepVerifier.create(store.findByCode("SUMMER24"))
+                .assertNext(found -> assertThat(found.getRedemptions()).isEqualTo(200))
+                .verifyComplete();
+    }
+
+    private JournalCouponStore open() throws Exception {
+        return open(DataSize.ofMegabytes(64));
+    }
+
+    private JournalCouponStore open(final DataSize compactionMinSize) throws Exception {
+        CouponStorageProperties properties = new CouponStorageProperties();
+        properties.setEngine(CouponStorageProperties.Engine.JOURNAL);
+        properties.getJournal().setPath(directory.resolve("coupons.journal"));
+        properties.getJournal().setRegionSize(DataSize.ofKilobytes(64));
+        properties.getJournal().setCompactionMinSize(compactionMinSize);
+        return new JournalCouponStore(properties);
+    }
+
+    private static RedemptionDelta redemption(final String code) {
+        return RedemptionDelta.builder().code(code).redemptions(1).discountCents(500).build();
+    }
+
+    private static Coupon coupon(final String code) {
+        return Coupon.builder()
+                .code(code)
+                .discount(new BigDecimal("5.00"))
+                .minBasketValue(BigDecimal.TEN)
+                .build();
+    }
+
+}
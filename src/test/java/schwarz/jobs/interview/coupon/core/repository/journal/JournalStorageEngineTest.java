@@ -0,0 +1,103 @@
+package schwarz.jobs.interview.coupon.core.repository.journal;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+import schwarz.jobs.interview.coupon.core.repository.R2dbcCouponStore;
+import schwarz.jobs.interview.coupon.core.services.CouponImportService;
+import schwarz.jobs.interview.coupon.core.services.CouponService;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+import schwarz.jobs.interview.coupon.web.dto.ImportResultDTO;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "coupon.storage.engine=journal")
+class JournalStorageEngineTest {
+
+    private static final Path DIRECTORY = createDirectory();
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private CouponImportService couponImportService;
+
+    @Autowired
+    private CouponStore couponStore;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @DynamicPropertySource
+    static void journalPath(final DynamicPropertyRegistry registry) {
+        registry.add("coupon.storage.journal.path", () -> DIRECTORY.resolve("coupons.journal").toString());
+    }
+
+    @Test
+    void coupons_should_be_stored_in_the_journal_instead_of_h2() {
+        StepVerifier.create(couponService.createCoupon(CouponDTO.builder()
+                        .code("JOURNAL1")
+                        .discount(BigDecimal.ONE)
+                        .minBasketValue(BigDecimal.TEN)
+                        .build()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(couponImportService.importCoupons(Flux.just(
+                                CouponDTO.builder().code("JOURNAL2").discount(BigDecimal.ONE).minBasketValue(BigDecimal.ZERO).build(),
+                                CouponDTO.builder().code("JOURNAL1").discount(BigDecimal.ONE).minBasketValue(BigDecimal.ZERO).build()))
+                        .map(ImportResultDTO::getResult))
+                .expectNext(ImportResultDTO.Result.CREATED, ImportResultDTO.Result.DUPLICATE)
+                .verifyComplete();
+
+        StepVerifier.create(couponStore.findByCode("JOURNAL2"))
+                .assertNext(coupon -> assertThat(coupon.getMinBasketValue()).isEqualTo(new BigDecimal("0.00")))
+                .verifyComplete();
+        StepVerifier.create(couponStore.findAllCodes().sort())
+                .expectNext("JOURNAL1", "JOURNAL2")
+                .verifyComplete();
+
+        StepVerifier.create(databaseClient.sql("SELECT COUNT(*) FROM COUPONS WHERE CODE LIKE 'JOURNAL%'")
+                        .map(row -> row.get(0, Long.class))
+                        .one())
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
+    @Test
+    void only_the_journal_store_should_be_registered() {
+        assertThat(applicationContext.getBeanNamesForType(CouponStore.class)).containsExactly("journalCouponStore");
+        assertThat(applicationContext.getBeanNamesForType(R2dbcCouponStore.class)).isEmpty();
+        // the timing proxy keeps the journal's own meters
+        assertThat(meterRegistry.find("coupon.journal.coupons").gauge()).isNotNull();
+    }
+
+    private static Path createDirectory() {
+        try {
+            return Files.createTempDirectory("coupon-journal");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.configuration.CouponBatchingProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CouponBatchLoaderTest {
+
+    private final CouponBatchLoader batchLoader;
+    private final CouponStore couponStore;
+    private final CouponBatchingProperties properties = new CouponBatchingProperties();
+
+    CouponBatchLoaderTest(@Mock CouponStore couponStore) {
+        this.couponStore = couponStore;
+
+        properties.setWindow(Duration.ofMillis(50));
+        properties.setMaxBatchSize(4);
+
+        this.batchLoader = new CouponBatchLoader(couponStore, properties, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchLoader.destroy();
+    }
+
+    @Test
+    void load_should_resolve_concurrent_codes_with_batched_queries() {
+        when(couponStore.findByCodeIn(anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<Collection<String>>getArgument(0))
+                        .filter(code -> !code.startsWith("MISS"))
+                        .map(this::coupon));
+
+        Flux<String> resolved = Flux.just("CODE0001", "CODE0002", "MISS0001", "CODE0003", "CODE0004", "CODE0005")
+                .flatMap(code -> batchLoader.load(code).map(Coupon::getCode));
+
+        StepVerifier.create(resolved.collectList())
+                .assertNext(codes -> assertThat(codes)
+                        .containsExactlyInAnyOrder("CODE0001", "CODE0002", "CODE0003", "CODE0004", "CODE0005"))
+                .verifyComplete();
+
+        verify(couponStore, times(2)).findByCodeIn(anyList());
+        assertThat(batchLoader.lookups()).isEqualTo(6);
+        assertThat(batchLoader.queries()).isEqualTo(2);
+    }
+
+    @Test
+    void load_should_propagate_query_failure_to_each_waiting_caller() {
+        when(couponStore.findByCodeIn(anyList()))
+                .thenReturn(Flux.error(new IllegalStateException("db down")));
+
+        StepVerifier.create(batchLoader.load("CODE0001"))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @Test
+    void load_should_accept_lookups_from_many_threads_at_once() {
+        when(couponStore.findByCodeIn(anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<Collection<String>>getArgument(0))
+                        .map(this::coupon));
+
+        Mono<Long> resolved = Flux.range(0, 2_000)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .flatMap(i -> batchLoader.load(String.format("CODE%04d", i)))
+                .sequential()
+                .count();
+
+        StepVerifier.create(resolved).expectNext(2_000L).verifyComplete();
+        assertThat(batchLoader.lookups()).isEqualTo(2_000);
+    }
+
+    @Test
+    void load_should_time_out_when_the_batch_never_completes() {
+        properties.setTimeout(Duration.ofMillis(100));
+        when(couponStore.findByCodeIn(anyList())).thenReturn(Flux.never());
+
+        StepVerifier.create(batchLoader.load("CODE0001"))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private Coupon coupon(String code) {
+        return Coupon.builder()
+                .code(code)
+                .discount(BigDecimal.TEN)
+                .minBasketValue(BigDecimal.valueOf(50))
+                .build();
+    }
+
+}
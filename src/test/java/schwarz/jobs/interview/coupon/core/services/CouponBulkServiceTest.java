@@ -0,0 +1,132 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.configuration.CouponBulkProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.metrics.CouponOutcomeMetrics;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+import schwarz.jobs.interview.coupon.web.dto.ApplicationRequestDTO;
+import schwarz.jobs.interview.coupon.web.dto.ApplicationResultDTO;
+import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
+import schwarz.jobs.interview.coupon.web.errors.TooManyRequestsError;
+import schwarz.jobs.interview.coupon.web.errors.UnprocessableEntityError;
+
+import javax.validation.Validation;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CouponBulkServiceTest {
+
+    private final CouponBulkService couponBulkService;
+    private final CouponStore couponStore;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    CouponBulkServiceTest(@Mock CouponStore couponStore) {
+        this.couponStore = couponStore;
+
+        CouponBulkProperties properties = new CouponBulkProperties();
+        properties.setBatchSize(3);
+
+        this.couponBulkService = new CouponBulkService(CouponServiceFixture.of(couponStore).build(),
+                Validation.buildDefaultValidatorFactory().getValidator(), properties, new CouponOutcomeMetrics(meterRegistry));
+    }
+
+    @Test
+    void apply_bulk_should_report_item_errors_inline_and_keep_order() {
+        when(couponStore.findByCodeIn(anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<Collection<String>>getArgument(0))
+                        .filter(code -> code.startsWith("SUMMER"))
+                        .map(code -> Coupon.builder()
+                                .code(code)
+                                .discount(BigDecimal.TEN)
+                                .minBasketValue(BigDecimal.valueOf(50))
+                                .build()));
+
+        Flux<ApplicationRequestDTO> requests = Flux.just(
+                request("SUMMER24", BigDecimal.valueOf(100)),
+                request("UNKNOWN1", BigDecimal.valueOf(100)),
+                request("SUMMER24", BigDecimal.valueOf(20)),
+                request("bad", BigDecimal.valueOf(100)),
+                request("SUMMER25", BigDecimal.valueOf(60)));
+
+        StepVerifier.create(couponBulkService.applyCoupons(requests))
+                .assertNext(result -> {
+                    assertThat(result.getStatus()).isEqualTo(200);
+                    assertThat(result.getBasket().getAppliedDiscount()).isEqualTo(new BigDecimal("10.00"));
+                })
+                .assertNext(result -> assertThat(result.getStatus()).isEqualTo(404))
+                .assertNext(result -> assertThat(result.getStatus()).isEqualTo(409))
+                .assertNext(result -> {
+                    assertThat(result.getStatus()).isEqualTo(422);
+                    assertThat(result.getError()).isInstanceOf(UnprocessableEntityError.class);
+                })
+                .assertNext(result -> assertThat(result.getCode()).isEqualTo("SUMMER25"))
+                .verifyComplete();
+
+        verify(couponStore, times(2)).findByCodeIn(anyList());
+        assertThat(outcomes("applied")).isEqualTo(2);
+        assertThat(outcomes("not_found")).isEqualTo(1);
+        assertThat(outcomes("insufficient_basket_value")).isEqualTo(1);
+        assertThat(outcomes("validation_failed")).isEqualTo(1);
+    }
+
+    @Test
+    void apply_bulk_should_report_items_refused_by_admission_as_429() {
+        when(couponStore.findByCodeIn(anyList()))
+                .thenAnswer(invocation -> Flux.fromIterable(invocation.<Collection<String>>getArgument(0))
+                        .map(code -> Coupon.builder()
+                                .code(code)
+                                .discount(BigDecimal.TEN)
+                                .minBasketValue(BigDecimal.ZERO)
+                                .build()));
+
+        AtomicInteger tokens = new AtomicInteger(2);
+        Flux<ApplicationRequestDTO> requests = Flux.just(
+                request("SUMMER24", BigDecimal.valueOf(100)),
+                request("SUMMER25", BigDecimal.valueOf(100)),
+                request("SUMMER26", BigDecimal.valueOf(100)));
+
+        StepVerifier.create(couponBulkService.applyCoupons(requests, () -> tokens.getAndDecrement() > 0))
+                .assertNext(result -> assertThat(result.getStatus()).isEqualTo(200))
+                .assertNext(result -> assertThat(result.getStatus()).isEqualTo(200))
+                .assertNext(result -> {
+                    assertThat(result.getStatus()).isEqualTo(429);
+                    assertThat(result.getError()).isInstanceOf(TooManyRequestsError.class);
+                })
+                .verifyComplete();
+
+        verify(couponStore, times(1)).findByCodeIn(argThat(codes -> !codes.contains("SUMMER26")));
+        assertThat(outcomes("rate_limited")).isEqualTo(1);
+    }
+
+    private double outcomes(String outcome) {
+        return meterRegistry.get("coupon.outcomes").tag("outcome", outcome).counter().count();
+    }
+
+    private ApplicationRequestDTO request(String code, BigDecimal value) {
+        return ApplicationRequestDTO.builder()
+                .code(code)
+                .basket(BasketDTO.builder()
+                        .value(value)
+                        .appliedDiscount(BigDecimal.ZERO)
+                        .applicationSuccessful(Boolean.FALSE)
+                        .build())
+                .build();
+    }
+
+}
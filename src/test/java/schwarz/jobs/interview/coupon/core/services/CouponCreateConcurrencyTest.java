@@ -0,0 +1,60 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.core.exception.CouponCodeAlreadyExistsException;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CouponCreateConcurrencyTest {
+
+    private static final int CONCURRENT_CREATES = 64;
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private CouponStore couponStore;
+
+    @Test
+    void concurrent_identical_creates_should_insert_exactly_once() {
+        CouponDTO couponDTO = CouponDTO.builder()
+                .code("RACE2024")
+                .discount(BigDecimal.TEN)
+                .minBasketValue(BigDecimal.valueOf(50))
+                .build();
+
+        Map<String, Long> outcomes = Flux.range(0, CONCURRENT_CREATES)
+                .parallel(CONCURRENT_CREATES)
+                .runOn(Schedulers.boundedElastic())
+                .flatMap(attempt -> couponService.createCoupon(couponDTO)
+                        .map(created -> "created")
+                        .onErrorResume(CouponCodeAlreadyExistsException.class, ex -> Mono.just("conflict")))
+                .sequential()
+                .collectList()
+                .map(results -> Map.of(
+                        "created", results.stream().filter("created"::equals).count(),
+                        "conflict", results.stream().filter("conflict"::equals).count()))
+                .block();
+
+        assertThat(outcomes).containsEntry("created", 1L)
+                .containsEntry("conflict", (long) CONCURRENT_CREATES - 1);
+
+        StepVerifier.create(couponStore.findByCodeIn(List.of("RACE2024")).count())
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+}
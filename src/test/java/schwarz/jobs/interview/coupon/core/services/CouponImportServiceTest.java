@@ -0,0 +1,75 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+import schwarz.jobs.interview.coupon.web.dto.ImportResultDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "coupon.import.chunk-size=2")
+class CouponImportServiceTest {
+
+    @Autowired
+    private CouponImportService couponImportService;
+
+    @Autowired
+    private CouponStore couponStore;
+
+    @Test
+    void csv_import_should_report_one_result_per_row_across_chunks() {
+        Flux<String> lines = Flux.just(
+                "code,discount,minBasketValue",
+                "CSVIMP01,5.00,10.00",
+                "SUMMER24,1,1",
+                "CSVIMP01,3,3",
+                "",
+                "CSVIMP02,abc,10",
+                "CSVIMP03,-1,0",
+                "CSVIMP04,2.50,0");
+
+        StepVerifier.create(couponImportService.importCsv(lines))
+                .assertNext(result -> assertResult(result, 2, ImportResultDTO.Result.CREATED))
+                .assertNext(result -> assertResult(result, 3, ImportResultDTO.Result.DUPLICATE))
+                .assertNext(result -> assertResult(result, 4, ImportResultDTO.Result.DUPLICATE))
+                .assertNext(result -> assertResult(result, 6, ImportResultDTO.Result.INVALID))
+                .assertNext(result -> assertResult(result, 7, ImportResultDTO.Result.INVALID))
+                .assertNext(result -> assertResult(result, 8, ImportResultDTO.Result.CREATED))
+                .verifyComplete();
+
+        StepVerifier.create(couponStore.findByCode("CSVIMP04"))
+                .assertNext(coupon -> assertThat(coupon.getDiscount()).isEqualByComparingTo("2.50"))
+                .verifyComplete();
+    }
+
+    @Test
+    void ndjson_import_should_insert_whole_chunks() {
+        Flux<CouponDTO> coupons = Flux.range(0, 5)
+                .map(index -> CouponDTO.builder()
+                        .code("JSONIMP" + index)
+                        .discount(BigDecimal.ONE)
+                        .minBasketValue(BigDecimal.ZERO)
+                        .build());
+
+        StepVerifier.create(couponImportService.importCoupons(coupons))
+                .expectNextCount(5)
+                .verifyComplete();
+
+        StepVerifier.create(couponStore.findByCodeIn(List.of("JSONIMP0", "JSONIMP4")).count())
+                .expectNext(2L)
+                .verifyComplete();
+    }
+
+    private void assertResult(ImportResultDTO result, long row, ImportResultDTO.Result expected) {
+        assertThat(result.getRow()).isEqualTo(row);
+        assertThat(result.getResult()).isEqualTo(expected);
+    }
+
+}
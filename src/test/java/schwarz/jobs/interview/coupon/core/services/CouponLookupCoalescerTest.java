@@ -0,0 +1,81 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponLookupCoalescerTest {
+
+    private final CouponLookupCoalescer coalescer = new CouponLookupCoalescer();
+
+    @Test
+    void concurrent_lookups_for_same_code_should_share_one_query() {
+        AtomicInteger queries = new AtomicInteger();
+        Sinks.One<Coupon> result = Sinks.one();
+
+        Flux<Coupon> callers = Flux.range(0, 100)
+                .flatMap(index -> coalescer.coalesce("SUMMER24", code -> Mono.defer(() -> {
+                    queries.incrementAndGet();
+                    return result.asMono();
+                })));
+
+        StepVerifier.create(callers)
+                .then(() -> assertThat(coalescer.inFlight()).isEqualTo(1))
+                .then(() -> result.tryEmitValue(coupon("SUMMER24")))
+                .expectNextCount(100)
+                .verifyComplete();
+
+        assertThat(queries).hasValue(1);
+        assertThat(coalescer.inFlight()).isZero();
+    }
+
+    @Test
+    void empty_result_should_not_be_shared_past_completion() {
+        AtomicInteger queries = new AtomicInteger();
+
+        StepVerifier.create(coalescer.coalesce("UNKNOWN1", code -> Mono.<Coupon>empty()
+                        .doOnSubscribe(subscription -> queries.incrementAndGet())))
+                .verifyComplete();
+
+        StepVerifier.create(coalescer.coalesce("UNKNOWN1", code -> Mono.just(coupon(code))
+                        .doOnSubscribe(subscription -> queries.incrementAndGet())))
+                .expectNextMatches(coupon -> coupon.getCode().equals("UNKNOWN1"))
+                .verifyComplete();
+
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void failure_should_reach_joined_callers_but_not_later_ones() {
+        Mono<Coupon> failing = Mono.<Coupon>error(new IllegalStateException("db down"))
+                .delaySubscription(Duration.ofMillis(50));
+
+        StepVerifier.create(Flux.merge(
+                        coalescer.coalesce("SUMMER24", code -> failing),
+                        coalescer.coalesce("SUMMER24", code -> failing)))
+                .expectError(IllegalStateException.class)
+                .verify();
+
+        StepVerifier.create(coalescer.coalesce("SUMMER24", code -> Mono.just(coupon(code))))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    private Coupon coupon(String code) {
+        return Coupon.builder()
+                .code(code)
+                .discount(BigDecimal.TEN)
+                .minBasketValue(BigDecimal.valueOf(50))
+                .build();
+    }
+
+}
@@ -0,0 +1,115 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.exception.InsufficientBasketValueException;
+import schwarz.jobs.interview.coupon.core.exception.InvalidDiscountException;
+import schwarz.jobs.interview.coupon.core.models.Money;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the cents-based apply arithmetic against the original BigDecimal implementation.
+ */
+@ExtendWith(MockitoExtension.class)
+class CouponMoneyEquivalenceTest {
+
+    private static final long MAX_CENTS = 10_000_000_000L;
+
+    private final CouponService couponService;
+
+    CouponMoneyEquivalenceTest(@Mock CouponStore couponStore) {
+        this.couponService = CouponServiceFixture.of(couponStore).build();
+    }
+
+    @Test
+    void apply_should_match_big_decimal_reference_on_random_amounts() {
+        Random random = new Random(7);
+
+        for (int i = 0; i < 50_000; i++) {
+            BigDecimal value = amount(random);
+            BigDecimal applied = random.nextInt(4) == 0 ? BigDecimal.ZERO : amount(random);
+            BigDecimal discount = amount(random).max(new BigDecimal("0.01"));
+            BigDecimal minBasket = random.nextInt(8) == 0 ? value : amount(random);
+
+            assertEquivalent(value, applied, discount, minBasket);
+        }
+    }
+
+    @Test
+    void apply_should_match_big_decimal_reference_on_boundaries() {
+        BigDecimal cent = new BigDecimal("0.01");
+        BigDecimal[] values = {BigDecimal.ZERO, cent, BigDecimal.ONE, new BigDecimal("49.99"), new BigDecimal("50"),
+                new BigDecimal("50.00"), new BigDecimal("50.01"), new BigDecimal("99999999.99")};
+
+        for (BigDecimal value : values) {
+            for (BigDecimal applied : values) {
+                for (BigDecimal discount : values) {
+                    for (BigDecimal minBasket : values) {
+                        if (discount.signum() > 0) {
+                            assertEquivalent(value, applied, discount, minBasket);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void assertEquivalent(BigDecimal value, BigDecimal applied, BigDecimal discount, BigDecimal minBasket) {
+        Coupon coupon = Coupon.builder().code("EQUIV001").discount(discount).minBasketValue(minBasket).build();
+        BasketDTO basket = BasketDTO.builder().value(value).appliedDiscount(applied).build();
+
+        Object expected = reference(coupon, basket);
+        Object actual;
+        try {
+            actual = couponService.applyCoupon(coupon, basket).block();
+        } catch (RuntimeException ex) {
+            actual = ex.getClass();
+        }
+
+        if (expected instanceof BasketDTO) {
+            assertThat(actual).isInstanceOf(BasketDTO.class);
+            BasketDTO expectedBasket = (BasketDTO) expected;
+            BasketDTO actualBasket = (BasketDTO) actual;
+            // responses always carry two decimals, the reference kept the scale of its inputs
+            assertThat(actualBasket.getValue()).isEqualTo(expectedBasket.getValue().setScale(Money.SCALE));
+            assertThat(actualBasket.getAppliedDiscount())
+                    .isEqualTo(expectedBasket.getAppliedDiscount().setScale(Money.SCALE));
+            assertThat(actualBasket.isApplicationSuccessful()).isTrue();
+        } else {
+            assertThat(actual).as("value=%s applied=%s discount=%s min=%s", value, applied, discount, minBasket)
+                    .isEqualTo(expected);
+        }
+    }
+
+    private Object reference(Coupon coupon, BasketDTO basket) {
+        if (coupon.getMinBasketValue().compareTo(basket.getValue()) > 0) {
+            return InsufficientBasketValueException.class;
+        }
+
+        BigDecimal totalDiscount = basket.getValue().subtract(coupon.getDiscount().add(basket.getAppliedDiscount()));
+        if (BigDecimal.ZERO.compareTo(totalDiscount) > 0) {
+            return InvalidDiscountException.class;
+        }
+
+        return BasketDTO.builder()
+                .value(basket.getValue())
+                .appliedDiscount(basket.getAppliedDiscount().add(coupon.getDiscount()))
+                .applicationSuccessful(true)
+                .build();
+    }
+
+    private BigDecimal amount(Random random) {
+        long cents = Math.floorMod(random.nextLong(), random.nextBoolean() ? 100_000L : MAX_CENTS);
+        return BigDecimal.valueOf(cents, 2).stripTrailingZeros();
+    }
+
+}
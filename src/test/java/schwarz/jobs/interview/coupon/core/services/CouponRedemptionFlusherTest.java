@@ -0,0 +1,105 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.configuration.CouponRedemptionProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.exception.CouponRedemptionLimitReachedException;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+import schwarz.jobs.interview.coupon.web.dto.ApplicationRequestDTO;
+import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class CouponRedemptionFlusherTest {
+
+    private static final int CONCURRENT_APPLIES = 256;
+
+    private static final int MAX_REDEMPTIONS = 50;
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private CouponRedemptionFlusher redemptionFlusher;
+
+    @Autowired
+    private CouponStore couponStore;
+
+    @Test
+    void concurrent_applies_should_redeem_at_most_max_and_persist_the_total() {
+        StepVerifier.create(couponService.createCoupon(CouponDTO.builder()
+                        .code("FIRST050")
+                        .discount(new BigDecimal("2.50"))
+                        .minBasketValue(BigDecimal.ZERO)
+                        .maxRedemptions(MAX_REDEMPTIONS)
+                        .build()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        ApplicationRequestDTO request = ApplicationRequestDTO.builder()
+                .code("FIRST050")
+                .basket(BasketDTO.builder().value(BigDecimal.TEN).appliedDiscount(BigDecimal.ZERO).build())
+                .build();
+
+        Long applied = Flux.range(0, CONCURRENT_APPLIES)
+                .parallel(CONCURRENT_APPLIES)
+                .runOn(Schedulers.boundedElastic())
+                .flatMap(attempt -> couponService.applyCoupon(request)
+                        .map(basket -> 1L)
+                        .onErrorResume(CouponRedemptionLimitReachedException.class, ex -> Mono.just(0L)))
+                .sequential()
+                .reduce(0L, Long::sum)
+                .block();
+
+        assertThat(applied).isEqualTo(MAX_REDEMPTIONS);
+
+        StepVerifier.create(redemptionFlusher.flush().then(couponStore.findByCode("FIRST050")))
+                .assertNext(coupon -> {
+                    assertThat(coupon.getRedemptions()).isEqualTo(MAX_REDEMPTIONS);
+                    assertThat(coupon.getRedeemedDiscount()).isEqualByComparingTo("125.00");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void failed_batch_should_hand_back_every_delta_not_yet_written() {
+        CouponRedemptionLimiter limiter = new CouponRedemptionLimiter();
+        for (String code : new String[]{"LIMITED1", "LIMITED2", "LIMITED3"}) {
+            assertThat(limiter.tryReserve(Coupon.builder()
+                    .code(code)
+                    .discount(BigDecimal.ONE)
+                    .minBasketValue(BigDecimal.ZERO)
+                    .maxRedemptions(10)
+                    .build())).isTrue();
+        }
+
+        CouponStore failingStore = mock(CouponStore.class);
+        when(failingStore.addRedemptions(anyList())).thenReturn(Mono.error(new IllegalStateException("database down")));
+
+        CouponRedemptionProperties properties = new CouponRedemptionProperties();
+        properties.setFlushBatchSize(1);
+        CouponRedemptionFlusher flusher = new CouponRedemptionFlusher(limiter, failingStore, properties);
+
+        StepVerifier.create(flusher.flush())
+                .verifyError(IllegalStateException.class);
+
+        verify(failingStore, times(1)).addRedemptions(anyList());
+        assertThat(limiter.pending()).isEqualTo(3);
+    }
+
+}
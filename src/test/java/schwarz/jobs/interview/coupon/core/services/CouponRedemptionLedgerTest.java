@@ -0,0 +1,116 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.configuration.CouponLedgerProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponLedgerProperties.OverflowPolicy;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.Basket;
+import schwarz.jobs.interview.coupon.core.models.RedemptionEntry;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponRedemptionLedgerTest {
+
+    @Test
+    void drop_newest_should_keep_queued_entries_when_full() {
+        CouponRedemptionLedger ledger = new CouponRedemptionLedger(properties(2, OverflowPolicy.DROP_NEWEST));
+
+        ledger.record(coupon("FIRST001"), basket());
+        ledger.record(coupon("SECOND02"), basket());
+        ledger.record(coupon("THIRD003"), basket());
+
+        assertThat(codes(ledger.poll(10))).containsExactly("FIRST001", "SECOND02");
+        assertThat(ledger.dropped()).isEqualTo(1);
+    }
+
+    @Test
+    void drop_oldest_should_make_room_for_new_entries_when_full() {
+        CouponRedemptionLedger ledger = new CouponRedemptionLedger(properties(2, OverflowPolicy.DROP_OLDEST));
+
+        ledger.record(coupon("FIRST001"), basket());
+        ledger.record(coupon("SECOND02"), basket());
+        ledger.record(coupon("THIRD003"), basket());
+
+        assertThat(codes(ledger.poll(10))).containsExactly("SECOND02", "THIRD003");
+        assertThat(ledger.dropped()).isEqualTo(1);
+        assertThat(ledger.size()).isZero();
+    }
+
+    @Test
+    void concurrent_producers_should_never_exceed_capacity() throws InterruptedException {
+        CouponRedemptionLedger ledger = new CouponRedemptionLedger(properties(1_000, OverflowPolicy.DROP_NEWEST));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        for (int thread = 0; thread < 8; thread++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    ledger.record(coupon("SUMMER24"), basket());
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(ledger.size()).isEqualTo(1_000);
+        assertThat(ledger.dropped()).isEqualTo(7_000);
+        assertThat(ledger.poll(5_000)).hasSize(1_000);
+    }
+
+    @Test
+    void full_batch_should_signal_writer_once_until_polled() {
+        CouponLedgerProperties properties = properties(100, OverflowPolicy.DROP_NEWEST);
+        properties.setBatchSize(2);
+        CouponRedemptionLedger ledger = new CouponRedemptionLedger(properties);
+
+        StepVerifier.create(ledger.batchReady().take(2))
+                .then(() -> {
+                    ledger.record(coupon("FIRST001"), basket());
+                    ledger.record(coupon("SECOND02"), basket());
+                    ledger.record(coupon("THIRD003"), basket());
+                })
+                .expectNext(2)
+                .then(() -> {
+                    ledger.poll(10);
+                    ledger.record(coupon("FOURTH04"), basket());
+                    ledger.record(coupon("FIFTH005"), basket());
+                })
+                .expectNext(2)
+                .verifyComplete();
+    }
+
+    private static CouponLedgerProperties properties(final int capacity, final OverflowPolicy overflowPolicy) {
+        CouponLedgerProperties properties = new CouponLedgerProperties();
+        properties.setCapacity(capacity);
+        properties.setOverflowPolicy(overflowPolicy);
+        return properties;
+    }
+
+    private static Coupon coupon(final String code) {
+        return Coupon.builder()
+                .code(code)
+                .discount(BigDecimal.ONE)
+                .minBasketValue(BigDecimal.ZERO)
+                .build();
+    }
+
+    private static Basket basket() {
+        return Basket.builder()
+                .value(1_000L)
+                .appliedDiscount(100L)
+                .applicationSuccessful(Boolean.TRUE)
+                .build();
+    }
+
+    private static List<String> codes(final List<RedemptionEntry> entries) {
+        return entries.stream().map(RedemptionEntry::getCode).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,58 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.web.dto.ApplicationRequestDTO;
+import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"coupon.ledger.batch-size=3", "coupon.ledger.flush-interval=1h"})
+class CouponRedemptionLedgerWriterTest {
+
+    @Autowired
+    private CouponService couponService;
+
+    @Autowired
+    private CouponRedemptionLedgerWriter ledgerWriter;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    void applied_coupons_should_be_written_in_multi_row_batches() {
+        ApplicationRequestDTO request = ApplicationRequestDTO.builder()
+                .code("SCHWARZ1")
+                .basket(BasketDTO.builder().value(BigDecimal.valueOf(250)).appliedDiscount(BigDecimal.ZERO).build())
+                .build();
+
+        StepVerifier.create(Flux.range(0, 7).concatMap(attempt -> couponService.applyCoupon(request)).then(ledgerWriter.flush()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // full batches are also picked up by the background writer, so wait until all of them are visible
+        StepVerifier.create(databaseClient.sql("SELECT COUNT(*) AS ENTRIES, SUM(DISCOUNT) AS DISCOUNT, MIN(BASKET_VALUE) AS BASKET "
+                                + "FROM COUPON_REDEMPTIONS WHERE CODE = 'SCHWARZ1'")
+                        .fetch()
+                        .one()
+                        .filter(row -> ((Number) row.get("ENTRIES")).longValue() == 7)
+                        .repeatWhenEmpty(20, attempts -> attempts.delayElements(Duration.ofMillis(50))))
+                .assertNext(row -> assertThat(Map.of(
+                        "entries", ((Number) row.get("ENTRIES")).longValue(),
+                        "discount", ((BigDecimal) row.get("DISCOUNT")).compareTo(new BigDecimal("140.00")),
+                        "basket", ((BigDecimal) row.get("BASKET")).compareTo(new BigDecimal("250.00"))))
+                        .containsEntry("entries", 7L)
+                        .containsEntry("discount", 0)
+                        .containsEntry("basket", 0))
+                .verifyComplete();
+    }
+
+}
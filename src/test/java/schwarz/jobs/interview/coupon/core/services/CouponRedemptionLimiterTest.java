@@ -0,0 +1,139 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import org.junit.jupiter.api.Test;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.RedemptionDelta;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponRedemptionLimiterTest {
+
+    private static final int THREADS = 16;
+
+    private static final int ATTEMPTS_PER_THREAD = 10_000;
+
+    private final CouponRedemptionLimiter limiter = new CouponRedemptionLimiter();
+
+    @Test
+    void concurrent_reservations_should_never_exceed_max_redemptions() throws Exception {
+        Coupon coupon = Coupon.builder()
+                .code("FIRST1K1")
+                .discount(BigDecimal.ONE)
+                .minBasketValue(BigDecimal.ZERO)
+                .maxRedemptions(1_000)
+                .redemptions(1)
+                .build();
+
+        assertThat(reserveConcurrently(coupon)).isEqualTo(999);
+        assertThat(limiter.redemptions("FIRST1K1")).isEqualTo(1_000);
+    }
+
+    @Test
+    void concurrent_reservations_should_never_exceed_discount_budget() throws Exception {
+        Coupon coupon = Coupon.builder()
+                .code("BUDGET50")
+                .discount(new BigDecimal("2.50"))
+                .minBasketValue(BigDecimal.ZERO)
+                .discountBudget(new BigDecimal("5000.00"))
+                .build();
+
+        assertThat(reserveConcurrently(coupon)).isEqualTo(2_000);
+
+        List<RedemptionDelta> deltas = limiter.drain();
+        assertThat(deltas).singleElement().satisfies(delta -> {
+            assertThat(delta.getRedemptions()).isEqualTo(2_000);
+            assertThat(delta.getDiscountCents()).isEqualTo(500_000);
+        });
+    }
+
+    @Test
+    void drain_should_hand_out_each_redemption_once_and_restore_failed_ones() {
+        Coupon coupon = Coupon.builder()
+                .code("FIRST100")
+                .discount(BigDecimal.ONE)
+                .minBasketValue(BigDecimal.ZERO)
+                .maxRedemptions(100)
+                .build();
+
+        assertThat(limiter.tryReserve(coupon)).isTrue();
+        assertThat(limiter.tryReserve(coupon)).isTrue();
+
+        List<RedemptionDelta> deltas = limiter.drain();
+        assertThat(limiter.drain()).isEmpty();
+
+        limiter.restore(deltas);
+        assertThat(limiter.pending()).isEqualTo(2);
+        assertThat(limiter.drain()).containsExactlyElementsOf(deltas);
+    }
+
+    @Test
+    void release_should_hand_back_the_redemption_and_its_pending_delta() {
+        Coupon coupon = Coupon.builder()
+                .code("LASTONE1")
+                .discount(BigDecimal.ONE)
+                .minBasketValue(BigDecimal.ZERO)
+                .maxRedemptions(1)
+                .build();
+
+        assertThat(limiter.tryReserve(coupon)).isTrue();
+        assertThat(limiter.canReserve(coupon)).isFalse();
+
+        limiter.release(coupon);
+
+        assertThat(limiter.canReserve(coupon)).isTrue();
+        assertThat(limiter.redemptions("LASTONE1")).isZero();
+        assertThat(limiter.drain()).isEmpty();
+    }
+
+    @Test
+    void unlimited_coupon_should_not_be_tracked() {
+        Coupon coupon = Coupon.builder()
+                .code("SUMMER24")
+                .discount(BigDecimal.TEN)
+                .minBasketValue(BigDecimal.ZERO)
+                .build();
+
+        assertThat(limiter.tryReserve(coupon)).isTrue();
+        assertThat(limiter.drain()).isEmpty();
+    }
+
+    private int reserveConcurrently(final Coupon coupon) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                workers.add(executor.submit(() -> {
+                    start.await();
+                    for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                        if (limiter.tryReserve(coupon)) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return granted.get();
+    }
+
+}
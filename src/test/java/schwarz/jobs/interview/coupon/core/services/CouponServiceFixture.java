@@ -0,0 +1,130 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import schwarz.jobs.interview.coupon.configuration.CouponBatchingProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponCacheProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponCodeFilterProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponFilterProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponIndexProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponLedgerProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponRecommendationProperties;
+import schwarz.jobs.interview.coupon.core.cache.CouponCache;
+import schwarz.jobs.interview.coupon.core.cache.CouponCodeFilter;
+import schwarz.jobs.interview.coupon.core.cache.CouponEligibilityIndex;
+import schwarz.jobs.interview.coupon.core.cache.OffHeapCouponIndex;
+import schwarz.jobs.interview.coupon.core.mapper.BasketMapper;
+import schwarz.jobs.interview.coupon.core.mapper.CouponMapper;
+import schwarz.jobs.interview.coupon.core.mapper.impl.BasketMapperImpl;
+import schwarz.jobs.interview.coupon.core.mapper.impl.CouponMapperImpl;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+
+/**
+ * Builds a {@link CouponService} over a store for tests. Every collaborator not given is the real one with default
+ * properties, except that batching and the off-heap index are off, so lookups reach the store directly.
+ * Collaborators are created once, so {@link #build()} can be called again after swapping one of them.
+ */
+public final class CouponServiceFixture {
+
+    private final CouponStore couponStore;
+
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private CouponMapper couponMapper = new CouponMapperImpl();
+
+    private BasketMapper basketMapper = new BasketMapperImpl();
+
+    private OffHeapCouponIndex couponIndex;
+
+    private CouponCache couponCache;
+
+    private CouponBatchLoader batchLoader;
+
+    private CouponCodeFilter codeFilter;
+
+    private CouponFilterProperties filterProperties = new CouponFilterProperties();
+
+    private CouponRedemptionLimiter redemptionLimiter = new CouponRedemptionLimiter();
+
+    private CouponRedemptionLedger redemptionLedger = new CouponRedemptionLedger(new CouponLedgerProperties());
+
+    private CouponEligibilityIndex eligibilityIndex;
+
+    private CouponServiceFixture(final CouponStore couponStore) {
+        this.couponStore = couponStore;
+    }
+
+    public static CouponServiceFixture of(final CouponStore couponStore) {
+        return new CouponServiceFixture(couponStore);
+    }
+
+    public CouponServiceFixture meterRegistry(final MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        return this;
+    }
+
+    public CouponServiceFixture mappers(final CouponMapper couponMapper, final BasketMapper basketMapper) {
+        this.couponMapper = couponMapper;
+        this.basketMapper = basketMapper;
+        return this;
+    }
+
+    public CouponServiceFixture couponIndex(final OffHeapCouponIndex couponIndex) {
+        this.couponIndex = couponIndex;
+        return this;
+    }
+
+    public CouponServiceFixture couponCache(final CouponCache couponCache) {
+        this.couponCache = couponCache;
+        return this;
+    }
+
+    public CouponServiceFixture codeFilter(final CouponCodeFilter codeFilter) {
+        this.codeFilter = codeFilter;
+        return this;
+    }
+
+    public CouponServiceFixture filterProperties(final CouponFilterProperties filterProperties) {
+        this.filterProperties = filterProperties;
+        return this;
+    }
+
+    public CouponServiceFixture redemptions(final CouponRedemptionLimiter redemptionLimiter,
+                                            final CouponRedemptionLedger redemptionLedger) {
+        this.redemptionLimiter = redemptionLimiter;
+        this.redemptionLedger = redemptionLedger;
+        return this;
+    }
+
+    public CouponServiceFixture eligibilityIndex(final CouponEligibilityIndex eligibilityIndex) {
+        this.eligibilityIndex = eligibilityIndex;
+        return this;
+    }
+
+    public CouponService build() {
+        if (couponIndex == null) {
+            CouponIndexProperties indexProperties = new CouponIndexProperties();
+            indexProperties.setEnabled(false);
+            couponIndex = new OffHeapCouponIndex(couponStore, indexProperties, meterRegistry);
+        }
+        if (couponCache == null) {
+            couponCache = new CouponCache(new CouponCacheProperties());
+        }
+        if (batchLoader == null) {
+            CouponBatchingProperties batching = new CouponBatchingProperties();
+            batching.setEnabled(false);
+            batchLoader = new CouponBatchLoader(couponStore, batching, meterRegistry);
+        }
+        if (codeFilter == null) {
+            codeFilter = new CouponCodeFilter(couponStore, new CouponCodeFilterProperties(), meterRegistry);
+        }
+        if (eligibilityIndex == null) {
+            eligibilityIndex = new CouponEligibilityIndex(couponStore, new CouponRecommendationProperties(), meterRegistry);
+        }
+
+        return new CouponService(couponStore, couponMapper, basketMapper, couponIndex, couponCache,
+                new CouponLookupCoalescer(), batchLoader, codeFilter, filterProperties, redemptionLimiter,
+                redemptionLedger, eligibilityIndex);
+    }
+
+}
@@ -1,27 +1,40 @@
 package schwarz.jobs.interview.coupon.core.services;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.configuration.CouponCacheProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponCodeFilterProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponFilterProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponIndexProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponLedgerProperties;
+import schwarz.jobs.interview.coupon.core.cache.CouponCache;
+import schwarz.jobs.interview.coupon.core.cache.CouponCodeFilter;
+import schwarz.jobs.interview.coupon.core.cache.OffHeapCouponIndex;
 import schwarz.jobs.interview.coupon.core.domain.Coupon;
 import schwarz.jobs.interview.coupon.core.exception.CouponCodeAlreadyExistsException;
 import schwarz.jobs.interview.coupon.core.exception.CouponNotFoundException;
+import schwarz.jobs.interview.coupon.core.exception.CouponRedemptionLimitReachedException;
 import schwarz.jobs.interview.coupon.core.exception.InsufficientBasketValueException;
 import schwarz.jobs.interview.coupon.core.exception.InvalidDiscountException;
 import schwarz.jobs.interview.coupon.core.mapper.BasketMapper;
 import schwarz.jobs.interview.coupon.core.mapper.CouponMapper;
 import schwarz.jobs.interview.coupon.core.models.Basket;
-import schwarz.jobs.interview.coupon.core.repository.CouponRepository;
+import schwarz.jobs.interview.coupon.core.models.Money;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
 import schwarz.jobs.interview.coupon.web.dto.ApplicationRequestDTO;
 import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
 import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
 import schwarz.jobs.interview.coupon.web.dto.CouponRequestDTO;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -29,24 +42,43 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class CouponServiceTest {
 
     private final CouponService couponService;
-    private final CouponRepository couponRepository;
+    private final CouponServiceFixture fixture;
+    private final CouponStore couponStore;
     private final CouponMapper couponMapper;
     private final BasketMapper basketMapper;
+    private final CouponCache couponCache = new CouponCache(new CouponCacheProperties());
+    private final CouponCodeFilter codeFilter;
+    private final CouponFilterProperties filterProperties = new CouponFilterProperties();
+    private final CouponRedemptionLimiter redemptionLimiter = new CouponRedemptionLimiter();
+    private final CouponRedemptionLedger redemptionLedger = new CouponRedemptionLedger(new CouponLedgerProperties());
 
     CouponServiceTest(
-            @Mock CouponRepository couponRepository,
+            @Mock CouponStore couponStore,
             @Mock CouponMapper couponMapper,
             @Mock BasketMapper basketMapper) {
-        this.couponRepository = couponRepository;
+        this.couponStore = couponStore;
         this.couponMapper = couponMapper;
         this.basketMapper = basketMapper;
-        this.couponService = new CouponService(couponRepository, couponMapper, basketMapper);
+        this.codeFilter = new CouponCodeFilter(couponStore, new CouponCodeFilterProperties(), new SimpleMeterRegistry());
+        this.fixture = CouponServiceFixture.of(couponStore)
+                .mappers(couponMapper, basketMapper)
+                .couponCache(couponCache)
+                .codeFilter(codeFilter)
+                .filterProperties(filterProperties)
+                .redemptions(redemptionLimiter, redemptionLedger);
+        this.couponService = fixture.build();
+    }
+
+    private CouponService withIndex(final OffHeapCouponIndex couponIndex) {
+        return fixture.couponIndex(couponIndex).build();
     }
 
     @Test
@@ -60,7 +92,7 @@ class CouponServiceTest {
                 Coupon.builder().code("1234").discount(BigDecimal.TEN).minBasketValue(BigDecimal.valueOf(50)).build()
         );
 
-        when(couponRepository.findByCodeIn(dto.getCodes()))
+        when(couponStore.findByCodeIn(dto.getCodes()))
                 .thenReturn(Flux.fromIterable(mockCoupons));
 
         when(couponMapper.toDto(any()))
@@ -100,7 +132,7 @@ class CouponServiceTest {
                 Coupon.builder().code("1111").discount(BigDecimal.TEN).minBasketValue(BigDecimal.valueOf(50)).build()
         );
 
-        when(couponRepository.findByCodeIn(dto.getCodes()))
+        when(couponStore.findByCodeIn(dto.getCodes()))
                 .thenReturn(Flux.fromIterable(mockCoupons));
 
         when(couponMapper.toDto(any()))
@@ -131,13 +163,51 @@ class CouponServiceTest {
                 .codes(Collections.emptyList())
                 .build();
 
-        when(couponRepository.findByCodeIn(dto.getCodes()))
-                .thenReturn(Flux.empty());
-
         Flux<CouponDTO> returnedCoupons = couponService.getCoupons(dto);
 
         StepVerifier.create(returnedCoupons)
                 .verifyComplete();
+
+        verify(couponStore, times(0)).findByCodeIn(any());
+    }
+
+    @Test
+    void filter_should_dedupe_codes_and_query_in_batches_preserving_request_order() {
+        filterProperties.setBatchSize(2);
+        CouponRequestDTO dto = CouponRequestDTO.builder()
+                .codes(Arrays.asList("3333", "1111", "3333", "2222", "1111"))
+                .build();
+
+        when(couponStore.findByCodeIn(List.of("3333", "1111")))
+                .thenReturn(Flux.just(getSampleCoupon("1111"), getSampleCoupon("3333")));
+        when(couponStore.findByCodeIn(List.of("2222")))
+                .thenReturn(Flux.just(getSampleCoupon("2222")));
+        when(couponMapper.toDto(any()))
+                .thenAnswer(invocation -> CouponDTO.builder().code(invocation.<Coupon>getArgument(0).getCode()).build());
+
+        StepVerifier.create(couponService.getCoupons(dto).map(CouponDTO::getCode))
+                .expectNext("3333", "1111", "2222")
+                .verifyComplete();
+    }
+
+    @Test
+    void filter_should_return_every_coupon_once_when_unordered() {
+        filterProperties.setBatchSize(1);
+        CouponRequestDTO dto = CouponRequestDTO.builder()
+                .codes(Arrays.asList("1111", "2222", "1111"))
+                .ordered(false)
+                .build();
+
+        when(couponStore.findByCodeIn(List.of("1111"))).thenReturn(Flux.just(getSampleCoupon("1111")));
+        when(couponStore.findByCodeIn(List.of("2222"))).thenReturn(Flux.just(getSampleCoupon("2222")));
+        when(couponMapper.toDto(any()))
+                .thenAnswer(invocation -> CouponDTO.builder().code(invocation.<Coupon>getArgument(0).getCode()).build());
+
+        StepVerifier.create(couponService.getCoupons(dto).map(CouponDTO::getCode))
+                .recordWith(ArrayList::new)
+                .expectNextCount(2)
+                .consumeRecordedWith(codes -> assertThat(codes).containsExactlyInAnyOrder("1111", "2222"))
+                .verifyComplete();
     }
 
     @Test
@@ -148,8 +218,8 @@ class CouponServiceTest {
                 .minBasketValue(BigDecimal.valueOf(50))
                 .build();
 
-        when(couponRepository.existsCouponByCode(couponDTO.getCode()))
-                .thenReturn(Mono.just(true));
+        when(couponStore.save(any(Coupon.class)))
+                .thenReturn(Mono.error(new DuplicateKeyException("Unique index or primary key violation")));
 
         Mono<CouponDTO> result = couponService.createCoupon(couponDTO);
 
@@ -173,10 +243,7 @@ class CouponServiceTest {
                 .minBasketValue(BigDecimal.valueOf(50))
                 .build();
 
-        when(couponRepository.existsCouponByCode(couponDTO.getCode()))
-                .thenReturn(Mono.just(false));
-
-        when(couponRepository.save(any(Coupon.class)))
+        when(couponStore.save(any(Coupon.class)))
                 .thenReturn(Mono.just(savedCoupon));
 
         when(couponMapper.toDto(any(Coupon.class)))
@@ -208,7 +275,7 @@ class CouponServiceTest {
                 .build();
 
         when(basketMapper.toBasket(any())).thenReturn(getSampleBasket(BigDecimal.TEN));
-        when(couponRepository.findByCode("COUPON123")).thenReturn(Mono.just(coupon));
+        when(couponStore.findByCode("COUPON123")).thenReturn(Mono.just(coupon));
         when(basketMapper.toDto(any())).thenReturn(getSampleBasketDTO(BigDecimal.TEN));
 
         Mono<BasketDTO> result = couponService.applyCoupon(requestDTO);
@@ -227,7 +294,7 @@ class CouponServiceTest {
         ApplicationRequestDTO requestDTO = new ApplicationRequestDTO("INVALID", getSampleBasketDTO(BigDecimal.TEN));
 
         when(basketMapper.toBasket(any())).thenReturn(getSampleBasket(BigDecimal.TEN));
-        when(couponRepository.findByCode("INVALID")).thenReturn(Mono.empty());
+        when(couponStore.findByCode("INVALID")).thenReturn(Mono.empty());
 
         Mono<BasketDTO> result = couponService.applyCoupon(requestDTO);
 
@@ -247,7 +314,7 @@ class CouponServiceTest {
                 .build();
 
         when(basketMapper.toBasket(any())).thenReturn(getSampleBasket(BigDecimal.ONE));
-        when(couponRepository.findByCode("COUPON123")).thenReturn(Mono.just(coupon));
+        when(couponStore.findByCode("COUPON123")).thenReturn(Mono.just(coupon));
 
         Mono<BasketDTO> result = couponService.applyCoupon(requestDTO);
 
@@ -267,7 +334,7 @@ class CouponServiceTest {
                 .build();
 
         when(basketMapper.toBasket(any())).thenReturn(getSampleBasket(BigDecimal.TEN));
-        when(couponRepository.findByCode("COUPON123")).thenReturn(Mono.just(coupon));
+        when(couponStore.findByCode("COUPON123")).thenReturn(Mono.just(coupon));
 
         Mono<BasketDTO> result = couponService.applyCoupon(requestDTO);
 
@@ -276,6 +343,216 @@ class CouponServiceTest {
                 .verify();
     }
 
+    @Test
+    void get_should_serve_repeated_lookups_from_cache() {
+        Coupon coupon = Coupon.builder()
+                .code("COUPON12")
+                .discount(BigDecimal.ONE)
+                .minBasketValue(BigDecimal.TEN)
+                .build();
+
+        when(couponStore.findByCode("COUPON12")).thenReturn(Mono.just(coupon));
+
+        StepVerifier.create(couponService.getCoupon("COUPON12")).expectNext(coupon).verifyComplete();
+        StepVerifier.create(couponService.getCoupon("COUPON12")).expectNext(coupon).verifyComplete();
+
+        verify(couponStore, times(1)).findByCode("COUPON12");
+        assertThat(couponCache.stats().hitCount()).isEqualTo(1);
+        assertThat(couponCache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void create_should_populate_cache_with_new_coupon() {
+        CouponDTO couponDTO = CouponDTO.builder()
+                .code("NEWCODE1")
+                .discount(BigDecimal.TEN)
+                .minBasketValue(BigDecimal.valueOf(50))
+                .build();
+
+        Coupon savedCoupon = Coupon.builder()
+                .id(1L)
+                .code("NEWCODE1")
+                .discount(BigDecimal.TEN)
+                .minBasketValue(BigDecimal.valueOf(50))
+                .build();
+
+        when(couponStore.save(any(Coupon.class))).thenReturn(Mono.just(savedCoupon));
+        when(couponMapper.toDto(any(Coupon.class))).thenReturn(couponDTO);
+
+        StepVerifier.create(couponService.createCoupon(couponDTO)).expectNext(couponDTO).verifyComplete();
+        StepVerifier.create(couponService.getCoupon("NEWCODE1")).expectNext(savedCoupon).verifyComplete();
+
+        verify(couponStore, times(0)).findByCode("NEWCODE1");
+    }
+
+    @Test
+    void apply_should_reject_unknown_code_without_database_lookup() {
+        ApplicationRequestDTO requestDTO = new ApplicationRequestDTO("TYPO1234", getSampleBasketDTO(BigDecimal.TEN));
+
+        when(couponStore.findAllCodes()).thenReturn(Flux.just("SUMMER24", "CODE2025"));
+        when(basketMapper.toBasket(any())).thenReturn(getSampleBasket(BigDecimal.TEN));
+
+        StepVerifier.create(codeFilter.rebuild()).expectNext(2L).verifyComplete();
+
+        StepVerifier.create(couponService.applyCoupon(requestDTO))
+                .expectError(CouponNotFoundException.class)
+                .verify();
+
+        verify(couponStore, times(0)).findByCode("TYPO1234");
+        assertThat(codeFilter.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    void apply_should_reject_once_max_redemptions_reached() {
+        Coupon coupon = Coupon.builder()
+                .code("FIRST100")
+                .discount(BigDecimal.ONE)
+                .minBasketValue(BigDecimal.ZERO)
+                .maxRedemptions(2)
+                .redemptions(1)
+                .build();
+
+        when(basketMapper.toBasket(any())).thenReturn(getSampleBasket(BigDecimal.TEN));
+        when(basketMapper.toDto(any())).thenReturn(getSampleBasketDTO(BigDecimal.TEN));
+
+        StepVerifier.create(couponService.applyCoupon(coupon, getSampleBasketDTO(BigDecimal.TEN)))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(couponService.applyCoupon(coupon, getSampleBasketDTO(BigDecimal.TEN)))
+                .expectError(CouponRedemptionLimitReachedException.class)
+                .verify();
+
+        assertThat(redemptionLimiter.redemptions("FIRST100")).isEqualTo(2);
+        assertThat(redemptionLedger.poll(10)).singleElement().satisfies(entry -> {
+            assertThat(entry.getCode()).isEqualTo("FIRST100");
+            assertThat(entry.getBasketValueCents()).isEqualTo(1_000);
+            assertThat(entry.getDiscountCents()).isEqualTo(100);
+        });
+    }
+
+    @Test
+    void apply_should_not_consume_redemption_when_basket_value_insufficient() {
+        Coupon coupon = Coupon.builder()
+                .code("FIRST100")
+                .discount(BigDecimal.ONE)
+                .minBasketValue(BigDecimal.valueOf(100))
+                .maxRedemptions(1)
+                .build();
+
+        when(basketMapper.toBasket(any())).thenReturn(getSampleBasket(BigDecimal.TEN));
+
+        StepVerifier.create(couponService.applyCoupon(coupon, getSampleBasketDTO(BigDecimal.TEN)))
+                .expectError(InsufficientBasketValueException.class)
+                .verify();
+
+        assertThat(redemptionLimiter.redemptions("FIRST100")).isZero();
+        assertThat(redemptionLedger.size()).isZero();
+    }
+
+    @Test
+    void find_should_return_not_found_when_coupon_code_not_exists() {
+        when(couponStore.findByCode("UNKNOWN1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(couponService.findCoupon("UNKNOWN1"))
+                .expectError(CouponNotFoundException.class)
+                .verify();
+
+        verify(couponMapper, times(0)).toDto(any(Coupon.class));
+    }
+
+    @Test
+    void apply_should_keep_indexed_coupons_off_the_heap_cache() {
+        OffHeapCouponIndex couponIndex = new OffHeapCouponIndex(couponStore, new CouponIndexProperties(),
+                new SimpleMeterRegistry());
+        CouponService indexedService = withIndex(couponIndex);
+
+        Coupon coupon = getSampleCoupon("INDEXED1");
+        ApplicationRequestDTO requestDTO = ApplicationRequestDTO.builder()
+                .code("INDEXED1")
+                .basket(getSampleBasketDTO(BigDecimal.valueOf(100)))
+                .build();
+
+        when(couponStore.findByCode("INDEXED1")).thenReturn(Mono.just(coupon));
+        when(basketMapper.toBasket(any())).thenAnswer(invocation -> getSampleBasket(BigDecimal.valueOf(100)));
+        when(basketMapper.toDto(any())).thenReturn(getSampleBasketDTO(BigDecimal.valueOf(100)));
+
+        StepVerifier.create(indexedService.applyCoupon(requestDTO)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(indexedService.applyCoupon(requestDTO)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(indexedService.getCoupon("INDEXED1"))
+                .assertNext(found -> {
+                    assertThat(found.getDiscountCents()).isEqualTo(coupon.getDiscountCents());
+                    assertThat(found.getMinBasketValueCents()).isEqualTo(coupon.getMinBasketValueCents());
+                })
+                .verifyComplete();
+
+        verify(couponStore, times(1)).findByCode("INDEXED1");
+        assertThat(couponIndex.size()).isEqualTo(1);
+        assertThat(couponCache.get("INDEXED1")).isNull();
+    }
+
+    @Test
+    void filter_should_read_indexed_coupons_without_repository() {
+        OffHeapCouponIndex couponIndex = new OffHeapCouponIndex(couponStore, new CouponIndexProperties(),
+                new SimpleMeterRegistry());
+        couponIndex.put(getSampleCoupon("INDEXED1"));
+        couponIndex.put(getSampleCoupon("INDEXED2"));
+
+        when(couponMapper.toDto(any(Coupon.class))).thenAnswer(invocation -> CouponDTO.builder()
+                .code(invocation.<Coupon>getArgument(0).getCode())
+                .build());
+
+        StepVerifier.create(withIndex(couponIndex).getCoupons(CouponRequestDTO.builder()
+                        .codes(List.of("INDEXED2", "INDEXED1"))
+                        .build()))
+                .assertNext(dto -> assertThat(dto.getCode()).isEqualTo("INDEXED2"))
+                .assertNext(dto -> assertThat(dto.getCode()).isEqualTo("INDEXED1"))
+                .verifyComplete();
+
+        verify(couponStore, times(0)).findByCodeIn(any());
+    }
+
+    @Test
+    void recommend_should_return_created_coupons_the_basket_qualifies_for_by_discount() {
+        when(couponStore.save(any(Coupon.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(couponMapper.toDto(any(Coupon.class))).thenAnswer(invocation -> CouponDTO.builder()
+                .code(invocation.<Coupon>getArgument(0).getCode())
+                .build());
+        when(basketMapper.toBasket(any())).thenReturn(getSampleBasket(BigDecimal.valueOf(60)));
+
+        create("CHEAP001", "5.00", "10.00", null);
+        create("BEST0001", "20.00", "50.00", null);
+        create("LARGE001", "30.00", "100.00", null);
+        create("LIMITED1", "25.00", "0.00", 1);
+        Coupon limited = Coupon.builder()
+                .code("LIMITED1")
+                .discount(new BigDecimal("25.00"))
+                .minBasketValue(BigDecimal.ZERO)
+                .maxRedemptions(1)
+                .build();
+
+        StepVerifier.create(couponService.recommendCoupons(getSampleBasketDTO(BigDecimal.valueOf(60)), 2)
+                        .map(CouponDTO::getCode))
+                .expectNext("LIMITED1", "BEST0001")
+                .verifyComplete();
+
+        assertTrue(redemptionLimiter.tryReserve(limited));
+
+        StepVerifier.create(couponService.recommendCoupons(getSampleBasketDTO(BigDecimal.valueOf(60)), 5)
+                        .map(CouponDTO::getCode))
+                .expectNext("BEST0001", "CHEAP001")
+                .verifyComplete();
+    }
+
+    private void create(String code, String discount, String minBasketValue, Integer maxRedemptions) {
+        couponService.createCoupon(CouponDTO.builder()
+                        .code(code)
+                        .discount(new BigDecimal(discount))
+                        .minBasketValue(new BigDecimal(minBasketValue))
+                        .maxRedemptions(maxRedemptions)
+                        .build())
+                .block();
+    }
+
     private BasketDTO getSampleBasketDTO(BigDecimal value) {
         return BasketDTO.builder()
                 .value(value)
@@ -286,9 +563,17 @@ class CouponServiceTest {
 
     private Basket getSampleBasket(BigDecimal value) {
         return Basket.builder()
-                .value(value)
-                .appliedDiscount(BigDecimal.ZERO)
+                .value(Money.toCents(value))
+                .appliedDiscount(0L)
                 .applicationSuccessful(Boolean.FALSE)
                 .build();
     }
+
+    private Coupon getSampleCoupon(String code) {
+        return Coupon.builder()
+                .code(code)
+                .discount(BigDecimal.TEN)
+                .minBasketValue(BigDecimal.valueOf(50))
+                .build();
+    }
 }
@@ -0,0 +1,107 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.configuration.CouponLedgerProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponStackingProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.mapper.impl.BasketMapperImpl;
+import schwarz.jobs.interview.coupon.core.repository.CouponStore;
+import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
+import schwarz.jobs.interview.coupon.web.dto.StackingRequestDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CouponStackingServiceTest {
+
+    private final CouponStackingService couponStackingService;
+    private final CouponStore couponStore;
+    private final CouponRedemptionLimiter redemptionLimiter = new CouponRedemptionLimiter();
+
+    CouponStackingServiceTest(@Mock CouponStore couponStore) {
+        this.couponStore = couponStore;
+
+        CouponRedemptionLedger redemptionLedger = new CouponRedemptionLedger(new CouponLedgerProperties());
+
+        CouponService couponService = CouponServiceFixture.of(couponStore)
+                .redemptions(redemptionLimiter, redemptionLedger)
+                .build();
+
+        this.couponStackingService = new CouponStackingService(couponService, new BasketMapperImpl(),
+                new CouponStackingSolver(new CouponStackingProperties()), redemptionLimiter, redemptionLedger);
+    }
+
+    @Test
+    void apply_stack_should_apply_the_qualifying_coupons_with_the_largest_total_discount() {
+        when(couponStore.findByCodeIn(anyList())).thenReturn(Flux.just(
+                coupon("SIXTY001", "60", "50", null),
+                coupon("FIFTY001", "50", "0", null),
+                coupon("FORTY001", "40", "0", 5),
+                coupon("THIRTY01", "30", "200", null),
+                Coupon.builder()
+                        .code("USEDUP01")
+                        .discount(BigDecimal.valueOf(45))
+                        .minBasketValue(BigDecimal.ZERO)
+                        .maxRedemptions(1)
+                        .redemptions(1)
+                        .build()));
+
+        StackingRequestDTO request = StackingRequestDTO.builder()
+                .codes(List.of("FORTY001", "SIXTY001", "FIFTY001", "THIRTY01", "USEDUP01", "UNKNOWN1", "SIXTY001"))
+                .basket(BasketDTO.builder().value(BigDecimal.valueOf(100)).appliedDiscount(BigDecimal.ZERO).build())
+                .build();
+
+        StepVerifier.create(couponStackingService.applyCoupons(request))
+                .assertNext(result -> {
+                    assertThat(result.getCodes()).containsExactly("FORTY001", "SIXTY001");
+                    assertThat(result.getBasket().getAppliedDiscount()).isEqualTo(new BigDecimal("100.00"));
+                    assertThat(result.getBasket().isApplicationSuccessful()).isTrue();
+                })
+                .verifyComplete();
+
+        verify(couponStore, times(1)).findByCodeIn(anyList());
+        assertThat(redemptionLimiter.redemptions("FORTY001")).isEqualTo(1);
+        assertThat(redemptionLimiter.redemptions("USEDUP01")).isZero();
+    }
+
+    @Test
+    void apply_stack_should_leave_the_basket_unchanged_when_no_candidate_applies() {
+        when(couponStore.findByCodeIn(anyList())).thenReturn(Flux.just(coupon("SIXTY001", "60", "50", null)));
+
+        StackingRequestDTO request = StackingRequestDTO.builder()
+                .codes(List.of("SIXTY001"))
+                .basket(BasketDTO.builder().value(BigDecimal.valueOf(40)).appliedDiscount(BigDecimal.ZERO).build())
+                .build();
+
+        StepVerifier.create(couponStackingService.applyCoupons(request))
+                .assertNext(result -> {
+                    assertThat(result.getCodes()).isEmpty();
+                    assertThat(result.getBasket().getAppliedDiscount()).isEqualTo(new BigDecimal("0.00"));
+                    assertThat(result.getBasket().isApplicationSuccessful()).isFalse();
+                })
+                .verifyComplete();
+    }
+
+    private static Coupon coupon(final String code, final String discount, final String minBasketValue,
+                                 final Integer maxRedemptions) {
+        return Coupon.builder()
+                .code(code)
+                .discount(new BigDecimal(discount))
+                .minBasketValue(new BigDecimal(minBasketValue))
+                .maxRedemptions(maxRedemptions)
+                .build();
+    }
+
+}
@@ -0,0 +1,110 @@
+package schwarz.jobs.interview.coupon.core.services;
+
+import org.junit.jupiter.api.Test;
+import schwarz.jobs.interview.coupon.configuration.CouponStackingProperties;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.Money;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponStackingSolverTest {
+
+    private final CouponStackingProperties properties = new CouponStackingProperties();
+
+    private final CouponStackingSolver solver = new CouponStackingSolver(properties);
+
+    @Test
+    void solve_should_pick_the_subset_that_fills_the_basket_best() {
+        List<Coupon> candidates = List.of(coupon("COUPON01", 500), coupon("COUPON02", 400),
+                coupon("COUPON03", 300), coupon("COUPON04", 300));
+
+        CouponStackingSolver.Selection selection = solver.solve(candidates, 1_000);
+
+        // greedy would stop at 500 + 400
+        assertThat(selection.getCoupons()).extracting(Coupon::getCode).containsExactly("COUPON02", "COUPON03", "COUPON04");
+        assertThat(selection.getDiscountCents()).isEqualTo(1_000);
+        assertThat(selection.isOptimal()).isTrue();
+    }
+
+    @Test
+    void solve_should_match_exhaustive_search_on_random_candidates() {
+        Random random = new Random(42);
+
+        for (int round = 0; round < 500; round++) {
+            long capacity = 1 + random.nextInt(20_000);
+            List<Coupon> candidates = new ArrayList<>();
+            for (int i = 0, size = 1 + random.nextInt(14); i < size; i++) {
+                candidates.add(coupon(String.format("RAND%04d", i), 1 + random.nextInt((int) capacity)));
+            }
+
+            CouponStackingSolver.Selection selection = solver.solve(candidates, capacity);
+
+            assertThat(selection.getDiscountCents()).isEqualTo(exhaustive(candidates, capacity));
+            assertThat(selection.getCoupons().stream().mapToLong(Coupon::getDiscountCents).sum())
+                    .isEqualTo(selection.getDiscountCents());
+            assertThat(selection.isOptimal()).isTrue();
+        }
+    }
+
+    @Test
+    void solve_should_fall_back_to_dynamic_programming_when_the_search_budget_runs_out() {
+        properties.setSearchBudget(1);
+        Random random = new Random(7);
+
+        for (int round = 0; round < 100; round++) {
+            long capacity = 1 + random.nextInt(5_000);
+            List<Coupon> candidates = new ArrayList<>();
+            for (int i = 0, size = 1 + random.nextInt(12); i < size; i++) {
+                candidates.add(coupon(String.format("RAND%04d", i), 1 + random.nextInt((int) capacity)));
+            }
+
+            CouponStackingSolver.Selection selection = solver.solve(candidates, capacity);
+
+            assertThat(selection.getDiscountCents()).isEqualTo(exhaustive(candidates, capacity));
+            assertThat(selection.isOptimal()).isTrue();
+        }
+    }
+
+    @Test
+    void solve_should_keep_the_best_subset_found_when_the_capacity_is_too_large_to_solve_exactly() {
+        properties.setSearchBudget(1);
+        properties.setExactCapacityCents(0);
+        List<Coupon> candidates = List.of(coupon("COUPON01", 500), coupon("COUPON02", 400),
+                coupon("COUPON03", 300), coupon("COUPON04", 300));
+
+        CouponStackingSolver.Selection selection = solver.solve(candidates, 1_000);
+
+        assertThat(selection.getDiscountCents()).isEqualTo(900);
+        assertThat(selection.isOptimal()).isFalse();
+    }
+
+    private static long exhaustive(final List<Coupon> candidates, final long capacity) {
+        long best = 0;
+        for (int mask = 0; mask < 1 << candidates.size(); mask++) {
+            long sum = 0;
+            for (int i = 0; i < candidates.size(); i++) {
+                if ((mask & 1 << i) != 0) {
+                    sum += candidates.get(i).getDiscountCents();
+                }
+            }
+            if (sum <= capacity) {
+                best = Math.max(best, sum);
+            }
+        }
+        return best;
+    }
+
+    private static Coupon coupon(final String code, final long discountCents) {
+        return Coupon.builder()
+                .code(code)
+                .discount(Money.toBigDecimal(discountCents))
+                .minBasketValue(BigDecimal.ZERO)
+                .build();
+    }
+
+}
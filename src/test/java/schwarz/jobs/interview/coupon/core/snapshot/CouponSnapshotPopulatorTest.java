@@ -0,0 +1,80 @@
+package schwarz.jobs.interview.coupon.core.snapshot;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponSnapshotPopulatorTest {
+
+    @TempDir
+    Path directory;
+
+    private ConnectionFactory connectionFactory;
+
+    private Connection keepAlive;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = ConnectionFactories.get("r2dbc:h2:mem:///snapshot-populator");
+        keepAlive = Mono.from(connectionFactory.create()).block();
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        Mono.from(keepAlive.close()).block();
+    }
+
+    @Test
+    void populate_should_load_every_coupon_and_continue_ids_after_the_snapshot() throws IOException {
+        Path path = directory.resolve("coupons.snapshot");
+        try (CouponSnapshot.Writer writer = CouponSnapshot.create(path)) {
+            for (int i = 0; i < 2500; i++) {
+                writer.append(Coupon.builder()
+                        .id(i * 2L + 1)
+                        .code(CouponCodes.unpack(1_000_000L + i))
+                        .discount(BigDecimal.valueOf(i, 2))
+                        .minBasketValue(BigDecimal.valueOf(1000 + i, 2))
+                        .maxRedemptions(i % 2 == 0 ? null : 10)
+                        .redemptions(i % 2 == 0 ? 0 : 3)
+                        .redeemedDiscount(BigDecimal.ZERO)
+                        .build());
+            }
+            writer.commit();
+        }
+
+        new CouponSnapshotPopulator(path, 1000).populate(connectionFactory).block();
+
+        DatabaseClient client = DatabaseClient.create(connectionFactory);
+        assertThat(client.sql("SELECT COUNT(*) FROM COUPONS").map(row -> row.get(0, Long.class)).one().block())
+                .isEqualTo(2500);
+        assertThat(client.sql("SELECT MAX_REDEMPTIONS FROM COUPONS WHERE CODE = $1")
+                .bind(0, CouponCodes.unpack(1_000_001L))
+                .map(row -> row.get(0, Integer.class))
+                .one()
+                .block()).isEqualTo(10);
+
+        client.sql("INSERT INTO COUPONS (CODE, DISCOUNT, MIN_BASKET_VALUE) VALUES ('NEWCODE1', 1.00, 0.00)")
+                .then()
+                .block();
+        assertThat(client.sql("SELECT ID FROM COUPONS WHERE CODE = 'NEWCODE1'").map(row -> row.get(0, Long.class)).one().block())
+                .isEqualTo(5000);
+    }
+
+}
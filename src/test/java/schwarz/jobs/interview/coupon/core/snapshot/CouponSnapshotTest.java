@@ -0,0 +1,109 @@
+package schwarz.jobs.interview.coupon.core.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import schwarz.jobs.interview.coupon.core.domain.Coupon;
+import schwarz.jobs.interview.coupon.core.models.CouponCodes;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CouponSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void open_should_read_back_every_written_coupon() throws IOException {
+        Path path = directory.resolve("coupons.snapshot");
+        Coupon limited = Coupon.builder()
+                .id(99L)
+                .code("LIMITED1")
+                .discount(new BigDecimal("2.50"))
+                .minBasketValue(new BigDecimal("0.00"))
+                .maxRedemptions(100)
+                .discountBudget(new BigDecimal("500.00"))
+                .redemptions(7)
+                .redeemedDiscount(new BigDecimal("17.50"))
+                .build();
+
+        try (CouponSnapshot.Writer writer = CouponSnapshot.create(path)) {
+            for (int i = 0; i < 2000; i++) {
+                writer.append(coupon(i));
+            }
+            writer.append(limited);
+            assertThat(writer.commit()).isEqualTo(2001);
+        }
+
+        CouponSnapshot snapshot = CouponSnapshot.open(path);
+
+        assertThat(snapshot.count()).isEqualTo(2001);
+        assertThat(snapshot.maxId()).isEqualTo(2000);
+        assertThat(snapshot.get(1234)).isEqualTo(coupon(1234));
+        assertThat(snapshot.get(2000)).isEqualTo(limited);
+        assertThat(Files.size(path)).isEqualTo(CouponSnapshot.HEADER_BYTES + 2001L * CouponSnapshot.RECORD_BYTES);
+    }
+
+    @Test
+    void open_should_reject_corrupted_and_truncated_snapshots() throws IOException {
+        Path path = directory.resolve("coupons.snapshot");
+        write(path, 10);
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(CouponSnapshot.HEADER_BYTES + 3L * CouponSnapshot.RECORD_BYTES + 20);
+            file.write(0x7f);
+        }
+        assertThatThrownBy(() -> CouponSnapshot.open(path))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("checksum");
+
+        write(path, 10);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 1);
+        }
+        assertThatThrownBy(() -> CouponSnapshot.open(path))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("truncated");
+    }
+
+    @Test
+    void uncommitted_writer_should_keep_the_previous_snapshot() throws IOException {
+        Path path = directory.resolve("coupons.snapshot");
+        write(path, 3);
+
+        try (CouponSnapshot.Writer writer = CouponSnapshot.create(path)) {
+            writer.append(coupon(7));
+        }
+
+        assertThat(CouponSnapshot.open(path).count()).isEqualTo(3);
+        try (var files = Files.list(directory)) {
+            assertThat(files).containsExactly(path);
+        }
+    }
+
+    private static void write(final Path path, final int coupons) throws IOException {
+        try (CouponSnapshot.Writer writer = CouponSnapshot.create(path)) {
+            for (int i = 0; i < coupons; i++) {
+                writer.append(coupon(i));
+            }
+            writer.commit();
+        }
+    }
+
+    private static Coupon coupon(final int i) {
+        return Coupon.builder()
+                .id(i + 1L)
+                .code(CouponCodes.unpack(1_000_000L + i))
+                .discount(BigDecimal.valueOf(i, 2))
+                .minBasketValue(BigDecimal.valueOf(1000 + i, 2))
+                .redeemedDiscount(new BigDecimal("0.00"))
+                .build();
+    }
+
+}
@@ -6,35 +6,69 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import schwarz.jobs.interview.coupon.configuration.CouponEventLogProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponHttpCacheProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponIdempotencyProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponJsonCacheProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponRateLimitProperties;
+import schwarz.jobs.interview.coupon.configuration.CouponRecommendationProperties;
 import schwarz.jobs.interview.coupon.core.exception.CouponCodeAlreadyExistsException;
 import schwarz.jobs.interview.coupon.core.exception.CouponNotFoundException;
 import schwarz.jobs.interview.coupon.core.exception.InsufficientBasketValueException;
 import schwarz.jobs.interview.coupon.core.exception.InvalidDiscountException;
+import schwarz.jobs.interview.coupon.core.logging.CouponEventLog;
+import schwarz.jobs.interview.coupon.core.metrics.CouponOutcome;
+import schwarz.jobs.interview.coupon.core.metrics.CouponOutcomeMetrics;
+import schwarz.jobs.interview.coupon.core.services.CouponBulkService;
+import schwarz.jobs.interview.coupon.core.services.CouponImportService;
 import schwarz.jobs.interview.coupon.core.services.CouponService;
+import schwarz.jobs.interview.coupon.core.services.CouponStackingService;
+import schwarz.jobs.interview.coupon.web.codec.CouponJsonCache;
 import schwarz.jobs.interview.coupon.web.dto.ApplicationRequestDTO;
+import schwarz.jobs.interview.coupon.web.dto.ApplicationResultDTO;
 import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
 import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
 import schwarz.jobs.interview.coupon.web.dto.CouponRequestDTO;
+import schwarz.jobs.interview.coupon.web.dto.StackingRequestDTO;
+import schwarz.jobs.interview.coupon.web.dto.StackingResultDTO;
 import schwarz.jobs.interview.coupon.web.errors.ConflictError;
 import schwarz.jobs.interview.coupon.web.errors.DefaultError;
 import schwarz.jobs.interview.coupon.web.errors.NotFoundError;
 import schwarz.jobs.interview.coupon.web.errors.UnprocessableEntityError;
+import schwarz.jobs.interview.coupon.web.idempotency.IdempotencyStore;
+import schwarz.jobs.interview.coupon.web.ratelimit.CouponRateLimiter;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static schwarz.jobs.interview.coupon.constants.ApiConstants.API_PREFIX;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_APPLY_BULK_PATH;
 import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_APPLY_PATH;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_APPLY_STACK_PATH;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_BEST_PATH;
 import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_CREATE_PATH;
 import static schwarz.jobs.interview.coupon.constants.ApiConstants.COUPON_FILTER_PATH;
+import static schwarz.jobs.interview.coupon.constants.ApiConstants.IDEMPOTENCY_KEY_HEADER;
 
-@WebFluxTest(CouponResource.class)
+@WebFluxTest(controllers = CouponResource.class, properties = "coupon.rate-limit.enabled=false")
+@Import({CouponJsonCache.class, CouponJsonCacheProperties.class, CouponHttpCacheProperties.class,
+        IdempotencyStore.class, CouponIdempotencyProperties.class, ClientResolver.class, CouponEventLog.class, CouponEventLogProperties.class,
+        CouponRateLimiter.class, CouponRateLimitProperties.class, CouponRecommendationProperties.class})
 class CouponResourceTest {
 
     @Autowired
@@ -46,6 +80,18 @@ class CouponResourceTest {
     @MockBean
     private CouponService couponService;
 
+    @MockBean
+    private CouponBulkService couponBulkService;
+
+    @MockBean
+    private CouponImportService couponImportService;
+
+    @MockBean
+    private CouponStackingService couponStackingService;
+
+    @MockBean
+    private CouponOutcomeMetrics outcomeMetrics;
+
     @Test
     void filter_should_return_all_coupons_from_controller() throws JsonProcessingException {
         CouponRequestDTO requestDTO = CouponRequestDTO.builder()
@@ -101,6 +147,88 @@ class CouponResourceTest {
                 .expectStatus().is5xxServerError().expectBody(DefaultError.class);
     }
 
+    @Test
+    void best_should_return_recommendations_capped_at_the_max_limit() throws JsonProcessingException {
+        BasketDTO basketDTO = BasketDTO.builder()
+                .value(BigDecimal.valueOf(60))
+                .appliedDiscount(BigDecimal.ZERO)
+                .build();
+        CouponDTO best = CouponDTO.builder().code("BEST0001").discount(BigDecimal.TEN).minBasketValue(BigDecimal.valueOf(50)).build();
+
+        when(couponService.recommendCoupons(any(BasketDTO.class), eq(20))).thenReturn(Flux.just(best));
+
+        webTestClient.post().uri(API_PREFIX.concat(COUPON_BEST_PATH).concat("?limit=500"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(basketDTO))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(CouponDTO.class)
+                .hasSize(1)
+                .contains(best);
+    }
+
+    @Test
+    void best_should_return_422_when_basket_is_invalid() throws JsonProcessingException {
+        BasketDTO basketDTO = BasketDTO.builder()
+                .value(BigDecimal.valueOf(-1))
+                .appliedDiscount(BigDecimal.ZERO)
+                .build();
+
+        webTestClient.post().uri(API_PREFIX.concat(COUPON_BEST_PATH))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(basketDTO))
+                .exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody(UnprocessableEntityError.class);
+
+        verify(couponService, times(0)).recommendCoupons(any(), any(Integer.class));
+    }
+
+    @Test
+    void apply_stack_should_return_200_and_record_each_applied_coupon() throws JsonProcessingException {
+        StackingRequestDTO requestDTO = StackingRequestDTO.builder()
+                .codes(List.of("CODE1234", "CODE5678", "CODE9012"))
+                .basket(BasketDTO.builder().value(BigDecimal.valueOf(100)).appliedDiscount(BigDecimal.ZERO).build())
+                .build();
+        StackingResultDTO resultDTO = StackingResultDTO.builder()
+                .codes(List.of("CODE1234", "CODE9012"))
+                .basket(BasketDTO.builder()
+                        .value(BigDecimal.valueOf(100))
+                        .appliedDiscount(BigDecimal.valueOf(30))
+                        .applicationSuccessful(Boolean.TRUE)
+                        .build())
+                .build();
+
+        when(couponStackingService.applyCoupons(any(StackingRequestDTO.class))).thenReturn(Mono.just(resultDTO));
+
+        webTestClient.put().uri(API_PREFIX.concat(COUPON_APPLY_STACK_PATH))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(requestDTO))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(StackingResultDTO.class)
+                .isEqualTo(resultDTO);
+
+        verify(outcomeMetrics, times(2)).record(CouponOutcome.APPLIED);
+    }
+
+    @Test
+    void apply_stack_should_return_422_when_too_many_codes() throws JsonProcessingException {
+        StackingRequestDTO requestDTO = StackingRequestDTO.builder()
+                .codes(Collections.nCopies(101, "CODE1234"))
+                .basket(BasketDTO.builder().value(BigDecimal.valueOf(100)).appliedDiscount(BigDecimal.ZERO).build())
+                .build();
+
+        webTestClient.put().uri(API_PREFIX.concat(COUPON_APPLY_STACK_PATH))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(requestDTO))
+                .exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody(UnprocessableEntityError.class);
+
+        verify(couponStackingService, times(0)).applyCoupons(any());
+    }
+
     @Test
     void create_should_return_201_when_new_coupon() throws JsonProcessingException {
         CouponDTO couponDTO = CouponDTO.builder()
@@ -122,12 +250,123 @@ class CouponResourceTest {
                 .bodyValue(objectMapper.writeValueAsString(couponDTO))
                 .exchange()
                 .expectStatus().isCreated()
+                .expectHeader().location(API_PREFIX.concat("/TEST1234"))
                 .expectBody(CouponDTO.class)
                 .isEqualTo(
                         CouponDTO.builder().code("TEST1234").discount(BigDecimal.TEN).minBasketValue(BigDecimal.valueOf(50)).build()
                 );
     }
 
+    @Test
+    void get_should_return_coupon_with_etag_and_cache_control() {
+        CouponDTO couponDTO = CouponDTO.builder()
+                .code("TEST1234")
+                .discount(BigDecimal.TEN)
+                .minBasketValue(BigDecimal.valueOf(50))
+                .build();
+
+        when(couponService.findCoupon("TEST1234")).thenReturn(Mono.just(couponDTO));
+
+        webTestClient.get().uri(API_PREFIX.concat("/TEST1234"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .expectHeader().cacheControl(CacheControl.maxAge(Duration.ofSeconds(60)).sMaxAge(Duration.ofMinutes(5)).cachePublic())
+                .expectBody(CouponDTO.class)
+                .isEqualTo(couponDTO);
+    }
+
+    @Test
+    void get_should_return_304_when_etag_matches() {
+        CouponDTO couponDTO = CouponDTO.builder()
+                .code("TEST1234")
+                .discount(BigDecimal.TEN)
+                .minBasketValue(BigDecimal.valueOf(50))
+                .build();
+
+        when(couponService.findCoupon("TEST1234")).thenReturn(Mono.just(couponDTO));
+
+        String etag = webTestClient.get().uri(API_PREFIX.concat("/TEST1234"))
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(CouponDTO.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.get().uri(API_PREFIX.concat("/TEST1234"))
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, etag)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void get_should_return_404_when_coupon_code_not_exists() {
+        when(couponService.findCoupon("UNKNOWN1")).thenReturn(Mono.error(new CouponNotFoundException("UNKNOWN1")));
+
+        webTestClient.get().uri(API_PREFIX.concat("/UNKNOWN1"))
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectHeader().doesNotExist(HttpHeaders.ETAG)
+                .expectBody(NotFoundError.class);
+    }
+
+    @Test
+    void create_should_replay_response_when_idempotency_key_repeated() throws JsonProcessingException {
+        CouponDTO couponDTO = CouponDTO.builder()
+                .code("TEST1234")
+                .discount(BigDecimal.TEN)
+                .minBasketValue(BigDecimal.valueOf(50))
+                .build();
+
+        when(couponService.createCoupon(any(CouponDTO.class))).thenReturn(Mono.just(couponDTO));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            webTestClient.post().uri(API_PREFIX.concat(COUPON_CREATE_PATH))
+                    .header(IDEMPOTENCY_KEY_HEADER, "checkout-42")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(objectMapper.writeValueAsString(couponDTO))
+                    .exchange()
+                    .expectStatus().isCreated()
+                    .expectBody(CouponDTO.class)
+                    .isEqualTo(couponDTO);
+        }
+
+        verify(couponService, times(1)).createCoupon(any(CouponDTO.class));
+        verify(outcomeMetrics, times(1)).record(CouponOutcome.CREATED);
+    }
+
+    @Test
+    void create_should_return_422_when_idempotency_key_reused_for_other_coupon() throws JsonProcessingException {
+        CouponDTO couponDTO = CouponDTO.builder()
+                .code("TEST1234")
+                .discount(BigDecimal.TEN)
+                .minBasketValue(BigDecimal.valueOf(50))
+                .build();
+
+        when(couponService.createCoupon(any(CouponDTO.class))).thenReturn(Mono.just(couponDTO));
+
+        webTestClient.post().uri(API_PREFIX.concat(COUPON_CREATE_PATH))
+                .header(IDEMPOTENCY_KEY_HEADER, "checkout-43")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(couponDTO))
+                .exchange()
+                .expectStatus().isCreated();
+
+        webTestClient.post().uri(API_PREFIX.concat(COUPON_CREATE_PATH))
+                .header(IDEMPOTENCY_KEY_HEADER, "checkout-43")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(objectMapper.writeValueAsString(CouponDTO.builder()
+                        .code("OTHER123")
+                        .discount(BigDecimal.TEN)
+                        .minBasketValue(BigDecimal.valueOf(50))
+                        .build()))
+                .exchange()
+                .expectStatus().isEqualTo(422)
+                .expectBody(UnprocessableEntityError.class);
+    }
+
     @Test
     void create_should_return_409_when_coupon_code_already_exists() throws JsonProcessingException {
         CouponDTO couponDTO = CouponDTO.builder()
@@ -209,6 +448,8 @@ class CouponResourceTest {
                 .isEqualTo(
                         BasketDTO.builder().value(BigDecimal.TEN).appliedDiscount(BigDecimal.ZERO).applicationSuccessful(Boolean.FALSE).build()
                 );
+
+        verify(outcomeMetrics).record(CouponOutcome.APPLIED);
     }
 
     @Test
@@ -231,6 +472,35 @@ class CouponResourceTest {
                 .exchange()
                 .expectStatus().is4xxClientError()
                 .expectBody(NotFoundError.class);
+
+        verify(outcomeMetrics).record(any(CouponNotFoundException.class));
+    }
+
+    @Test
+    void apply_should_replay_404_when_idempotency_key_repeated() throws JsonProcessingException {
+        ApplicationRequestDTO requestDTO = ApplicationRequestDTO.builder()
+                .basket(BasketDTO.builder()
+                        .value(BigDecimal.TEN)
+                        .appliedDiscount(BigDecimal.ZERO)
+                        .applicationSuccessful(Boolean.FALSE)
+                        .build())
+                .code("TEST1234")
+                .build();
+
+        when(couponService.applyCoupon(any(ApplicationRequestDTO.class)))
+                .thenReturn(Mono.error(new CouponNotFoundException("TEST1234")));
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            webTestClient.put().uri(API_PREFIX.concat(COUPON_APPLY_PATH))
+                    .header(IDEMPOTENCY_KEY_HEADER, "checkout-44")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(objectMapper.writeValueAsString(requestDTO))
+                    .exchange()
+                    .expectStatus().isNotFound()
+                    .expectBody(NotFoundError.class);
+        }
+
+        verify(couponService, times(1)).applyCoupon(any(ApplicationRequestDTO.class));
     }
 
     @Test
@@ -324,4 +594,40 @@ class CouponResourceTest {
                 .expectStatus().is5xxServerError().expectBody(DefaultError.class);
     }
 
+    @Test
+    void apply_bulk_should_stream_one_result_per_request() throws JsonProcessingException {
+        ApplicationRequestDTO first = ApplicationRequestDTO.builder()
+                .basket(BasketDTO.builder()
+                        .value(BigDecimal.TEN)
+                        .appliedDiscount(BigDecimal.ZERO)
+                        .applicationSuccessful(Boolean.FALSE)
+                        .build())
+                .code("CODE1234")
+                .build();
+        ApplicationRequestDTO second = ApplicationRequestDTO.builder()
+                .basket(first.getBasket())
+                .code("MISSING1")
+                .build();
+
+        when(couponBulkService.applyCoupons(any(), any())).thenReturn(Flux.just(
+                ApplicationResultDTO.builder().code("CODE1234").status(200)
+                        .basket(BasketDTO.builder().value(BigDecimal.TEN).appliedDiscount(BigDecimal.ONE).applicationSuccessful(Boolean.TRUE).build())
+                        .build(),
+                ApplicationResultDTO.builder().code("MISSING1").status(404)
+                        .error(NotFoundError.builder().message("Coupon code not exists").build())
+                        .build()));
+
+        String body = objectMapper.writeValueAsString(first) + "\n" + objectMapper.writeValueAsString(second) + "\n";
+
+        webTestClient.put().uri(API_PREFIX.concat(COUPON_APPLY_BULK_PATH))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(ApplicationResultDTO.class)
+                .hasSize(2);
+    }
+
 }
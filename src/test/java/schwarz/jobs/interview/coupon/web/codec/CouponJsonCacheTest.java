@@ -0,0 +1,84 @@
+package schwarz.jobs.interview.coupon.web.codec;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.configuration.CouponJsonCacheProperties;
+import schwarz.jobs.interview.coupon.web.dto.CouponDTO;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CouponJsonCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CouponJsonCache couponJsonCache = new CouponJsonCache(objectMapper, new CouponJsonCacheProperties());
+
+    private final DefaultDataBufferFactory bufferFactory = DefaultDataBufferFactory.sharedInstance;
+
+    @Test
+    void json_array_should_match_object_mapper_output() throws JsonProcessingException {
+        List<CouponDTO> coupons = List.of(getSampleCoupon("SUMMER24"), getSampleCoupon("CODE2025"));
+
+        StepVerifier.create(join(couponJsonCache.jsonArray(Flux.fromIterable(coupons), bufferFactory)))
+                .expectNext(objectMapper.writeValueAsString(coupons))
+                .verifyComplete();
+
+        StepVerifier.create(join(couponJsonCache.jsonArray(Flux.empty(), bufferFactory)))
+                .expectNext("[]")
+                .verifyComplete();
+    }
+
+    @Test
+    void ndjson_should_write_one_line_per_coupon() throws JsonProcessingException {
+        CouponDTO coupon = getSampleCoupon("SUMMER24");
+
+        StepVerifier.create(join(couponJsonCache.ndjson(Flux.just(coupon, coupon), bufferFactory)))
+                .expectNext(objectMapper.writeValueAsString(coupon) + "\n" + objectMapper.writeValueAsString(coupon) + "\n")
+                .verifyComplete();
+    }
+
+    @Test
+    void encode_should_reuse_fragment_until_invalidated() {
+        byte[] first = couponJsonCache.encode(getSampleCoupon("SUMMER24"));
+
+        assertThat(couponJsonCache.encode(getSampleCoupon("SUMMER24"))).isSameAs(first);
+
+        couponJsonCache.invalidate("SUMMER24");
+
+        assertThat(couponJsonCache.encode(getSampleCoupon("SUMMER24"))).isNotSameAs(first).isEqualTo(first);
+    }
+
+    @Test
+    void etag_should_be_strong_and_follow_the_coupon_contents() {
+        String etag = couponJsonCache.etag(getSampleCoupon("SUMMER24"));
+
+        assertThat(etag).startsWith("\"").endsWith("\"").doesNotStartWith("W/");
+        assertThat(couponJsonCache.etag(getSampleCoupon("SUMMER24"))).isEqualTo(etag);
+        assertThat(couponJsonCache.etag(getSampleCoupon("CODE2025"))).isNotEqualTo(etag);
+    }
+
+    private Flux<String> join(final Flux<DataBuffer> buffers) {
+        return DataBufferUtils.join(buffers)
+                .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+                .flux();
+    }
+
+    private CouponDTO getSampleCoupon(String code) {
+        return CouponDTO.builder()
+                .code(code)
+                .discount(BigDecimal.TEN)
+                .minBasketValue(BigDecimal.valueOf(50))
+                .build();
+    }
+
+}
@@ -0,0 +1,137 @@
+package schwarz.jobs.interview.coupon.web.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.configuration.CouponIdempotencyProperties;
+import schwarz.jobs.interview.coupon.core.exception.CouponNotFoundException;
+import schwarz.jobs.interview.coupon.core.exception.IdempotencyKeyReusedException;
+import schwarz.jobs.interview.coupon.web.dto.BasketDTO;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyStoreTest {
+
+    private static final String CLIENT = "client-a";
+
+    private final IdempotencyStore store = new IdempotencyStore(new CouponIdempotencyProperties(), new ObjectMapper());
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void retry_should_attach_to_execution_in_flight() {
+        Sinks.One<String> pending = Sinks.one();
+
+        Mono<String> first = store.execute("/apply", CLIENT, "key-1", "request", () -> count(pending.asMono()));
+        Mono<String> retry = store.execute("/apply", CLIENT, "key-1", "request", () -> count(Mono.just("second")));
+
+        StepVerifier.create(Mono.zip(first, retry))
+                .then(() -> pending.tryEmitValue("first"))
+                .assertNext(results -> {
+                    assertThat(results.getT1()).isEqualTo("first");
+                    assertThat(results.getT2()).isEqualTo("first");
+                })
+                .verifyComplete();
+
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void retry_should_replay_completed_domain_outcome() {
+        StepVerifier.create(store.execute("/apply", CLIENT, "key-1", "request",
+                        () -> count(Mono.error(new CouponNotFoundException("UNKNOWN1")))))
+                .expectError(CouponNotFoundException.class)
+                .verify();
+        StepVerifier.create(store.execute("/apply", CLIENT, "key-1", "request", () -> count(Mono.just("ok"))))
+                .expectError(CouponNotFoundException.class)
+                .verify();
+
+        assertThat(executions).hasValue(1);
+        assertThat(store.stats().hitCount()).isEqualTo(1);
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void retry_should_run_again_after_unexpected_error() {
+        StepVerifier.create(store.execute("/create", CLIENT, "key-1", "request",
+                        () -> count(Mono.error(new IllegalStateException("connection reset")))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(store.execute("/create", CLIENT, "key-1", "request", () -> count(Mono.just("ok"))))
+                .expectNext("ok")
+                .verifyComplete();
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void key_should_be_rejected_when_reused_for_different_request() {
+        StepVerifier.create(store.execute("/create", CLIENT, "key-1", "request", () -> count(Mono.just("ok"))))
+                .expectNext("ok")
+                .verifyComplete();
+        StepVerifier.create(store.execute("/create", CLIENT, "key-1", "other", () -> count(Mono.just("ok"))))
+                .expectError(IdempotencyKeyReusedException.class)
+                .verify();
+        StepVerifier.create(store.execute("/apply", CLIENT, "key-1", "other", () -> count(Mono.just("ok"))))
+                .expectNext("ok")
+                .verifyComplete();
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void key_should_be_held_per_client() {
+        StepVerifier.create(store.execute("/create", CLIENT, "key-1", "request", () -> count(Mono.just("first"))))
+                .expectNext("first")
+                .verifyComplete();
+        StepVerifier.create(store.execute("/create", "client-b", "key-1", "other", () -> count(Mono.just("second"))))
+                .expectNext("second")
+                .verifyComplete();
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void retry_should_match_amounts_regardless_of_their_scale() {
+        BasketDTO basket = BasketDTO.builder().value(new BigDecimal("10.0")).appliedDiscount(BigDecimal.ZERO).build();
+        BasketDTO retried = BasketDTO.builder().value(new BigDecimal("10.00")).appliedDiscount(new BigDecimal("0.00")).build();
+
+        StepVerifier.create(store.execute("/apply", CLIENT, "key-1", basket, () -> count(Mono.just("ok"))))
+                .expectNext("ok")
+                .verifyComplete();
+        StepVerifier.create(store.execute("/apply", CLIENT, "key-1", retried, () -> count(Mono.just("again"))))
+                .expectNext("ok")
+                .verifyComplete();
+        StepVerifier.create(store.execute("/apply", CLIENT, "key-1",
+                        BasketDTO.builder().value(new BigDecimal("10.01")).appliedDiscount(BigDecimal.ZERO).build(),
+                        () -> count(Mono.just("again"))))
+                .expectError(IdempotencyKeyReusedException.class)
+                .verify();
+
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void execute_without_key_should_always_run() {
+        StepVerifier.create(store.execute("/apply", CLIENT, null, "request", () -> count(Mono.just("ok"))))
+                .expectNext("ok")
+                .verifyComplete();
+        StepVerifier.create(store.execute("/apply", CLIENT, null, "request", () -> count(Mono.just("ok"))))
+                .expectNext("ok")
+                .verifyComplete();
+
+        assertThat(executions).hasValue(2);
+        assertThat(store.size()).isZero();
+    }
+
+    private <T> Mono<T> count(final Mono<T> operation) {
+        executions.incrementAndGet();
+        return operation;
+    }
+
+}
@@ -0,0 +1,124 @@
+package schwarz.jobs.interview.coupon.web.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import schwarz.jobs.interview.coupon.configuration.CouponRateLimitProperties;
+import schwarz.jobs.interview.coupon.core.metrics.CouponOutcomeMetrics;
+import schwarz.jobs.interview.coupon.web.ClientResolver;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimitWebFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger passed = new AtomicInteger();
+
+    private final RateLimitWebFilter filter;
+
+    RateLimitWebFilterTest() throws Exception {
+        CouponRateLimitProperties.Limit applyLimit = new CouponRateLimitProperties.Limit();
+        applyLimit.setCapacity(2);
+        applyLimit.setRefillPerSecond(0.001);
+
+        CouponRateLimitProperties properties = new CouponRateLimitProperties();
+        properties.setClientHeader("X-Client-Id");
+        properties.getRoutes().put("/apply", applyLimit);
+
+        this.filter = new RateLimitWebFilter(new CouponRateLimiter(properties), new ClientResolver(properties), properties,
+                new CouponOutcomeMetrics(meterRegistry), new ObjectMapper());
+    }
+
+    @Test
+    void client_should_get_429_once_its_bucket_is_empty() {
+        assertThat(call("/api/coupons/apply", "client-a").getResponse().getStatusCode()).isNull();
+        assertThat(call("/api/coupons/apply", "client-a").getResponse().getStatusCode()).isNull();
+
+        MockServerWebExchange rejected = call("/api/coupons/apply", "client-a");
+
+        assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1000");
+        StepVerifier.create(rejected.getResponse().getBodyAsString())
+                .expectNext("{\"message\":\"Too many requests, retry later\"}")
+                .verifyComplete();
+        assertThat(passed).hasValue(2);
+        assertThat(meterRegistry.get("coupon.outcomes").tag("outcome", "rate_limited").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void buckets_should_be_kept_per_client_and_route() {
+        call("/api/coupons/apply", "client-a");
+        call("/api/coupons/apply", "client-a");
+
+        assertThat(call("/api/coupons/apply", "client-b").getResponse().getStatusCode()).isNull();
+        assertThat(call("/api/coupons/apply/bulk", "client-a").getResponse().getStatusCode()).isNull();
+        assertThat(call("/actuator/health", "client-a").getResponse().getStatusCode()).isNull();
+        assertThat(passed).hasValue(5);
+    }
+
+    @Test
+    void trailing_slash_should_count_against_the_same_route() {
+        call("/api/coupons/apply", "client-a");
+        call("/api/coupons/apply/", "client-a");
+
+        assertThat(call("/api/coupons/apply/", "client-a").getResponse().getStatusCode())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(passed).hasValue(2);
+    }
+
+    @Test
+    void slow_refill_should_not_overflow_the_bucket() {
+        CouponRateLimitProperties.Limit slow = new CouponRateLimitProperties.Limit();
+        slow.setCapacity(2);
+        slow.setRefillPerSecond(Double.MIN_VALUE);
+        CouponRateLimitProperties.Limit huge = new CouponRateLimitProperties.Limit();
+        huge.setCapacity(Integer.MAX_VALUE);
+        huge.setRefillPerSecond(1e-9);
+
+        CouponRateLimitProperties properties = new CouponRateLimitProperties();
+        properties.getRoutes().put("/apply", slow);
+        properties.getRoutes().put("/create", huge);
+        CouponRateLimiter rateLimiter = new CouponRateLimiter(properties);
+
+        assertThat(rateLimiter.tryAcquire("client-a", rateLimiter.route("/apply"))).isZero();
+        assertThat(rateLimiter.tryAcquire("client-a", rateLimiter.route("/apply"))).isZero();
+        assertThat(rateLimiter.tryAcquire("client-a", rateLimiter.route("/apply"))).isPositive();
+        assertThat(rateLimiter.tryAcquire("client-a", rateLimiter.route("/create"))).isZero();
+    }
+
+    @Test
+    void bulk_requests_should_be_charged_per_item_instead_of_per_request() {
+        CouponRateLimitProperties.Limit bulkLimit = new CouponRateLimitProperties.Limit();
+        bulkLimit.setCapacity(2);
+        bulkLimit.setRefillPerSecond(0.001);
+
+        CouponRateLimitProperties properties = new CouponRateLimitProperties();
+        properties.getRoutes().put("/apply/bulk", bulkLimit);
+        CouponRateLimiter rateLimiter = new CouponRateLimiter(properties);
+
+        assertThat(rateLimiter.chargedPerItem("/apply/bulk/")).isTrue();
+        assertThat(rateLimiter.chargedPerItem("/apply")).isFalse();
+        assertThat(rateLimiter.tryAcquireItem("client-a")).isTrue();
+        assertThat(rateLimiter.tryAcquireItem("client-a")).isTrue();
+        assertThat(rateLimiter.tryAcquireItem("client-a")).isFalse();
+        assertThat(rateLimiter.tryAcquireItem("client-b")).isTrue();
+    }
+
+    private MockServerWebExchange call(final String path, final String client) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.put(path)
+                .header("X-Client-Id", client));
+
+        filter.filter(exchange, served -> Mono.fromRunnable(passed::incrementAndGet)).block();
+        return exchange;
+    }
+
+}